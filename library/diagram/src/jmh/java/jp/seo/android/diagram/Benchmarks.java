@@ -0,0 +1,80 @@
+package jp.seo.android.diagram;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * ベンチマーク間で共有する補助処理.
+ * 入力の点集合は{@link DatasetGenerator}で生成します
+ * @author Seo-4d696b75
+ * @version 2026/10/19
+ */
+final class Benchmarks {
+
+    private Benchmarks(){}
+
+    private static PrintStream stdout;
+
+    /**
+     * {@link DelaunayDiagram#split(Rectangle)}などが出力する進捗表示を捨てる.
+     * 文字列の整形自体は計測対象に含まれます
+     */
+    static synchronized void silence(){
+        if ( stdout == null ){
+            stdout = System.out;
+            System.setOut(new PrintStream(new OutputStream() {
+                @Override
+                public void write(int b) {
+                }
+
+                @Override
+                public void write(byte[] b, int off, int len) {
+                }
+            }));
+        }
+    }
+
+    static synchronized void restore(){
+        if ( stdout != null ){
+            System.setOut(stdout);
+            stdout = null;
+        }
+    }
+
+    static Map<Point, List<Point>> neighbors(DelaunayDiagram diagram){
+        Map<Point, List<Point>> map = new HashMap<>();
+        for ( Edge edge : diagram.getEdges() ){
+            put(map, edge.a, edge.b);
+            put(map, edge.b, edge.a);
+        }
+        return map;
+    }
+
+    private static void put(Map<Point, List<Point>> map, Point key, Point value){
+        List<Point> list = map.get(key);
+        if ( list == null ){
+            list = new ArrayList<>();
+            map.put(key, list);
+        }
+        list.add(value);
+    }
+
+    static Point nearest(Collection<? extends Point> points, Point target){
+        Point nearest = null;
+        double min = Double.MAX_VALUE;
+        for ( Point p : points ){
+            double d = Point.measure(p, target);
+            if ( d < min ){
+                min = d;
+                nearest = p;
+            }
+        }
+        return nearest;
+    }
+
+}
@@ -0,0 +1,59 @@
+package jp.seo.android.diagram;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link DelaunayDiagram#split(Rectangle)}の計測
+ * @author Seo-4d696b75
+ * @version 2026/10/19
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+public class DelaunayBenchmark {
+
+    @Param({"1000", "10000", "100000", "1000000"})
+    public int size;
+
+    @Param({"UNIFORM", "CLUSTERED", "GRID", "COCIRCULAR", "COLLINEAR_HULL"})
+    public DatasetGenerator.Distribution distribution;
+
+    private List<Point> points;
+
+    @Setup(Level.Trial)
+    public void setup(){
+        Benchmarks.silence();
+        points = DatasetGenerator.generate(distribution, size, size);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown(){
+        Benchmarks.restore();
+    }
+
+    @Benchmark
+    public DelaunayDiagram split(){
+        DelaunayDiagram diagram = new DelaunayDiagram(points);
+        diagram.split(DatasetGenerator.BORDER);
+        return diagram;
+    }
+
+}
@@ -0,0 +1,76 @@
+package jp.seo.android.diagram;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link HighVoronoi#solve(int, Point, HighVoronoi.PointProvider, HighVoronoi.ResultCallback)}の計測.
+ * 入力のドロネー図は計測前に一度だけ解決します
+ * @author Seo-4d696b75
+ * @version 2026/10/19
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class HighVoronoiBenchmark {
+
+    @Param({"1", "5", "20", "50"})
+    public int level;
+
+    @Param({"10000"})
+    public int size;
+
+    @Param({"UNIFORM", "CLUSTERED", "GRID"})
+    public DatasetGenerator.Distribution distribution;
+
+    private Point center;
+    private Triangle frame;
+    private HighVoronoi.PointProvider<Point> provider;
+
+    @Setup(Level.Trial)
+    public void setup(){
+        Benchmarks.silence();
+        List<Point> points = DatasetGenerator.generate(distribution, size, size);
+        DelaunayDiagram diagram = new DelaunayDiagram(points);
+        diagram.split(DatasetGenerator.BORDER);
+        final Map<Point, List<Point>> neighbors = Benchmarks.neighbors(diagram);
+        provider = new HighVoronoi.PointProvider<Point>() {
+            @Override
+            public Collection<Point> getNeighbors(Point point) {
+                return neighbors.get(point);
+            }
+        };
+        center = Benchmarks.nearest(points, DatasetGenerator.BORDER.getCenter());
+        frame = DatasetGenerator.BORDER.getContainer();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown(){
+        Benchmarks.restore();
+    }
+
+    @Benchmark
+    public Polygon[] solve(){
+        return new HighVoronoi<Point>(frame).solve(level, center, provider, null);
+    }
+
+}
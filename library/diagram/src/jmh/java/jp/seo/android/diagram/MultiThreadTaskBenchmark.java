@@ -0,0 +1,71 @@
+package jp.seo.android.diagram;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link MultiThreadTask}のスループットの計測.
+ * 一回の計測で三角形の外接円を計算するタスクを{@link #tasks}個処理します
+ * @author Seo-4d696b75
+ * @version 2026/10/19
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MultiThreadTaskBenchmark {
+
+    @Param({"1", "2", "4", "8"})
+    public int threads;
+
+    @Param({"10000"})
+    public int tasks;
+
+    private List<Point[]> inputs;
+
+    @Setup(Level.Trial)
+    public void setup(){
+        List<Point> points = DatasetGenerator.generate(DatasetGenerator.Distribution.UNIFORM, tasks * 3, tasks);
+        inputs = new ArrayList<>(tasks);
+        for ( int i=0 ; i<tasks ; i++ ){
+            inputs.add(new Point[]{ points.get(i*3), points.get(i*3+1), points.get(i*3+2) });
+        }
+    }
+
+    @Benchmark
+    public int process(){
+        MultiThreadTask<Point[], Circle> task = new MultiThreadTask<Point[], Circle>() {
+            @Override
+            protected ProcessThread getProcessThread() {
+                return new ProcessThread() {
+                    @Override
+                    protected Circle process(Point[] task) {
+                        Triangle triangle = Triangle.getTriangle(task[0], task[1], task[2]);
+                        return triangle == null ? null : triangle.getCircumscribed();
+                    }
+                };
+            }
+        };
+        task.start(threads);
+        task.enqueue(inputs);
+        task.waitForCompletion();
+        return inputs.size();
+    }
+
+}
@@ -0,0 +1,98 @@
+package jp.seo.android.diagram;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link Polygon.Builder}と{@link Polygon.MergeBuilder}の計測
+ * @author Seo-4d696b75
+ * @version 2026/10/19
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PolygonBenchmark {
+
+    /**
+     * Builderに渡す辺の数、MergeBuilderに渡す多角形の数
+     */
+    @Param({"1000", "10000", "100000"})
+    public int size;
+
+    private List<Edge> edges;
+    private List<Polygon> cells;
+
+    @Setup(Level.Trial)
+    public void setup(){
+        // 正多角形の辺を順不同で渡す
+        List<Point> ring = new ArrayList<>(size);
+        for ( int i=0 ; i<size ; i++ ){
+            double angle = Math.PI * 2 * i / size;
+            ring.add(new BasePoint(Math.cos(angle), Math.sin(angle)));
+        }
+        edges = new ArrayList<>(size);
+        for ( int i=0 ; i<size ; i++ ){
+            edges.add(new Edge(ring.get(i), ring.get((i+1)%size)));
+        }
+        Collections.shuffle(edges, new Random(size));
+
+        // 格子状に隣接する正方形
+        final int width = (int)Math.ceil(Math.sqrt(size));
+        Point[][] grid = new Point[width+1][width+1];
+        for ( int i=0 ; i<=width ; i++ ){
+            for ( int j=0 ; j<=width ; j++ ){
+                grid[i][j] = new BasePoint(i, j);
+            }
+        }
+        cells = new ArrayList<>(size);
+        for ( int k=0 ; k<size ; k++ ){
+            int i = k / width;
+            int j = k % width;
+            List<Point> list = new ArrayList<>(4);
+            list.add(grid[i][j]);
+            list.add(grid[i+1][j]);
+            list.add(grid[i+1][j+1]);
+            list.add(grid[i][j+1]);
+            cells.add(new Polygon(list));
+        }
+        Collections.shuffle(cells, new Random(size));
+    }
+
+    @Benchmark
+    public Polygon builder(){
+        Polygon.Builder builder = new Polygon.Builder();
+        for ( Edge edge : edges ){
+            builder.append(edge);
+        }
+        return builder.build();
+    }
+
+    @Benchmark
+    public List<Polygon> mergeBuilder(){
+        Polygon.MergeBuilder builder = new Polygon.MergeBuilder();
+        for ( Polygon cell : cells ){
+            builder.append(cell);
+        }
+        return builder.build();
+    }
+
+}
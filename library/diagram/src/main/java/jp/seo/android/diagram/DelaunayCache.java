@@ -0,0 +1,315 @@
+package jp.seo.android.diagram;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.security.DigestInputStream;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * {@link DelaunayDiagram#split(Rectangle)}の結果をファイルに保存し、同じ点の集合と矩形に対しては計算せずに復元します.<br>
+ * ファイル名は座標の順に並べた点と矩形の座標のSHA-256であり、入力の順序に依らず同じ内容には同じファイルが対応します.
+ * ファイルには点の座標と三角形の頂点の添字を記録し、復元時は座標が一致することを確認してから渡された点で三角形を組み立てます.
+ * ファイルの末尾には内容のSHA-256を記録し、読み込んだ内容と一致しない場合は壊れたファイルとみなします.
+ * 読み込めないファイルや内容の一致しないファイル、分割を組み立てられないファイルは無視して計算し直し、上書きします.
+ * 書き込み途中で中断されても既存のファイルが壊れないよう一時ファイルに書いてから不可分な移動で置き換えます
+ * @author Seo-4d696b75
+ * @version 2026/10/19
+ */
+public class DelaunayCache {
+
+    /**
+     * @param directory ファイルを保存するディレクトリ 存在しない場合は作成します
+     */
+    public DelaunayCache(File directory){
+        this.directory = directory;
+    }
+
+    /**
+     * 保存するファイルの識別子 "DLYC"
+     */
+    private static final int CACHE_MAGIC = 0x444C5943;
+    private static final int CACHE_VERSION = 2;
+    private static final String SUFFIX = ".dly";
+
+    private final File directory;
+
+    /**
+     * 保存済みの結果があれば復元し、なければ分割して保存します
+     * @param points 分割する点 重複する座標の点は一つにまとめられます
+     * @param border 全ての点を内部に含む矩形
+     * @return 解決済みの分割
+     * @throws IOException ファイルの書き込みに失敗した場合
+     */
+    public DelaunayDiagram split(Collection<? extends Point> points, Rectangle border) throws IOException {
+        Point[] sorted = sort(points);
+        File file = getFile(getKey(sorted, border));
+        if ( file.exists() ){
+            DelaunayDiagram diagram = read(file, sorted, border);
+            if ( diagram != null ) return diagram;
+        }
+        DelaunayDiagram diagram = new DelaunayDiagram(Arrays.asList(sorted));
+        diagram.split(border);
+        write(file, diagram, sorted, border);
+        return diagram;
+    }
+
+    /**
+     * @return 保存済みの結果があるか 内容の一致は確認しません
+     */
+    public boolean contains(Collection<? extends Point> points, Rectangle border){
+        return getFile(getKey(sort(points), border)).exists();
+    }
+
+    /**
+     * @return 点の集合と矩形に対応するファイル名の16進数表記
+     */
+    public String getKey(Collection<? extends Point> points, Rectangle border){
+        return getKey(sort(points), border);
+    }
+
+    /**
+     * @return 削除したファイルの数
+     */
+    public int clear(){
+        File[] files = directory.listFiles();
+        if ( files == null ) return 0;
+        int cnt = 0;
+        for ( File file : files ){
+            if ( file.getName().endsWith(SUFFIX) && file.delete() ) cnt++;
+        }
+        return cnt;
+    }
+
+    private File getFile(String key){
+        return new File(directory, key + SUFFIX);
+    }
+
+    private static Point[] sort(Collection<? extends Point> points){
+        Set<Point> set = new HashSet<>(points);
+        Point[] sorted = set.toArray(new Point[set.size()]);
+        Arrays.sort(sorted);
+        return sorted;
+    }
+
+    private static MessageDigest getDigest(){
+        try{
+            return MessageDigest.getInstance("SHA-256");
+        }catch (NoSuchAlgorithmException e){
+            // Java実行環境は必ずSHA-256を提供する
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static String getKey(Point[] sorted, Rectangle border){
+        MessageDigest digest = getDigest();
+        byte[] buffer = new byte[16];
+        putDouble(buffer, 0, border.left);
+        putDouble(buffer, 8, border.top);
+        digest.update(buffer);
+        putDouble(buffer, 0, border.right);
+        putDouble(buffer, 8, border.bottom);
+        digest.update(buffer);
+        for ( Point point : sorted ){
+            putDouble(buffer, 0, point.getX());
+            putDouble(buffer, 8, point.getY());
+            digest.update(buffer);
+        }
+        StringBuilder builder = new StringBuilder();
+        for ( byte b : digest.digest() ){
+            builder.append(String.format("%02x", b & 0xff));
+        }
+        return builder.toString();
+    }
+
+    private static void putDouble(byte[] buffer, int offset, double value){
+        long bits = Double.doubleToLongBits(value);
+        for ( int i=0 ; i<8 ; i++ ){
+            buffer[offset + i] = (byte)(bits >>> (56 - i * 8));
+        }
+    }
+
+    /**
+     * 点の座標・三角形の頂点の添字・外周の頂点の添字と、それまでの内容のSHA-256を記録します.
+     * 外周が単一の閉路にならない分割は保存しません
+     */
+    private void write(File file, DelaunayDiagram diagram, Point[] sorted, Rectangle border) throws IOException {
+        Map<Point, Integer> index = new HashMap<>();
+        for ( int i=0 ; i<sorted.length ; i++ ){
+            index.put(sorted[i], i);
+        }
+        Collection<Triangle> triangles = diagram.getTriangles();
+        int[] frame = getFrame(triangles, index);
+        if ( frame == null ) return;
+        if ( !directory.exists() && !directory.mkdirs() ){
+            throw new IOException("fail to create directory: " + directory.getPath());
+        }
+        File temp = new File(file.getPath() + ".tmp");
+        DigestOutputStream stream = new DigestOutputStream(new BufferedOutputStream(new FileOutputStream(temp)), getDigest());
+        DataOutputStream out = new DataOutputStream(stream);
+        try{
+            out.writeInt(CACHE_MAGIC);
+            out.writeInt(CACHE_VERSION);
+            out.writeDouble(border.left);
+            out.writeDouble(border.top);
+            out.writeDouble(border.right);
+            out.writeDouble(border.bottom);
+            out.writeInt(sorted.length);
+            for ( Point point : sorted ){
+                out.writeDouble(point.getX());
+                out.writeDouble(point.getY());
+            }
+            out.writeInt(triangles.size());
+            for ( Triangle triangle : triangles ){
+                out.writeInt(index.get(triangle.a));
+                out.writeInt(index.get(triangle.b));
+                out.writeInt(index.get(triangle.c));
+            }
+            out.writeInt(frame.length);
+            for ( int i : frame ){
+                out.writeInt(i);
+            }
+            stream.on(false);
+            out.write(stream.getMessageDigest().digest());
+        }finally{
+            out.close();
+        }
+        Files.move(temp.toPath(), file.toPath(), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    /**
+     * @return 読み込めない場合や内容が一致しない場合、分割を組み立てられない場合はnull
+     */
+    private DelaunayDiagram read(File file, Point[] sorted, Rectangle border){
+        try{
+            DigestInputStream stream = new DigestInputStream(new BufferedInputStream(new FileInputStream(file)), getDigest());
+            DataInputStream in = new DataInputStream(stream);
+            try{
+                if ( in.readInt() != CACHE_MAGIC || in.readInt() != CACHE_VERSION ) return null;
+                if ( in.readDouble() != border.left || in.readDouble() != border.top
+                        || in.readDouble() != border.right || in.readDouble() != border.bottom ) return null;
+                final int size = in.readInt();
+                if ( size != sorted.length ) return null;
+                for ( Point point : sorted ){
+                    if ( in.readDouble() != point.getX() || in.readDouble() != point.getY() ) return null;
+                }
+                final int count = in.readInt();
+                // 三角形は高々2n個、外周の頂点は高々n個
+                if ( count < 0 || count > 2 * size ) return null;
+                List<Triangle> triangles = new ArrayList<>(count);
+                for ( int i=0 ; i<count ; i++ ){
+                    triangles.add(new Triangle(readPoint(in, sorted), readPoint(in, sorted), readPoint(in, sorted)));
+                }
+                final int length = in.readInt();
+                if ( length < 0 || length > size ) return null;
+                List<Point> frame = new ArrayList<>(length);
+                for ( int i=0 ; i<length ; i++ ){
+                    frame.add(readPoint(in, sorted));
+                }
+                stream.on(false);
+                byte[] expected = new byte[stream.getMessageDigest().getDigestLength()];
+                in.readFully(expected);
+                if ( in.read() >= 0 || !MessageDigest.isEqual(expected, stream.getMessageDigest().digest()) ) return null;
+                DelaunayDiagram diagram = new DelaunayDiagram(Arrays.asList(sorted));
+                diagram.setSolved(triangles, frame, border);
+                return diagram;
+            }finally{
+                in.close();
+            }
+        }catch (IOException e){
+            // 途中で途切れたファイルなど
+            return null;
+        }catch (RuntimeException e){
+            // 添字の範囲外や一直線上の三角形など壊れたファイル
+            return null;
+        }
+    }
+
+    private static Point readPoint(DataInputStream in, Point[] sorted) throws IOException {
+        int i = in.readInt();
+        if ( i < 0 || i >= sorted.length ){
+            throw new IllegalArgumentException("index out of range: " + i);
+        }
+        return sorted[i];
+    }
+
+    /**
+     * 一方にのみ三角形のある辺を辿り外周を求めます
+     * @return 外周の頂点の添字 単一の閉路にならない場合はnull
+     */
+    private static int[] getFrame(Collection<Triangle> triangles, Map<Point, Integer> index){
+        Map<Edge, Integer> count = new HashMap<>();
+        for ( Triangle triangle : triangles ){
+            countEdge(count, new Edge(triangle.a, triangle.b));
+            countEdge(count, new Edge(triangle.b, triangle.c));
+            countEdge(count, new Edge(triangle.c, triangle.a));
+        }
+        Map<Point, Point[]> boundary = new HashMap<>();
+        int length = 0;
+        for ( Map.Entry<Edge, Integer> entry : count.entrySet() ){
+            int value = entry.getValue();
+            if ( value > 2 ) return null;
+            if ( value == 1 ){
+                Edge edge = entry.getKey();
+                if ( !linkBoundary(boundary, edge.a, edge.b) ) return null;
+                if ( !linkBoundary(boundary, edge.b, edge.a) ) return null;
+                length++;
+            }
+        }
+        if ( length < 3 ) return null;
+        int[] frame = new int[length];
+        Point start = boundary.keySet().iterator().next();
+        Point previous = start;
+        Point current = boundary.get(start)[0];
+        frame[0] = index.get(start);
+        int cnt = 1;
+        while ( !current.equals(start) ){
+            Point[] link = boundary.get(current);
+            if ( link[1] == null || cnt >= length ) return null;
+            frame[cnt++] = index.get(current);
+            Point next = link[0].equals(previous) ? link[1] : link[0];
+            previous = current;
+            current = next;
+        }
+        return cnt == length ? frame : null;
+    }
+
+    private static void countEdge(Map<Edge, Integer> count, Edge edge){
+        Integer value = count.get(edge);
+        count.put(edge, value == null ? 1 : value + 1);
+    }
+
+    private static boolean linkBoundary(Map<Point, Point[]> boundary, Point point, Point other){
+        Point[] link = boundary.get(point);
+        if ( link == null ){
+            link = new Point[2];
+            boundary.put(point, link);
+        }
+        if ( link[0] == null ){
+            link[0] = other;
+        }else if ( link[1] == null ){
+            link[1] = other;
+        }else{
+            return false;
+        }
+        return true;
+    }
+
+}
@@ -1,6 +1,9 @@
 package jp.seo.android.diagram;
 
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicReference;
 
 /**
  * @author Seo-4d696b75
@@ -19,14 +22,43 @@ public class DelaunayDiagram {
         this.points.addAll(points);
     }
 
+    /**
+     * 座標配列から点を読み込みます. 座標は配列から参照するため{@link BasePoint}への複製は行いませんが、
+     * 各点は配列と添字のみを保持する{@link PointBuffer.PointView}として点の集合に登録されるため、
+     * 点ごとにビューと集合の要素が確保されます. 分割の三角形・辺も通常通り確保されます
+     */
+    public DelaunayDiagram(PointBuffer buffer){
+        this(buffer.asList());
+        this.buffer = buffer;
+    }
+
     private Set<Point> points;
+    private PointBuffer buffer;
+    /**
+     * 座標配列から読み込んだ後に{@link #movePoint(Point, Point)}で移動した点から、移動前の点の添字への対応
+     */
+    private Map<Point, Integer> movedIndex;
     private Set<Triangle> solvedTriangle;
     private Set<Edge> solvedEdge;
     private HashMap<Edge, TrianglePair> solvedPair;
 
     private Set<Triangle> triangles;
-    private HashMap<Edge, TrianglePair> trianglePairs;
+    private Map<Edge, TrianglePair> trianglePairs;
     private Queue<Edge> edges;
+    private Triangle container;
+    private Rectangle border;
+    /**
+     * 並行して点を追加する間、各スレッドが変更中の三角形の頂点を占有します
+     */
+    private ConcurrentMap<Point, Thread> claims;
+    /**
+     * 並行して点を追加する際に位置の探索を始める三角形
+     */
+    private volatile Triangle hint;
+    /**
+     * 外周を補う間のみ参照する外接三角形
+     */
+    private Triangle frameContainer;
 
     protected Set<Point> getPoints(){
         return points;
@@ -44,6 +76,106 @@ public class DelaunayDiagram {
         return solvedPair;
     }
 
+    /**
+     * 解決済みの分割の外周から凸包を求めます. 外周の辺の端点のみを候補として、凸包の辺の途中にある点は含みません
+     * @return 左回りに並ぶ凸包の頂点 {@link #split(Rectangle)}で解決する前はnull
+     */
+    public List<Point> getConvexHull(){
+        if ( solvedPair == null ) return null;
+        Set<Point> set = new HashSet<>();
+        for ( TrianglePair pair : solvedPair.values() ){
+            if ( pair.point2 == null || !points.contains(pair.point1) || !points.contains(pair.point2) ){
+                set.add(pair.edge.a);
+                set.add(pair.edge.b);
+            }
+        }
+        List<Point> list = new ArrayList<>(set);
+        Collections.sort(list, new Comparator<Point>() {
+            @Override
+            public int compare(Point o1, Point o2) {
+                int c = Double.compare(o1.getX(), o2.getX());
+                return c != 0 ? c : Double.compare(o1.getY(), o2.getY());
+            }
+        });
+        final int size = list.size();
+        if ( size < 3 ) return list;
+        // 下側と上側の凸包を順に繋ぐ
+        Point[] hull = new Point[size * 2];
+        int cnt = 0;
+        for ( int i=0 ; i<size ; i++ ){
+            while ( cnt >= 2 && getCross(hull[cnt-2], hull[cnt-1], list.get(i)) <= 0 ) cnt--;
+            hull[cnt++] = list.get(i);
+        }
+        for ( int i=size-2, lower=cnt+1 ; i>=0 ; i-- ){
+            while ( cnt >= lower && getCross(hull[cnt-2], hull[cnt-1], list.get(i)) <= 0 ) cnt--;
+            hull[cnt++] = list.get(i);
+        }
+        return new ArrayList<>(Arrays.asList(hull).subList(0, cnt - 1));
+    }
+
+    /**
+     * 解決済みの分割を変更できない配列による表現に変換します. 作成後にこの分割を変更しても影響を受けず、
+     * 複数のスレッドから同時に参照できます
+     * @return 現在の分割の表現
+     * @throws IllegalStateException {@link #split(Rectangle)}で解決する前の場合
+     */
+    public FrozenDelaunay freeze(){
+        if ( solvedTriangle == null || claims != null ){
+            throw new IllegalStateException("not solved yet");
+        }
+        return new FrozenDelaunay(points, solvedTriangle);
+    }
+
+    /**
+     * {@link #DelaunayDiagram(PointBuffer)}で読み込んだ点の添字で三角形を表現します.
+     * {@link #movePoint(Point, Point)}で移動した点は移動前の点の添字で表します
+     * @return 三角形ごとに３つの添字を並べた配列 {@link #split(Rectangle)}で解決する前や
+     * 座標配列から読み込んでいない場合、座標配列に含まれない点を{@link #insert(Point)}などで追加した場合はnull
+     */
+    public int[] getTriangleIndices(){
+        if ( buffer == null || solvedTriangle == null ) return null;
+        int[] indices = new int[solvedTriangle.size() * 3];
+        int i = 0;
+        for ( Triangle t : solvedTriangle ){
+            int a = getIndex(t.a);
+            int b = getIndex(t.b);
+            int c = getIndex(t.c);
+            if ( a < 0 || b < 0 || c < 0 ) return null;
+            indices[i++] = a;
+            indices[i++] = b;
+            indices[i++] = c;
+        }
+        return indices;
+    }
+
+    /**
+     * @return この座標配列のビューでも移動した点でもない場合は-1
+     */
+    private int getIndex(Point point){
+        Integer index = movedIndex == null ? null : movedIndex.get(point);
+        if ( index != null ) return index;
+        if ( point instanceof PointBuffer.PointView ){
+            PointBuffer.PointView view = (PointBuffer.PointView)point;
+            if ( view.getBuffer() == buffer ) return view.getIndex();
+        }
+        return -1;
+    }
+
+    /**
+     * 座標配列から読み込んだ点の添字を移動後の点に引き継ぎます.
+     * 移動前の点としてビューと同じ座標の別のインスタンスが渡された場合は、座標の一致する添字を座標配列から探します
+     */
+    private void onMoved(Point from, Point to){
+        if ( buffer == null ) return;
+        if ( movedIndex == null ) movedIndex = new HashMap<>();
+        Integer moved = movedIndex.remove(from);
+        int index = moved != null ? moved : getIndex(from);
+        for ( int i=0 ; index < 0 && i<buffer.size() ; i++ ){
+            if ( buffer.getX(i) == from.getX() && buffer.getY(i) == from.getY() ) index = i;
+        }
+        if ( index >= 0 ) movedIndex.put(to, index);
+    }
+
     /**
      * ひとつの辺を共有する二つの三角形のペアを表します
      */
@@ -101,7 +233,22 @@ public class DelaunayDiagram {
             }
         }
         private boolean isFlip(){
-            return point2 != null && t1.getCircumscribed().containsPoint(point2);
+            if ( point2 == null || !isConvex() || !isInCircumcircle(edge.a, edge.b, point1, point2) ) return false;
+            // フリップ後の三角形の外積が誤差の範囲で零となり三角形を作れない場合はフリップしない
+            Edge flipped = new Edge(point1, point2);
+            return !Line.onLine(flipped.a, flipped.b, edge.a) && !Line.onLine(flipped.a, flipped.b, edge.b);
+        }
+
+        /**
+         * 二つの三角形が成す四角形が凸か判定します. ほぼ一直線に並ぶ点から成る三角形では
+         * 外接円による判定が誤り凸でない四角形をフリップし得るため、フリップの前に確認します
+         */
+        private boolean isConvex(){
+            double dx = point2.getX() - point1.getX();
+            double dy = point2.getY() - point1.getY();
+            double ca = dx * (edge.a.getY() - point1.getY()) - dy * (edge.a.getX() - point1.getX());
+            double cb = dx * (edge.b.getY() - point1.getY()) - dy * (edge.b.getX() - point1.getX());
+            return ( ca > 0 && cb < 0 ) || ( ca < 0 && cb > 0 );
         }
         private void flip(){
             Edge old = this.edge;
@@ -113,12 +260,180 @@ public class DelaunayDiagram {
         }
     }
 
+    /**
+     * 点の集合を分割します. 点は{@link #getInsertionOrder()}の順に追加するため、
+     * 同じ点の集合と矩形に対しては入力の順序に依らず同じ分割を同じ順序で返します
+     * @param border 全ての点を内部に含む矩形
+     */
     public void split(Rectangle border){
+        split(border, true);
+    }
+
+    /**
+     * @param progress 進捗を標準出力に表示する場合はtrue
+     * @see #split(Rectangle)
+     */
+    void split(Rectangle border, boolean progress){
         long time = System.currentTimeMillis();
-        final Triangle container = border.getContainer();
-        triangles = new HashSet<>();
+        initialize(border, false);
+        if ( progress ) System.out.println("calculating delaunay diagram...");
+        int size = points.size();
+        int cnt = 0;
+        for ( Point point : getInsertionOrder() ){
+            Triangle t = getContainer(point);
+            if ( t == null ){
+                throw new IllegalArgumentException("point outside border Rectangle");
+            }
+            addPoint(point, t, edges);
+            if ( progress ) System.out.print(String.format(Locale.US,"\r%.2f%% complete  ", (double)cnt++ *100 / size));
+        }
+        complete();
+        if ( progress ) System.out.println("time:" + (System.currentTimeMillis() - time) + "ms");
+    }
+
+    /**
+     * 複数のスレッドで並行して点を追加し分割します.
+     * 各スレッドの処理は{@link #insert(Point)}と同様です.
+     * いずれかのスレッドで例外が発生した場合は残りの点を追加せず、分割を解決しないまま最初の例外を投げます
+     * @param border 全ての点を内部に含む矩形
+     * @param threads 計算に用いるスレッドの数
+     * @throws IllegalArgumentException 矩形の外側の点がある場合
+     */
+    public void split(Rectangle border, int threads){
+        startInsertion(border);
+        // MultiThreadTask は例外を捕捉して処理を続けるため、ここで記録して呼び出し元へ投げる
+        final AtomicReference<RuntimeException> failure = new AtomicReference<>();
+        MultiThreadTask<Point, Void> task = new MultiThreadTask<Point, Void>() {
+            @Override
+            protected ProcessThread getProcessThread() {
+                return new ProcessThread() {
+                    @Override
+                    protected Void process(Point point) {
+                        if ( failure.get() != null ) return null;
+                        try{
+                            insert(point);
+                        }catch (RuntimeException e){
+                            failure.compareAndSet(null, e);
+                        }
+                        return null;
+                    }
+                };
+            }
+        };
+        task.start(threads);
+        for ( Point point : getInsertionOrder() ) task.enqueue(point);
+        task.waitForCompletion();
+        RuntimeException e = failure.get();
+        if ( e != null ){
+            abortInsertion();
+            throw e;
+        }
+        finishInsertion();
+    }
+
+    /**
+     * 点の追加を中断し、追加途中の分割を破棄します
+     */
+    private void abortInsertion(){
+        triangles = null;
+        trianglePairs = null;
+        edges = null;
+        claims = null;
+        hint = null;
+    }
+
+    /**
+     * 点を逐次追加できる状態にします.<br>
+     * この後{@link #insert(Point)}で任意のスレッドから点を追加し、
+     * 全ての点を追加したら{@link #finishInsertion()}で分割を完了させます.
+     * コンストラクタで渡した点はここでは追加されません
+     * @param border 追加する全ての点を内部に含む矩形
+     */
+    public void startInsertion(Rectangle border){
+        Set<Point> set = Collections.newSetFromMap(new ConcurrentHashMap<Point, Boolean>());
+        set.addAll(points);
+        points = set;
+        initialize(border, true);
+    }
+
+    /**
+     * 点を一つ追加します. 複数のスレッドから同時に呼び出せます.<br>
+     * 追加により形状の変わる三角形（外接円が追加する点を含む三角形）とそれに隣接する三角形の頂点を占有してから、
+     * {@link #split(Rectangle)}と同じ手順で点を追加します. 占有しようとした頂点が既に他のスレッドに占有されている場合は、
+     * 占有した頂点を全て解放してからやり直します. そのため形状の変わる範囲が重ならない点同士は並行して追加されます
+     * @param point 追加する点 {@link #startInsertion(Rectangle)}で渡した矩形の内部にある必要があります
+     */
+    public void insert(Point point){
+        if ( claims == null ){
+            throw new IllegalStateException("insertion not started");
+        }
+        if ( !container.containsPoint(point) ){
+            throw new IllegalArgumentException("point outside border Rectangle");
+        }
+        List<Point> claimed = new ArrayList<>();
+        Queue<Edge> queue = new LinkedList<>();
+        while ( true ){
+            Triangle t = locate(point);
+            // 探索中に変更された三角形を辿った場合は見つからないことがある
+            if ( t != null && claimCavity(point, t, claimed) ){
+                try{
+                    points.add(point);
+                    addPoint(point, t, queue);
+                    if ( !t.isVertex(point) ){
+                        hint = trianglePairs.get(new Edge(point, t.a)).t1;
+                    }
+                }finally{
+                    release(claimed);
+                }
+                return;
+            }
+            release(claimed);
+            Thread.yield();
+        }
+    }
+
+    /**
+     * {@link #insert(Point)}による点の追加を終え分割を完了させます.
+     * <strong>NOTE </strong>全てのスレッドで{@link #insert(Point)}が終了してから呼び出してください
+     */
+    public void finishInsertion(){
+        if ( claims == null ){
+            throw new IllegalStateException("insertion not started");
+        }
+        complete();
+        claims = null;
+        hint = null;
+    }
+
+    /**
+     * 点を追加する順序の乱数のシード
+     */
+    private static final long INSERTION_SEED = 20180513L;
+
+    /**
+     * {@link HashSet}の反復順は点を追加した履歴に依存するため、座標の順に並べてから固定のシードで混ぜます.
+     * 座標の順のまま追加すると外周付近の三角形の変形が増えるため混ぜて偏りを無くします
+     * @return 点を追加する順序
+     */
+    private List<Point> getInsertionOrder(){
+        List<Point> list = new ArrayList<>(points);
+        Collections.sort(list);
+        Collections.shuffle(list, new Random(INSERTION_SEED));
+        return list;
+    }
+
+    private void initialize(Rectangle border, boolean concurrent){
+        this.border = border;
+        container = border.getContainer();
+        if ( concurrent ){
+            triangles = Collections.newSetFromMap(new ConcurrentHashMap<Triangle, Boolean>());
+            trianglePairs = new ConcurrentHashMap<>();
+            claims = new ConcurrentHashMap<>();
+        }else{
+            triangles = new HashSet<>();
+            trianglePairs = new HashMap<>();
+        }
         edges = new LinkedList<>();
-        trianglePairs = new HashMap<>();
         triangles.add(container);
         Edge ab = new Edge(container.a, container.b);
         Edge bc = new Edge(container.b, container.c);
@@ -126,17 +441,10 @@ public class DelaunayDiagram {
         trianglePairs.put(ab, new TrianglePair(ab, container.c));
         trianglePairs.put(bc, new TrianglePair(bc, container.a));
         trianglePairs.put(ca, new TrianglePair(ca, container.b));
-        System.out.println("calculating delaunay diagram...");
-        int size = points.size();
-        int cnt = 0;
-        for ( Point point : points ){
-            Triangle t = getContainer(point);
-            if ( t == null ){
-                throw new IllegalArgumentException("point outside border Rectangle");
-            }
-            addPoint(point, t);
-            System.out.print(String.format(Locale.US,"\r%.2f%% complete  ", (double)cnt++ *100 / size));
-        }
+        hint = container;
+    }
+
+    private void complete(){
         final Polygon.Builder frameBuilder = new Polygon.Builder();
 
         // Java7
@@ -150,47 +458,660 @@ public class DelaunayDiagram {
             throw new RuntimeException("fail to calc frame");
         }
         Polygon frame = frameBuilder.build();
-        List<Point> list = frame.getPoints();
-        // 左回りに並ぶように調整する
-        normalizeDirection(list);
-        final int length = list.size();
+        fillFrame(frame.getPoints(), container);
+        setSolved();
+    }
 
-        Point previous = list.get(length-1);
-        for ( int i=0 ; i<length ; i++ ){
-            Point current = list.get(i);
-            Point next = list.get((i+1)%length);
-            double ax = current.getX() - previous.getX();
-            double ay = current.getY() - previous.getY();
-            double bx = next.getX() - current.getX();
-            double by = next.getY() - current.getY();
-            double cross = ax*by - ay*bx;
-            if ( cross > 0 ){
-                previous = current;
+    /**
+     * 解決済みの分割において点を移動し、移動により形状の変わる部分のみ分割を更新します.<br>
+     * 移動前の点を削除してその周囲の多角形を三角形分割し直し、移動後の点を追加して、
+     * いずれも変化した部分の辺のみフリップして解決します. そのため計算量は移動前後の点の周囲の三角形の数に比例します.
+     * 凸包上の点を削除した場合や凸包の外側に点を追加した場合は、{@link #split(Rectangle)}と同様に凹んだ部分に三角形を補います.
+     * 点が３つ以下になる場合など局所的に更新できない場合のみ全体を{@link #split(Rectangle)}で計算し直します.
+     * <strong>NOTE </strong>{@link Point}の座標は不変である必要があるため、移動後の点は別のインスタンスとして渡してください
+     * @param from 移動前の点 分割に含まれる点
+     * @param to 移動後の点 分割に含まれない点
+     * @return 隣接する点が変化した点の集合 移動前後の点を含みます. 全体を計算し直した場合は全ての点と移動前の点
+     */
+    public Set<Point> movePoint(Point from, Point to){
+        if ( solvedTriangle == null || claims != null ){
+            throw new IllegalStateException("not solved yet");
+        }
+        if ( !points.contains(from) ){
+            throw new IllegalArgumentException("point not found: " + from.toString());
+        }
+        if ( points.contains(to) ){
+            throw new IllegalArgumentException("point duplicated: " + to.toString());
+        }
+        if ( !container.containsPoint(to) ){
+            throw new IllegalArgumentException("point outside border Rectangle");
+        }
+        triangles = solvedTriangle;
+        trianglePairs = solvedPair;
+        edges = new LinkedList<>();
+        frameContainer = container;
+        try{
+            Set<Point> changed = moveLocal(from, to);
+            if ( changed != null ){
+                onMoved(from, to);
+                return changed;
+            }
+        }finally{
+            triangles = null;
+            trianglePairs = null;
+            edges = null;
+            frameContainer = null;
+        }
+        points.remove(from);
+        points.add(to);
+        split(border, false);
+        onMoved(from, to);
+        Set<Point> changed = new HashSet<>(points);
+        changed.add(from);
+        return changed;
+    }
+
+    /**
+     * 移動先の点の重複などの検証は分割を変更する前に済ませます. 検証の後で局所的な更新に失敗した場合は
+     * 途中まで変更した三角形を破棄し、呼び出し側で全体を計算し直すため例外を投げずにnullを返します
+     * @return 局所的に更新できない場合はnull
+     */
+    private Set<Point> moveLocal(Point from, Point to){
+        Triangle start = locate(from);
+        if ( start == null || !triangles.contains(start) || !start.isVertex(from) ) return null;
+        List<Point> ring = getRing(from, start);
+        boolean hull = isBoundary(new Edge(from, ring.get(0)));
+        // 凸包上で隣接する点が一つしか辿れない退化した配置は削除前に除く
+        if ( hull && (points.size() < 4 || ring.size() < 2) ) return null;
+        Triangle target = walk(to, start);
+        if ( target == null ) return null;
+        for ( Point p : new Point[]{target.a, target.b, target.c} ){
+            if ( !p.equals(from) && Point.isMatch(p, to) ){
+                throw new IllegalArgumentException("point duplicated: " + to.toString());
+            }
+        }
+        Set<Point> changed = new HashSet<>(ring);
+        changed.add(from);
+        changed.add(to);
+
+        try{
+            if ( hull ){
+                removeHullPoint(from, ring);
             }else{
-                addPointOutside(previous, current, next);
+                removePoint(from, ring);
             }
+            points.remove(from);
+
+            target = walk(to, hint);
+            if ( target == null ) return null;
+            points.add(to);
+            Point neighbor = insertPoint(to, target);
+            TrianglePair pair = trianglePairs.get(new Edge(to, neighbor));
+            Triangle t = triangles.contains(pair.t1) ? pair.t1 : pair.t2;
+            hint = t;
+            changed.addAll(getRing(to, t));
+            return changed;
+        }catch (RuntimeException e){
+            // 凸包上に一直線に並ぶ点の近くなど退化した配置で局所的に三角形分割できない
+            return null;
+        }
+    }
+
+    /**
+     * 点の周囲の点を隣接する三角形を辿って順に列挙します
+     * @param t 点を頂点に含む三角形
+     * @return 点が凸包の頂点の場合は凸包上で隣接する二点を両端とする点列
+     */
+    private List<Point> getRing(Point point, Triangle t){
+        Point first = t.a.equals(point) ? t.b : t.a;
+        Point previous = t.c.equals(point) ? t.b : t.c;
+        List<Point> ring = new ArrayList<>();
+        ring.add(first);
+        Point current = first;
+        boolean reversed = false;
+        while ( true ){
+            TrianglePair pair = trianglePairs.get(new Edge(point, current));
+            Point next = previous.equals(pair.point1) ? pair.point2 : pair.point1;
+            if ( next == null || !points.contains(next) ){
+                // 凸包上の辺に達したら反対の端から辿り直す
+                if ( reversed ) return ring;
+                reversed = true;
+                ring.clear();
+                ring.add(current);
+                previous = next;
+                continue;
+            }
+            if ( next.equals(ring.get(0)) ) return ring;
+            ring.add(next);
+            if ( ring.size() > points.size() ) throw new RuntimeException("fail to trace around point");
+            previous = current;
+            current = next;
         }
+    }
+
+    /**
+     * 辺が凸包上にあるか判定します
+     */
+    private boolean isBoundary(Edge edge){
+        TrianglePair pair = trianglePairs.get(edge);
+        return pair.point2 == null || !points.contains(pair.point1) || !points.contains(pair.point2);
+    }
+
+    /**
+     * 点に向かって隣接する三角形を辿ります
+     * @param start 凸包の内部の三角形
+     * @return 点を含む三角形 点が凸包の外側にある場合は点から見える凸包上の辺を含む三角形
+     */
+    private Triangle walk(Point point, Triangle start){
+        Triangle current = start;
+        if ( current == null || !triangles.contains(current) ){
+            current = triangles.iterator().next();
+        }
+        final int limit = triangles.size();
+        for ( int i=0 ; i<limit ; i++ ){
+            if ( current.containsPoint(point) ) return current;
+            Triangle next = getNeighbor(current, current.a, current.b, current.c, point);
+            if ( next == null ) next = getNeighbor(current, current.b, current.c, current.a, point);
+            if ( next == null ) next = getNeighbor(current, current.c, current.a, current.b, point);
+            if ( next == null ) return null;
+            if ( !triangles.contains(next) ) return current;
+            current = next;
+        }
+        return null;
+    }
 
-        solvedTriangle = triangles;
-        solvedEdge = new HashSet<>();
+    /**
+     * 解決済みの分割に点を追加します. 凸包の外側の点や凸包上の点も追加できます
+     * @param t {@link #walk(Point, Triangle)}で求めた三角形
+     * @return 追加した点と凸包の変化に伴いフリップされない辺で隣接する点
+     */
+    private Point insertPoint(Point p, Triangle t){
+        Point[] vertex = new Point[]{t.a, t.b, t.c};
+        for ( int i=0 ; i<3 ; i++ ){
+            Point a = vertex[i];
+            Point b = vertex[(i+1)%3];
+            Point c = vertex[(i+2)%3];
+            Edge edge = new Edge(a, b);
+            if ( !isBoundary(edge) ) continue;
+            if ( Edge.onEdge(a, b, p) ){
+                addOnFrame(a, b, c, p);
+                return a;
+            }
+            if ( !onSameSide(a, b, p, c) && !Line.onLine(a, b, p) ){
+                return addOutside(a, b, p);
+            }
+        }
+        if ( !t.containsPoint(p) ){
+            // 凸包上の辺を延長した直線の近くにある点は三角形の辺だけでは見える辺が定まらない
+            for ( int i=0 ; i<3 ; i++ ){
+                Point a = vertex[i];
+                Point b = vertex[(i+1)%3];
+                if ( isBoundary(new Edge(a, b)) ) return addAlongFrame(a, b, p);
+            }
+            throw new RuntimeException("fail to locate point: " + p.toString());
+        }
+        addPoint(p, t, edges);
+        return t.a;
+    }
+
+    /**
+     * 凸包上の辺ABから点Pに近い端点の側へ凸包を辿り、点Pを含む辺の上に追加するか点Pから見える辺と結んで追加します
+     * @return 追加後の凸包上で点Pと隣接する点
+     */
+    private Point addAlongFrame(Point a, Point b, Point p){
+        Point q = Point.measure(a, p) < Point.measure(b, p) ? a : b;
+        Point previous = q.equals(a) ? b : a;
+        final int limit = points.size();
+        for ( int i=0 ; i<limit ; i++ ){
+            Point next = getFrameNeighbor(q, previous);
+            Edge edge = new Edge(q, next);
+            TrianglePair pair = trianglePairs.get(edge);
+            Point inner = points.contains(pair.point1) ? pair.point1 : pair.point2;
+            if ( Edge.onEdge(q, next, p) ){
+                addOnFrame(q, next, inner, p);
+                return q;
+            }
+            if ( !onSameSide(q, next, p, inner) && !Line.onLine(q, next, p) ) return addOutside(q, next, p);
+            previous = q;
+            q = next;
+        }
+        throw new RuntimeException("fail to locate point: " + p.toString());
+    }
+
+    /**
+     * 凸包上の辺ABの上に点Pを追加します
+     * @param c 辺ABの内側の点
+     */
+    private void addOnFrame(Point a, Point b, Point c, Point p){
+        edges.clear();
+        trianglePairs.remove(new Edge(a, b));
+        triangles.remove(new Triangle(a, b, c));
+        Edge pa = new Edge(p, a);
+        Edge pb = new Edge(p, b);
+        Edge pc = new Edge(p, c);
+        trianglePairs.put(pa, new TrianglePair(pa, c, getOuterVertex(pa, c)));
+        trianglePairs.put(pb, new TrianglePair(pb, c, getOuterVertex(pb, c)));
+        trianglePairs.put(pc, new TrianglePair(pc, a, b));
+        triangles.add(new Triangle(p, a, c));
+        triangles.add(new Triangle(p, b, c));
+        Edge ac = new Edge(a, c);
+        Edge bc = new Edge(b, c);
+        trianglePairs.get(ac).replace(p);
+        trianglePairs.get(bc).replace(p);
+        edges.offer(ac);
+        edges.offer(bc);
+        resolveDelaunay(edges);
+    }
+
+    /**
+     * 凸包の外側の点Pを、点Pから見える凸包上の辺ABと結んで追加し、凹んだ部分を補います
+     * @return 追加後の凸包上で点Pと隣接する点
+     */
+    private Point addOutside(Point a, Point b, Point p){
+        edges.clear();
+        Edge ab = new Edge(a, b);
+        trianglePairs.get(ab).replace(p);
+        Edge pa = new Edge(p, a);
+        Edge pb = new Edge(p, b);
+        trianglePairs.put(pa, new TrianglePair(pa, b, getOuterVertex(pa, b)));
+        trianglePairs.put(pb, new TrianglePair(pb, a, getOuterVertex(pb, a)));
+        triangles.add(new Triangle(a, b, p));
+        edges.offer(ab);
+        resolveDelaunay(edges);
+        fillOutside(p, a);
+        return fillOutside(p, b);
+    }
+
+    /**
+     * 凸包上で点Pと隣接する点が凹んでいる間は三角形を補います
+     * @param q 凸包上で点Pと隣接する点
+     * @return 補った後に凸包上で点Pと隣接する点
+     */
+    private Point fillOutside(Point p, Point q){
+        while ( true ){
+            Point other = getFrameNeighbor(q, p);
+            Edge edge = new Edge(other, q);
+            TrianglePair pair = trianglePairs.get(edge);
+            Point inner = points.contains(pair.point1) ? pair.point1 : pair.point2;
+            if ( onSameSide(other, q, p, inner) || Line.onLine(other, q, p) ) return q;
+            addPointOutside(other, q, p);
+            q = other;
+        }
+    }
+
+    /**
+     * 凸包上の点について、凸包上で隣接する二点のうち指定した点でない方を返します
+     */
+    private Point getFrameNeighbor(Point point, Point neighbor){
+        TrianglePair pair = trianglePairs.get(new Edge(point, neighbor));
+        Triangle t = triangles.contains(pair.t1) ? pair.t1 : pair.t2;
+        List<Point> chain = getRing(point, t);
+        return chain.get(0).equals(neighbor) ? chain.get(chain.size()-1) : chain.get(0);
+    }
+
+    /**
+     * 凸包上の点を削除し、削除により凹んだ部分に三角形を補います
+     * @param point 削除する点
+     * @param chain 点の周囲の点 {@link #getRing(Point, Triangle)}
+     */
+    private void removeHullPoint(Point point, List<Point> chain){
+        final int size = chain.size();
+        for ( int i=0 ; i<size ; i++ ){
+            TrianglePair pair = trianglePairs.remove(new Edge(point, chain.get(i)));
+            triangles.remove(pair.t1);
+            triangles.remove(pair.t2);
+        }
+        for ( int i=0 ; i<size-1 ; i++ ){
+            Edge edge = new Edge(chain.get(i), chain.get(i+1));
+            TrianglePair pair = trianglePairs.get(edge);
+            // 削除した点の側に外接三角形の頂点を対応させる 凸包上の辺なら両側とも外接三角形の頂点になる
+            Point other = point.equals(pair.point1) ? pair.point2 : pair.point1;
+            pair.replace(getOuterVertex(edge, other));
+        }
+        // 削除した点の側に凹んだ角を切り取る
+        double direction = Math.signum(getCross(chain.get(0), chain.get(1), point));
+        List<Point> list = new ArrayList<>(chain);
+        int index = 1;
+        while ( index < list.size() - 1 ){
+            Point a = list.get(index-1);
+            Point b = list.get(index);
+            Point c = list.get(index+1);
+            if ( Math.signum(getCross(a, b, c)) == direction && !Line.onLine(a, b, c) ){
+                addPointOutside(a, b, c);
+                list.remove(index);
+                if ( index > 1 ) index--;
+            }else{
+                index++;
+            }
+        }
+        // 凸包上の辺はフリップされない
+        TrianglePair pair = trianglePairs.get(new Edge(list.get(0), list.get(1)));
+        hint = triangles.contains(pair.t1) ? pair.t1 : pair.t2;
+    }
+
+    /**
+     * 凸包の内部の点を削除し、その周囲の多角形を三角形分割してからドロネー分割となるようフリップします
+     * @param point 削除する点
+     * @param ring 点の周囲の点 {@link #getRing(Point, Triangle)}
+     */
+    private void removePoint(Point point, List<Point> ring){
+        final int size = ring.size();
+        for ( int i=0 ; i<size ; i++ ){
+            TrianglePair pair = trianglePairs.remove(new Edge(point, ring.get(i)));
+            triangles.remove(pair.t1);
+            triangles.remove(pair.t2);
+        }
+        // 多角形の耳を順に切り取る 周囲の点は削除する点を中心に一方向に並ぶので向きを揃えて判定する
+        List<Point> list = new ArrayList<>(ring);
+        double direction = Math.signum(getCross(point, ring.get(0), ring.get(1)));
+        Map<Edge, Point> apex = new HashMap<>();
+        edges.clear();
+        int index = 0;
+        int count = 0;
+        while ( list.size() > 3 ){
+            final int length = list.size();
+            Point a = list.get((index+length-1)%length);
+            Point b = list.get(index%length);
+            Point c = list.get((index+1)%length);
+            if ( isEar(list, a, b, c, direction) ){
+                addTriangle(apex, a, b, c);
+                edges.offer(new Edge(a, c));
+                list.remove(index%length);
+                count = 0;
+            }else{
+                index++;
+                if ( ++count > length ) throw new RuntimeException("fail to triangulate around removed point");
+            }
+        }
+        addTriangle(apex, list.get(0), list.get(1), list.get(2));
+        resolveDelaunay(edges);
+        TrianglePair pair = trianglePairs.get(new Edge(ring.get(0), ring.get(1)));
+        if ( pair != null ) hint = pair.t1;
+    }
+
+    private boolean isEar(List<Point> list, Point a, Point b, Point c, double direction){
+        if ( getCross(a, b, c) * direction <= 0 || Line.onLine(a, b, c) ) return false;
+        Triangle t = new Triangle(a, b, c);
+        for ( Point p : list ){
+            if ( p != a && p != b && p != c && t.containsPoint(p) ) return false;
+        }
+        return true;
+    }
+
+    /**
+     * 多角形の内部に三角形を追加します. 辺の反対側が多角形の周囲の三角形ならその三角形と、
+     * 先に追加した三角形ならその三角形と対応させます
+     */
+    private void addTriangle(Map<Edge, Point> apex, Point a, Point b, Point c){
+        triangles.add(new Triangle(a, b, c));
+        linkTriangle(apex, new Edge(a, b), c);
+        linkTriangle(apex, new Edge(b, c), a);
+        linkTriangle(apex, new Edge(c, a), b);
+    }
+
+    private void linkTriangle(Map<Edge, Point> apex, Edge edge, Point point){
+        Point other = apex.remove(edge);
+        if ( other != null ){
+            trianglePairs.put(edge, new TrianglePair(edge, other, point));
+            return;
+        }
+        TrianglePair pair = trianglePairs.get(edge);
+        if ( pair != null ){
+            // 削除した点と同じ側にある三角形を置き換える
+            pair.replace(point);
+        }else{
+            apex.put(edge, point);
+        }
+    }
+
+    /**
+     * 外接円の内部にあると判定する行列式の値の、各項の絶対値の和に対する比
+     */
+    private static final double CIRCLE_ERROR = 1e-12;
+
+    /**
+     * 点Dが三角形ABCの外接円の内部にあるか判定します. ほぼ一直線に並ぶ点から成る三角形では外接円の中心と半径が
+     * 桁落ちで大きな誤差を含むため、{@link Circle#containsPoint(Point)}ではなく点Dを原点とする行列式の符号で判定し、
+     * 同一円周上の四点では誤差によりフリップを繰り返さないよう許容誤差を超える場合のみ内部とします
+     */
+    private static boolean isInCircumcircle(Point a, Point b, Point c, Point d){
+        double adx = a.getX() - d.getX();
+        double ady = a.getY() - d.getY();
+        double bdx = b.getX() - d.getX();
+        double bdy = b.getY() - d.getY();
+        double cdx = c.getX() - d.getX();
+        double cdy = c.getY() - d.getY();
+        double al = adx * adx + ady * ady;
+        double bl = bdx * bdx + bdy * bdy;
+        double cl = cdx * cdx + cdy * cdy;
+        double det = al * (bdx * cdy - cdx * bdy) + bl * (cdx * ady - adx * cdy) + cl * (adx * bdy - bdx * ady);
+        double permanent = al * (Math.abs(bdx * cdy) + Math.abs(cdx * bdy))
+                + bl * (Math.abs(cdx * ady) + Math.abs(adx * cdy))
+                + cl * (Math.abs(adx * bdy) + Math.abs(bdx * ady));
+        return Math.signum(getCross(a, b, c)) * det > CIRCLE_ERROR * permanent;
+    }
+
+    private static double getCross(Point o, Point a, Point b){
+        return (a.getX() - o.getX()) * (b.getY() - o.getY()) - (a.getY() - o.getY()) * (b.getX() - o.getX());
+    }
+
+    /**
+     * 点を含む三角形を隣接する三角形を辿って探します.
+     * 並行して変更されている最中の三角形を返す場合があるので、呼び出し側で確認する必要があります
+     */
+    private Triangle locate(Point point){
+        Triangle current = hint;
+        if ( current == null || !triangles.contains(current) ){
+            Iterator<Triangle> iterator = triangles.iterator();
+            current = iterator.hasNext() ? iterator.next() : null;
+        }
+        final int limit = triangles.size();
+        for ( int i=0 ; i<limit && current != null ; i++ ){
+            if ( current.containsPoint(point) ) return current;
+            Triangle next = getNeighbor(current, current.a, current.b, current.c, point);
+            if ( next == null ) next = getNeighbor(current, current.b, current.c, current.a, point);
+            if ( next == null ) next = getNeighbor(current, current.c, current.a, current.b, point);
+            current = next;
+        }
+        // 辿れない場合は全て探索する
+        return getContainer(point);
+    }
+
+    /**
+     * 三角形の辺abを挟んで頂点cの反対側に点がある場合はその辺を共有する三角形を返します
+     */
+    private Triangle getNeighbor(Triangle t, Point a, Point b, Point c, Point point){
+        double ax = b.getX() - a.getX();
+        double ay = b.getY() - a.getY();
+        double v1 = ax * (c.getY() - a.getY()) - ay * (c.getX() - a.getX());
+        double v2 = ax * (point.getY() - a.getY()) - ay * (point.getX() - a.getX());
+        if ( v1 * v2 >= 0 ) return null;
+        TrianglePair pair = trianglePairs.get(new Edge(a, b));
+        if ( pair == null ) return null;
+        Triangle t1 = pair.t1;
+        Triangle t2 = pair.t2;
+        return t.equals(t1) ? t2 : t1;
+    }
+
+    /**
+     * 点の追加で形状の変わる三角形とその隣接する三角形の頂点を全て占有します
+     * @param point 追加する点
+     * @param t 点を含む三角形
+     * @param claimed 占有した頂点を追加するリスト
+     * @return 全て占有できた場合はtrue
+     */
+    private boolean claimCavity(Point point, Triangle t, List<Point> claimed){
+        if ( !claim(t, claimed) ) return false;
+        // 占有するまでの間に他のスレッドで変更された可能性がある
+        if ( !triangles.contains(t) || !t.containsPoint(point) ) return false;
+        if ( !claim(point, claimed) ) return false;
+        Set<Triangle> visited = new HashSet<>();
+        Queue<Triangle> queue = new LinkedList<>();
+        visited.add(t);
+        queue.offer(t);
+        while ( !queue.isEmpty() ){
+            Triangle current = queue.poll();
+            for ( int i=0 ; i<3 ; i++ ){
+                Edge edge = i == 0 ? new Edge(current.a, current.b) : i == 1 ? new Edge(current.b, current.c) : new Edge(current.c, current.a);
+                TrianglePair pair = trianglePairs.get(edge);
+                if ( pair == null ) return false;
+                Triangle next = current.equals(pair.t1) ? pair.t2 : pair.t1;
+                if ( next == null || !visited.add(next) ) continue;
+                if ( !claim(next, claimed) ) return false;
+                if ( !triangles.contains(next) ) continue;
+                if ( isInCircle(next, point) ) queue.offer(next);
+            }
+        }
+        return true;
+    }
+
+    /**
+     * フリップの判定の誤差を考慮してやや広く判定します
+     */
+    private boolean isInCircle(Triangle t, Point point){
+        Circle circle = t.getCircumscribed();
+        return Point.measure(point, circle.center) < circle.radius * (1 + 1e-9);
+    }
+
+    private boolean claim(Triangle t, List<Point> claimed){
+        return claim(t.a, claimed) && claim(t.b, claimed) && claim(t.c, claimed);
+    }
+
+    private boolean claim(Point point, List<Point> claimed){
+        Thread owner = Thread.currentThread();
+        Thread current = claims.putIfAbsent(point, owner);
+        if ( current == null ){
+            claimed.add(point);
+            return true;
+        }
+        return current == owner;
+    }
+
+    private void release(List<Point> claimed){
+        for ( Point point : claimed ) claims.remove(point);
+        claimed.clear();
+    }
+
+    /**
+     * 別途解決された三角形の集合からこの図の解を構成します.
+     * 三角形の集合の外周が凹んだ部分は{@link #split(Rectangle)}と同様に補います
+     * @param triangles 隙間・重なりなく一つの領域を覆うドロネー三角形
+     * @param frame 三角形の集合の外周
+     * @param border 全ての点を内部に含む矩形
+     */
+    void setSolved(Collection<Triangle> triangles, List<Point> frame, Rectangle border){
+        final Triangle container = border.getContainer();
+        this.container = container;
+        this.border = border;
+        this.triangles = new HashSet<>(triangles);
+        edges = new LinkedList<>();
+        trianglePairs = new HashMap<>();
+        Map<Edge, Point> apex = new HashMap<>();
+        for ( Triangle item : this.triangles ){
+            putTrianglePair(apex, new Edge(item.a, item.b), item.c);
+            putTrianglePair(apex, new Edge(item.b, item.c), item.a);
+            putTrianglePair(apex, new Edge(item.c, item.a), item.b);
+        }
+        // 外周の辺の外側には split(Rectangle) と同様に外接三角形の頂点との三角形を対応させる
+        frameContainer = container;
+        for ( Map.Entry<Edge, Point> entry : apex.entrySet() ){
+            Edge edge = entry.getKey();
+            Point point = entry.getValue();
+            trianglePairs.put(edge, new TrianglePair(edge, point, getOuterVertex(edge, point)));
+        }
+        fillFrame(frame, container);
+        setSolved();
+    }
+
+    private void putTrianglePair(Map<Edge, Point> apex, Edge edge, Point point){
+        Point other = apex.remove(edge);
+        if ( other == null ){
+            apex.put(edge, point);
+        }else{
+            trianglePairs.put(edge, new TrianglePair(edge, other, point));
+        }
+    }
+
+    /**
+     * 三角形の集合の外周で凹んだ部分に三角形を補い凸包に一致させます
+     * @param frame 三角形の集合の外周
+     * @param container 外接三角形
+     */
+    private void fillFrame(List<Point> frame, Triangle container){
+        frameContainer = container;
+        List<Point> list = new ArrayList<>(frame);
+        // 左回りに並ぶように調整する
+        normalizeDirection(list);
+        // 三角形を補った結果新たに凹んだ部分が生じ得るので変化がなくなるまで繰り返す
+        boolean modified = true;
+        while ( modified && list.size() > 3 ){
+            modified = false;
+            final int length = list.size();
+            List<Point> remain = new ArrayList<>(length);
+            Point previous = list.get(length-1);
+            for ( int i=0 ; i<length ; i++ ){
+                Point current = list.get(i);
+                Point next = i+1 < length ? list.get(i+1) : remain.isEmpty() ? list.get(0) : remain.get(0);
+                double ax = current.getX() - previous.getX();
+                double ay = current.getY() - previous.getY();
+                double bx = next.getX() - current.getX();
+                double by = next.getY() - current.getY();
+                double cross = ax*by - ay*bx;
+                // 一直線に並ぶ場合は三角形を追加できない
+                if ( cross > 0 || Line.onLine(previous, current, next) ){
+                    remain.add(current);
+                    previous = current;
+                }else{
+                    addPointOutside(previous, current, next);
+                    modified = true;
+                }
+            }
+            list = remain;
+        }
+        frameContainer = null;
+    }
+
+    private void setSolved(){
+        // 反復の順序が計算の過程に依らないよう頂点の座標の順に並べる
+        List<Triangle> list = new ArrayList<>(triangles);
+        Collections.sort(list, new Comparator<Triangle>() {
+            @Override
+            public int compare(Triangle o1, Triangle o2) {
+                int c = Point.compare(o1.a, o2.a);
+                if ( c != 0 ) return c;
+                c = Point.compare(o1.b, o2.b);
+                return c != 0 ? c : Point.compare(o1.c, o2.c);
+            }
+        });
+        solvedTriangle = new LinkedHashSet<>(list);
+        Set<Edge> edgeSet = new HashSet<>();
         for ( Triangle item : solvedTriangle ){
-            solvedEdge.add(new Edge(item.a, item.b));
-            solvedEdge.add(new Edge(item.b, item.c));
-            solvedEdge.add(new Edge(item.c, item.a));
+            edgeSet.add(new Edge(item.a, item.b));
+            edgeSet.add(new Edge(item.b, item.c));
+            edgeSet.add(new Edge(item.c, item.a));
         }
-        solvedPair = new HashMap<>();
+        List<Edge> edgeList = new ArrayList<>(edgeSet);
+        Collections.sort(edgeList, new Comparator<Edge>() {
+            @Override
+            public int compare(Edge o1, Edge o2) {
+                int c = Point.compare(o1.a, o2.a);
+                return c != 0 ? c : Point.compare(o1.b, o2.b);
+            }
+        });
+        solvedPair = new LinkedHashMap<>();
 
-        for ( Edge edge : solvedEdge ){
+        for ( Edge edge : edgeList ){
             TrianglePair pair = trianglePairs.get(edge);
             if ( pair == null ){
                 throw new NullPointerException();
             }
             solvedPair.put(edge, pair);
         }
+        // 点の移動に追従するよう辺と三角形の対応から参照する
+        solvedEdge = solvedPair.keySet();
         triangles = null;
         edges = null;
         trianglePairs = null;
-        System.out.println("time:" + (System.currentTimeMillis() - time) + "ms");
     }
 
     private boolean outside(Triangle next, Triangle container, Polygon.Builder frameBuilder){
@@ -252,19 +1173,48 @@ public class DelaunayDiagram {
 
         trianglePairs.get(ab).replace(c);
         trianglePairs.get(bc).replace(a);
-        trianglePairs.put(ac, new TrianglePair(ac, b));
+        trianglePairs.put(ac, new TrianglePair(ac, b, getOuterVertex(ac, b)));
         triangles.add(new Triangle(a, b, c));
         edges.offer(ab);
         edges.offer(bc);
 
-        resolveDelaunay();
+        resolveDelaunay(edges);
+    }
+
+    /**
+     * 外周の辺の外側に対応させる外接三角形の頂点を選びます
+     * @param edge 外周の辺
+     * @param inner 辺の内側の点
+     */
+    private Point getOuterVertex(Edge edge, Point inner){
+        if ( !onSameSide(edge.a, edge.b, inner, frameContainer.a) ) return frameContainer.a;
+        if ( !onSameSide(edge.a, edge.b, inner, frameContainer.b) ) return frameContainer.b;
+        return frameContainer.c;
+    }
+
+    /**
+     * 二点が直線ABに対して同じ側にあるか判定します. 凸包上でほぼ一直線に並ぶ点の間に補った三角形では
+     * 頂点が辺のごく近くにあるため、{@link Edge#onSameSide(Point, Point)}の直線の係数を経由せず
+     * 座標の差の外積で判定します
+     */
+    private static boolean onSameSide(Point a, Point b, Point p1, Point p2){
+        return getCross(a, b, p1) * getCross(a, b, p2) >= 0;
+    }
+
+    /**
+     * 外周を補う間や点を移動する間は外接三角形の頂点を含む三角形をフリップしない
+     */
+    private boolean isFrame(TrianglePair pair){
+        return frameContainer != null && ( frameContainer.isVertex(pair.point1) || frameContainer.isVertex(pair.point2) );
     }
 
-    private void resolveDelaunay(){
+    private void resolveDelaunay(Queue<Edge> edges){
         while( !edges.isEmpty() ){
             Edge edge = edges.poll();
             TrianglePair pair = trianglePairs.get(edge);
-            if ( pair.isFlip() ){
+            // 待ち行列に入れた後で既にフリップされ消えた辺
+            if ( pair == null ) continue;
+            if ( pair.isFlip() && !isFrame(pair) ){
                 trianglePairs.remove(edge);
                 triangles.remove(pair.t1);
                 triangles.remove(pair.t2);
@@ -288,7 +1238,7 @@ public class DelaunayDiagram {
         }
     }
 
-    private void addPoint(Point p, Triangle t){
+    private void addPoint(Point p, Triangle t, Queue<Edge> edges){
 
         edges.clear();
 
@@ -296,24 +1246,24 @@ public class DelaunayDiagram {
             //頂点に一致する場合はnothing to do
             return;
         }else if ( Edge.onEdge(t.a, t.b, p) ){
-            addOnEdge(t.a, t.b, t.c, p);
+            addOnEdge(t.a, t.b, t.c, p, edges);
         }else if ( Edge.onEdge(t.b, t.c, p) ){
-            addOnEdge(t.b, t.c, t.a, p);
+            addOnEdge(t.b, t.c, t.a, p, edges);
         }else if ( Edge.onEdge(t.c, t.a, p) ){
-            addOnEdge(t.c, t.a, t.b, p);
+            addOnEdge(t.c, t.a, t.b, p, edges);
         }else{
-            addInTriangle(p, t);
+            addInTriangle(p, t, edges);
         }
 
-        resolveDelaunay();
+        resolveDelaunay(edges);
 
     }
 
     //△ABCの辺AB上に点P
-    private void addOnEdge(Point a, Point b, Point c, Point p){
+    private void addOnEdge(Point a, Point b, Point c, Point p, Queue<Edge> edges){
         Edge old = new Edge(a, b);
         TrianglePair pair = trianglePairs.remove(old);
-        Point d = new Line(old).onSameSide(p, pair.point1) ? pair.point2 : pair.point1;
+        Point d = c.equals(pair.point1) ? pair.point2 : pair.point1;
 
         triangles.remove(pair.t1);
         triangles.remove(pair.t2);
@@ -346,7 +1296,7 @@ public class DelaunayDiagram {
         edges.offer(bd);
     }
 
-    private void addInTriangle(Point p, Triangle t){
+    private void addInTriangle(Point p, Triangle t, Queue<Edge> edges){
 
         triangles.remove(t);
         Edge ab = new Edge(t.a, t.b);
@@ -103,27 +103,72 @@ public class Edge {
      * @return Null if no such intersection
      */
     public Point getIntersection(Line line){
-        Point p = this.toLine().getIntersection(line);
-        if ( p != null ){
-            double v = (a.getX() - p.getX()) * (b.getX() - p.getX()) + (a.getY() - p.getY()) * (b.getY() - p.getY());
-            if ( v <= 0 ){
-                return p;
-            }
+        double[] result = new double[2];
+        if ( getIntersection(a.getX(), a.getY(), b.getX(), b.getY(), line, result) ){
+            return new BasePoint(result[0], result[1]);
         }
         return null;
     }
 
     public Point getIntersection(Edge edge){
-        Point p = edge.getIntersection(this.toLine());
-        if ( p != null ){
-            double v = (a.getX() - p.getX()) * (b.getX() - p.getX()) + (a.getY() - p.getY()) * (b.getY() - p.getY());
-            if ( v <= 0 ){
-                return p;
-            }
+        double[] result = new double[2];
+        if ( getIntersection(
+                a.getX(), a.getY(), b.getX(), b.getY(),
+                edge.a.getX(), edge.a.getY(), edge.b.getX(), edge.b.getY(),
+                result) ){
+            return new BasePoint(result[0], result[1]);
         }
         return null;
     }
 
+    /**
+     * 線分(x1,y1)-(x2,y2)と直線の交点を計算します. オブジェクトは生成しません
+     * @param result 交点の座標(x,y)の書き込み先 長さ2以上
+     * @return 交点を持たない場合はfalse
+     * @see #getIntersection(Line)
+     */
+    public static boolean getIntersection(double x1, double y1, double x2, double y2, Line line, double[] result){
+        return getIntersection(x1, y1, x2, y2, line, result, 0);
+    }
+
+    /**
+     * @param offset 交点のx座標を書き込む{@code result}の添字 y座標は{@code offset+1}に書き込みます
+     * @see #getIntersection(double, double, double, double, Line, double[])
+     */
+    static boolean getIntersection(double x1, double y1, double x2, double y2, Line line, double[] result, int offset){
+        if ( Line.getIntersectionWithLine(line.a, line.b, line.c, x1, y1, x2, y2, result, offset) ){
+            return isBetween(x1, y1, x2, y2, result[offset], result[offset+1]);
+        }
+        return false;
+    }
+
+    /**
+     * 線分(x1,y1)-(x2,y2)と線分(x3,y3)-(x4,y4)の交点を計算します. オブジェクトは生成しません
+     * @param result 交点の座標(x,y)の書き込み先 長さ2以上
+     * @return 交点を持たない場合はfalse
+     * @see #getIntersection(Edge)
+     */
+    public static boolean getIntersection(double x1, double y1, double x2, double y2,
+                                          double x3, double y3, double x4, double y4, double[] result){
+        return getIntersectionWithLine(x3, y3, x4, y4, x1, y1, x2, y2, result, 0) && isBetween(x1, y1, x2, y2, result[0], result[1]);
+    }
+
+    /**
+     * 線分(x1,y1)-(x2,y2)と、２点(x3,y3),(x4,y4)を通る直線の交点を計算します. オブジェクトは生成しません
+     * @param result 交点の座標(x,y)の書き込み先
+     * @param offset 交点のx座標を書き込む{@code result}の添字
+     * @return 交点を持たない場合はfalse
+     */
+    static boolean getIntersectionWithLine(double x1, double y1, double x2, double y2,
+                                           double x3, double y3, double x4, double y4, double[] result, int offset){
+        return Line.getIntersectionOfLines(x3, y3, x4, y4, x1, y1, x2, y2, result, offset)
+                && isBetween(x1, y1, x2, y2, result[offset], result[offset+1]);
+    }
+
+    private static boolean isBetween(double x1, double y1, double x2, double y2, double x, double y){
+        return (x1 - x) * (x2 - x) + (y1 - y) * (y2 - y) <= 0;
+    }
+
     public double getDistance(Point p){
         double v1 = (p.getX() - a.getX()) * (b.getX() - a.getX()) + (p.getY() - a.getY()) * (b.getY() - a.getY());
         double v2 = (p.getX() - b.getX()) * (a.getX() - b.getX()) + (p.getY() - b.getY()) * (a.getY() - b.getY());
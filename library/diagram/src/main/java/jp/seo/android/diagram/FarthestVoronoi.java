@@ -0,0 +1,294 @@
+package jp.seo.android.diagram;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+/**
+ * 最遠点ボロノイ図を求めます. 領域が空でない母点は凸包の頂点のみであり、
+ * 領域はいずれも有界でないため矩形で切り取った多角形として返します.<br>
+ * 凸包の頂点を環状に繋ぎ、前後の頂点と成す三角形の外接円の半径が最大の頂点から順に取り除く（Skyumの方法）と、
+ * 取り除く際の三角形が最遠点ドロネー分割を成します. 優先度付きキューにより凸包の頂点数hに対しO(h log h)で求まり、
+ * 各頂点の領域はその最遠点ドロネー分割で隣接する頂点との垂直二等分線のみで矩形を切り取って求めます
+ * @author Seo-4d696b75
+ * @version 2026/10/19
+ */
+public class FarthestVoronoi {
+
+    /**
+     * @param diagram {@link DelaunayDiagram#split(Rectangle)}などで解決済みの分割
+     */
+    public FarthestVoronoi(DelaunayDiagram diagram){
+        List<Point> list = diagram.getConvexHull();
+        if ( list == null ){
+            throw new IllegalStateException("not solved yet");
+        }
+        if ( list.size() < 3 ){
+            // 全ての点が一直線上にある場合は両端の点のみ
+            list = getExtremes(diagram.getPoints());
+        }
+        final int size = list.size();
+        points = list.toArray(new Point[size]);
+        x = new double[size];
+        y = new double[size];
+        for ( int i=0 ; i<size ; i++ ){
+            x[i] = points[i].getX();
+            y[i] = points[i].getY();
+        }
+        offset = new int[size + 1];
+        if ( size < 3 ){
+            triangles = new int[0];
+            neighbor = new int[size > 1 ? 2 : 0];
+            if ( size > 1 ){
+                offset[1] = 1;
+                offset[2] = 2;
+                neighbor[0] = 1;
+                neighbor[1] = 0;
+            }
+        }else{
+            triangles = triangulate();
+            neighbor = toNeighbor();
+        }
+    }
+
+    private final Point[] points;
+    private final double[] x, y;
+    /**
+     * 最遠点ドロネー分割の三角形の頂点の添字 {@code triangles[3t]~triangles[3t+2]}
+     */
+    private final int[] triangles;
+    /**
+     * i番目の頂点に隣接する頂点の添字は{@code neighbor[offset[i]]~neighbor[offset[i+1]-1]}
+     */
+    private final int[] offset, neighbor;
+
+    private static List<Point> getExtremes(Iterable<Point> set){
+        Point min = null;
+        Point max = null;
+        for ( Point point : set ){
+            if ( min == null || point.getX() < min.getX()
+                    || ( point.getX() == min.getX() && point.getY() < min.getY() ) ) min = point;
+            if ( max == null || point.getX() > max.getX()
+                    || ( point.getX() == max.getX() && point.getY() > max.getY() ) ) max = point;
+        }
+        List<Point> list = new ArrayList<>(2);
+        if ( min != null ) list.add(min);
+        if ( max != null && !max.equals(min) ) list.add(max);
+        return list;
+    }
+
+    /**
+     * 取り除く候補の頂点 前後の頂点が変わると古い候補は無効になります
+     */
+    private static class Candidate {
+
+        private Candidate(int index, int version, double radius, double angle){
+            this.index = index;
+            this.version = version;
+            this.radius = radius;
+            this.angle = angle;
+        }
+
+        private final int index, version;
+        private final double radius, angle;
+    }
+
+    private int[] triangulate(){
+        final int size = points.length;
+        final int[] prev = new int[size];
+        final int[] next = new int[size];
+        final int[] version = new int[size];
+        for ( int i=0 ; i<size ; i++ ){
+            prev[i] = (i + size - 1) % size;
+            next[i] = (i + 1) % size;
+        }
+        // 外接円の半径が大きい順、等しい場合は頂点の内角が大きい順
+        PriorityQueue<Candidate> queue = new PriorityQueue<>(size, new Comparator<Candidate>() {
+            @Override
+            public int compare(Candidate o1, Candidate o2) {
+                int c = Double.compare(o2.radius, o1.radius);
+                return c != 0 ? c : Double.compare(o2.angle, o1.angle);
+            }
+        });
+        for ( int i=0 ; i<size ; i++ ){
+            queue.add(newCandidate(i, 0, prev[i], next[i]));
+        }
+        int[] result = new int[(size - 2) * 3];
+        int cnt = 0;
+        int remain = size;
+        while ( remain > 3 ){
+            Candidate candidate = queue.poll();
+            int i = candidate.index;
+            if ( candidate.version != version[i] ) continue;
+            int p = prev[i];
+            int n = next[i];
+            result[cnt++] = p;
+            result[cnt++] = i;
+            result[cnt++] = n;
+            next[p] = n;
+            prev[n] = p;
+            version[i] = -1;
+            remain--;
+            queue.add(newCandidate(p, ++version[p], prev[p], n));
+            queue.add(newCandidate(n, ++version[n], p, next[n]));
+        }
+        int last = 0;
+        while ( version[last] < 0 ) last++;
+        result[cnt++] = prev[last];
+        result[cnt++] = last;
+        result[cnt] = next[last];
+        return result;
+    }
+
+    private Candidate newCandidate(int i, int version, int p, int n){
+        double ax = x[p] - x[i];
+        double ay = y[p] - y[i];
+        double bx = x[n] - x[i];
+        double by = y[n] - y[i];
+        double cross = ax * by - ay * bx;
+        double dot = ax * bx + ay * by;
+        double cx = x[n] - x[p];
+        double cy = y[n] - y[p];
+        // 外接円の半径 = 対辺の長さ / (2 sin(内角))
+        double radius = Math.sqrt(cx * cx + cy * cy) * Math.hypot(ax, ay) * Math.hypot(bx, by) / (2 * Math.abs(cross));
+        return new Candidate(i, version, radius, Math.atan2(Math.abs(cross), dot));
+    }
+
+    private int[] toNeighbor(){
+        final int size = points.length;
+        // 三角形の辺で結ばれる頂点 凸包上で隣り合う頂点も含まれる
+        List<int[]> edges = new ArrayList<>(triangles.length);
+        Map<Long, Boolean> known = new HashMap<>();
+        for ( int t=0 ; t<triangles.length ; t+=3 ){
+            for ( int k=0 ; k<3 ; k++ ){
+                int a = triangles[t + k];
+                int b = triangles[t + (k + 1) % 3];
+                long key = (long)Math.min(a, b) * size + Math.max(a, b);
+                if ( known.put(key, Boolean.TRUE) == null ){
+                    edges.add(new int[]{a, b});
+                    offset[a + 1]++;
+                    offset[b + 1]++;
+                }
+            }
+        }
+        for ( int i=0 ; i<size ; i++ ){
+            offset[i+1] += offset[i];
+        }
+        int[] array = new int[offset[size]];
+        int[] position = new int[size];
+        System.arraycopy(offset, 0, position, 0, size);
+        for ( int[] edge : edges ){
+            array[position[edge[0]]++] = edge[1];
+            array[position[edge[1]]++] = edge[0];
+        }
+        return array;
+    }
+
+    /**
+     * @return 領域が空でない母点の数
+     */
+    public int size(){
+        return points.length;
+    }
+
+    /**
+     * @param index 凸包上の左回りの順
+     * @return 凸包の頂点
+     */
+    public Point getPoint(int index){
+        return points[index];
+    }
+
+    /**
+     * @return 最遠点ドロネー分割の三角形 頂点が3個未満の場合は空
+     */
+    public List<Triangle> getTriangles(){
+        List<Triangle> list = new ArrayList<>(triangles.length / 3);
+        for ( int t=0 ; t<triangles.length ; t+=3 ){
+            list.add(new Triangle(points[triangles[t]], points[triangles[t+1]], points[triangles[t+2]]));
+        }
+        return list;
+    }
+
+    /**
+     * 全ての頂点の最遠点ボロノイ領域を求めます
+     * @param border 領域を切り取る矩形
+     * @return {@link #getPoint(int)}と同じ添字で領域を並べた配列 矩形と交わらない領域はnull
+     */
+    public Polygon[] getCells(Rectangle border){
+        Polygon[] cells = new Polygon[points.length];
+        double[] cellX = new double[8];
+        double[] cellY = new double[8];
+        double[] nextX = new double[8];
+        double[] nextY = new double[8];
+        for ( int i=0 ; i<points.length ; i++ ){
+            cellX[0] = border.left;
+            cellY[0] = border.bottom;
+            cellX[1] = border.right;
+            cellY[1] = border.bottom;
+            cellX[2] = border.right;
+            cellY[2] = border.top;
+            cellX[3] = border.left;
+            cellY[3] = border.top;
+            int length = 4;
+            for ( int k=offset[i] ; k<offset[i+1] && length > 0 ; k++ ){
+                int n = neighbor[k];
+                // 隣接する頂点より遠い側 nx*x + ny*y <= c
+                double nx = x[i] - x[n];
+                double ny = y[i] - y[n];
+                double c = (nx * (x[i] + x[n]) + ny * (y[i] + y[n])) / 2;
+                if ( nextX.length < length * 2 ){
+                    nextX = new double[length * 2];
+                    nextY = new double[length * 2];
+                }
+                int cnt = 0;
+                for ( int j=0 ; j<length ; j++ ){
+                    int m = (j+1) % length;
+                    double v1 = nx * cellX[j] + ny * cellY[j] - c;
+                    double v2 = nx * cellX[m] + ny * cellY[m] - c;
+                    if ( v1 <= 0 ){
+                        nextX[cnt] = cellX[j];
+                        nextY[cnt++] = cellY[j];
+                    }
+                    if ( (v1 < 0 && v2 > 0) || (v1 > 0 && v2 < 0) ){
+                        double t = v1 / (v1 - v2);
+                        nextX[cnt] = cellX[j] + (cellX[m] - cellX[j]) * t;
+                        nextY[cnt++] = cellY[j] + (cellY[m] - cellY[j]) * t;
+                    }
+                }
+                double[] temp = cellX;
+                cellX = nextX;
+                nextX = temp;
+                temp = cellY;
+                cellY = nextY;
+                nextY = temp;
+                length = cnt;
+            }
+            if ( length < 3 ) continue;
+            List<Point> list = new ArrayList<>(length);
+            for ( int j=0 ; j<length ; j++ ){
+                list.add(new BasePoint(cellX[j], cellY[j]));
+            }
+            cells[i] = new Polygon(list);
+        }
+        return cells;
+    }
+
+    /**
+     * 全ての頂点の最遠点ボロノイ領域を求めます
+     * @param border 領域を切り取る矩形
+     * @return 母点から領域への対応 矩形と交わらない領域は含みません
+     */
+    public Map<Point, Polygon> getCellMap(Rectangle border){
+        Polygon[] cells = getCells(border);
+        Map<Point, Polygon> map = new HashMap<>();
+        for ( int i=0 ; i<cells.length ; i++ ){
+            if ( cells[i] != null ) map.put(points[i], cells[i]);
+        }
+        return map;
+    }
+
+}
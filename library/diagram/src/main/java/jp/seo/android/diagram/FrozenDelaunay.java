@@ -0,0 +1,326 @@
+package jp.seo.android.diagram;
+
+import java.util.Arrays;
+import java.util.Collection;
+
+/**
+ * 解決済みのドロネー分割を、変更できない整列済みの配列で表現します. {@link DelaunayDiagram#freeze()}で作成します.<br>
+ * 点は座標の順（{@link Point#compare(Point, Point)}）に並べて添字で参照し、三角形は頂点の添字の昇順の組を辞書順に、
+ * 辺は端点の添字の組{@code a < b}を辞書順に並べます. 三角形は添字により定数時間で、
+ * 辺は端点の添字から二分探索で参照します. 集合や対応表と異なりハッシュ値の計算や要素ごとのオブジェクトを要しません.
+ * 構築後は変更されないため複数のスレッドから同時に参照できます
+ * @author Seo-4d696b75
+ * @version 2026/10/19
+ */
+public class FrozenDelaunay {
+
+    FrozenDelaunay(Collection<Point> points, Collection<Triangle> triangles){
+        final int size = points.size();
+        this.points = points.toArray(new Point[size]);
+        Arrays.sort(this.points);
+        x = new double[size];
+        y = new double[size];
+        for ( int i=0 ; i<size ; i++ ){
+            x[i] = this.points[i].getX();
+            y[i] = this.points[i].getY();
+        }
+        // Triangle の頂点は座標の順に並ぶので添字も昇順になる
+        int[] vertex = new int[triangles.size() * 3];
+        int i = 0;
+        for ( Triangle triangle : triangles ){
+            vertex[i++] = indexOf(triangle.a);
+            vertex[i++] = indexOf(triangle.b);
+            vertex[i++] = indexOf(triangle.c);
+        }
+        this.triangles = sortTriangles(vertex, size);
+        edgeOffset = new int[size + 1];
+        edgeB = collectEdges(this.triangles, edgeOffset);
+        final int length = edgeB.length;
+        edgeA = new int[length];
+        for ( i=0 ; i<size ; i++ ){
+            Arrays.fill(edgeA, edgeOffset[i], edgeOffset[i+1], i);
+        }
+        edgeTriangle1 = new int[length];
+        edgeTriangle2 = new int[length];
+        Arrays.fill(edgeTriangle1, -1);
+        Arrays.fill(edgeTriangle2, -1);
+        for ( int t=0 ; t<this.triangles.length/3 ; t++ ){
+            int a = this.triangles[t*3];
+            int b = this.triangles[t*3+1];
+            int c = this.triangles[t*3+2];
+            linkTriangle(findEdge(a, b), t);
+            linkTriangle(findEdge(b, c), t);
+            linkTriangle(findEdge(a, c), t);
+        }
+    }
+
+    private final Point[] points;
+    private final double[] x, y;
+    /**
+     * 三角形tの頂点の添字は{@code triangles[3t] < triangles[3t+1] < triangles[3t+2]}
+     */
+    private final int[] triangles;
+    /**
+     * 添字aの点を小さい方の端点にもつ辺の添字は{@code edgeOffset[a]~edgeOffset[a+1]-1}
+     */
+    private final int[] edgeOffset;
+    /**
+     * 辺の端点の添字 {@code edgeA[e] < edgeB[e]}
+     */
+    private final int[] edgeA, edgeB;
+    /**
+     * 辺を共有する三角形の添字 凸包上の辺の外側など存在しない場合は-1
+     */
+    private final int[] edgeTriangle1, edgeTriangle2;
+
+    /**
+     * 三角形を最小の頂点の添字で分類し、各分類の中は挿入ソートで並べます
+     */
+    private static int[] sortTriangles(int[] vertex, int size){
+        final int count = vertex.length / 3;
+        int[] offset = new int[size + 1];
+        for ( int t=0 ; t<count ; t++ ){
+            offset[vertex[t*3] + 1]++;
+        }
+        for ( int i=0 ; i<size ; i++ ){
+            offset[i+1] += offset[i];
+        }
+        int[] position = Arrays.copyOf(offset, size);
+        int[] sorted = new int[vertex.length];
+        for ( int t=0 ; t<count ; t++ ){
+            int j = position[vertex[t*3]]++;
+            int b = vertex[t*3+1];
+            int c = vertex[t*3+2];
+            // 同じ最小の頂点をもつ三角形は平均６個程度
+            while ( j > offset[vertex[t*3]] && compare(sorted[(j-1)*3+1], sorted[(j-1)*3+2], b, c) > 0 ){
+                sorted[j*3] = sorted[(j-1)*3];
+                sorted[j*3+1] = sorted[(j-1)*3+1];
+                sorted[j*3+2] = sorted[(j-1)*3+2];
+                j--;
+            }
+            sorted[j*3] = vertex[t*3];
+            sorted[j*3+1] = b;
+            sorted[j*3+2] = c;
+        }
+        return sorted;
+    }
+
+    private static int compare(int a1, int b1, int a2, int b2){
+        if ( a1 != a2 ) return a1 < a2 ? -1 : 1;
+        if ( b1 != b2 ) return b1 < b2 ? -1 : 1;
+        return 0;
+    }
+
+    /**
+     * @param edgeOffset 小さい方の端点ごとの辺の範囲を格納する
+     * @return 辺の大きい方の端点の添字
+     */
+    private static int[] collectEdges(int[] triangles, int[] edgeOffset){
+        final int size = edgeOffset.length - 1;
+        final int count = triangles.length / 3;
+        // 各三角形の３辺を小さい方の端点で分類し、重複を除いて並べる
+        int[] offset = new int[size + 1];
+        for ( int t=0 ; t<count ; t++ ){
+            offset[triangles[t*3] + 1] += 2;
+            offset[triangles[t*3+1] + 1]++;
+        }
+        for ( int i=0 ; i<size ; i++ ){
+            offset[i+1] += offset[i];
+        }
+        int[] position = Arrays.copyOf(offset, size);
+        int[] other = new int[offset[size]];
+        for ( int t=0 ; t<count ; t++ ){
+            int a = triangles[t*3];
+            int b = triangles[t*3+1];
+            int c = triangles[t*3+2];
+            other[position[a]++] = b;
+            other[position[a]++] = c;
+            other[position[b]++] = c;
+        }
+        int[] list = new int[other.length];
+        int length = 0;
+        for ( int a=0 ; a<size ; a++ ){
+            int start = length;
+            for ( int k=offset[a] ; k<offset[a+1] ; k++ ){
+                int b = other[k];
+                int j = length;
+                while ( j > start && list[j-1] > b ) j--;
+                if ( j > start && list[j-1] == b ) continue;
+                System.arraycopy(list, j, list, j + 1, length - j);
+                list[j] = b;
+                length++;
+            }
+            edgeOffset[a+1] = length;
+        }
+        return Arrays.copyOf(list, length);
+    }
+
+    private void linkTriangle(int edge, int triangle){
+        if ( edgeTriangle1[edge] < 0 ){
+            edgeTriangle1[edge] = triangle;
+        }else{
+            edgeTriangle2[edge] = triangle;
+        }
+    }
+
+    /**
+     * @return 点の数
+     */
+    public int size(){
+        return points.length;
+    }
+
+    public Point getPoint(int index){
+        return points[index];
+    }
+
+    public double getX(int index){
+        return x[index];
+    }
+
+    public double getY(int index){
+        return y[index];
+    }
+
+    /**
+     * 座標から二分探索で点の添字を求めます
+     * @return 含まれない場合は-1
+     */
+    public int indexOf(Point point){
+        return indexOf(point.getX(), point.getY());
+    }
+
+    public int indexOf(double px, double py){
+        int low = 0;
+        int high = points.length - 1;
+        while ( low <= high ){
+            int mid = (low + high) >>> 1;
+            if ( x[mid] < px || ( x[mid] == px && y[mid] < py ) ){
+                low = mid + 1;
+            }else if ( x[mid] == px && y[mid] == py ){
+                return mid;
+            }else{
+                high = mid - 1;
+            }
+        }
+        return -1;
+    }
+
+    public int getTriangleCount(){
+        return triangles.length / 3;
+    }
+
+    /**
+     * @param triangle 三角形の添字
+     * @param k 0~2
+     * @return 三角形のk番目の頂点の添字
+     */
+    public int getTriangleVertex(int triangle, int k){
+        return triangles[triangle * 3 + k];
+    }
+
+    /**
+     * @return 三角形を作成して返します
+     */
+    public Triangle getTriangle(int triangle){
+        return new Triangle(points[triangles[triangle*3]], points[triangles[triangle*3+1]], points[triangles[triangle*3+2]]);
+    }
+
+    /**
+     * 頂点の添字の組から二分探索で三角形を求めます
+     * @return 含まれない場合は-1
+     */
+    public int findTriangle(int a, int b, int c){
+        // 昇順に並べる
+        if ( a > b ){ int temp = a; a = b; b = temp; }
+        if ( b > c ){ int temp = b; b = c; c = temp; }
+        if ( a > b ){ int temp = a; a = b; b = temp; }
+        int low = 0;
+        int high = triangles.length / 3 - 1;
+        while ( low <= high ){
+            int mid = (low + high) >>> 1;
+            int cmp = triangles[mid*3] != a ? ( triangles[mid*3] < a ? -1 : 1 ) : compare(triangles[mid*3+1], triangles[mid*3+2], b, c);
+            if ( cmp < 0 ){
+                low = mid + 1;
+            }else if ( cmp > 0 ){
+                high = mid - 1;
+            }else{
+                return mid;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * @return 三角形ごとに３つの頂点の添字を並べた配列の複製
+     */
+    public int[] getTriangleIndices(){
+        return Arrays.copyOf(triangles, triangles.length);
+    }
+
+    public int getEdgeCount(){
+        return edgeA.length;
+    }
+
+    /**
+     * @return 辺の小さい方の端点の添字
+     */
+    public int getEdgeA(int edge){
+        return edgeA[edge];
+    }
+
+    /**
+     * @return 辺の大きい方の端点の添字
+     */
+    public int getEdgeB(int edge){
+        return edgeB[edge];
+    }
+
+    /**
+     * 端点の添字から二分探索で辺を求めます
+     * @return 含まれない場合は-1
+     */
+    public int findEdge(int a, int b){
+        if ( a > b ){
+            int temp = a;
+            a = b;
+            b = temp;
+        }
+        if ( a < 0 || b >= points.length ) return -1;
+        int index = Arrays.binarySearch(edgeB, edgeOffset[a], edgeOffset[a+1], b);
+        return index < 0 ? -1 : index;
+    }
+
+    /**
+     * @return 含まれない場合は-1
+     */
+    public int findEdge(Point a, Point b){
+        int i = indexOf(a);
+        int j = indexOf(b);
+        return i < 0 || j < 0 ? -1 : findEdge(i, j);
+    }
+
+    /**
+     * @param edge 辺の添字
+     * @param side 0または1
+     * @return 辺を共有する三角形の添字 存在しない場合は-1
+     */
+    public int getEdgeTriangle(int edge, int side){
+        return side == 0 ? edgeTriangle1[edge] : edgeTriangle2[edge];
+    }
+
+    /**
+     * @return 添字aの点を小さい方の端点にもつ最初の辺の添字
+     */
+    public int getEdgeStart(int a){
+        return edgeOffset[a];
+    }
+
+    /**
+     * @return 添字aの点を小さい方の端点にもつ最後の辺の次の添字
+     */
+    public int getEdgeEnd(int a){
+        return edgeOffset[a+1];
+    }
+
+}
@@ -1,5 +1,15 @@
 package jp.seo.android.diagram;
 
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
 import java.util.*;
 
 /**
@@ -50,9 +60,39 @@ public class HighVoronoi<E extends Point> {
     private Set<Point> requestedPoint;
     private Set<Point> addedPoint;
     private Queue<E> requestQueue;
+    /**
+     * 解決済みの各次数の多角形の頂点
+     */
+    private List<List<Node>> solvedNodes;
     private boolean extensionRunning, traverseRunning;
 
+    /**
+     * 途中経過を保存するファイルの識別子 "HVCP"
+     */
+    private static final int CHECKPOINT_MAGIC = 0x48564350;
+    private static final int CHECKPOINT_VERSION = 1;
+
     public Polygon[] solve(int level, E center, PointProvider<E> resolver, ResultCallback callback) {
+        try{
+            return solve(level, center, resolver, callback, null, 0);
+        }catch (IOException e){
+            // 途中経過を保存しない場合は発生しない
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * 途中経過を保存しながら計算します.<br>
+     * 指定した次数ごとに、解決済みの各次数の多角形・現在の二等分線の集合をファイルに保存します.
+     * 保存済みのファイルが存在する場合はそこから計算を再開し、保存済みの次数については
+     * {@link ResultCallback#onResolved(int, Polygon, long)}を再度呼び出しません.
+     * 二等分線の配置は追加した順序を含めて復元するため、再開した場合も中断しなかった場合と同一の結果が得られます.
+     * <strong>NOTE </strong>再開には保存時と同じ{@code center, resolver}と外接三角形を指定する必要があります
+     * @param checkpoint 途中経過を保存するファイル
+     * @param interval 途中経過を保存する間隔[次数] 最後の次数は必ず保存します
+     * @throws IOException ファイルの読み書きに失敗した場合
+     */
+    public Polygon[] solve(int level, E center, PointProvider<E> resolver, ResultCallback callback, File checkpoint, int interval) throws IOException {
         this.center = center;
         this.resolver = resolver;
 
@@ -61,7 +101,7 @@ public class HighVoronoi<E extends Point> {
         long time = System.currentTimeMillis();
 
         Polygon[] result = new Polygon[level];
-        bisectors = new LinkedList<>();
+        bisectors = new ArrayList<>();
 
         addBoundary(new Line(container.a, container.b));
         addBoundary(new Line(container.b, container.c));
@@ -73,20 +113,29 @@ public class HighVoronoi<E extends Point> {
 
         requestedPoint.add(center);
         addedPoint.add(center);
-        for ( E point : resolver.getNeighbors(center) ){
-            addedPoint.add(point);
-            addBisector(point);
-        }
+        solvedNodes = new ArrayList<>();
 
         List<Node> list = null;
+        int solvedLevel = 0;
+
+        if ( checkpoint != null && checkpoint.exists() ){
+            solvedLevel = readCheckpoint(checkpoint, result);
+            if ( solvedLevel > 0 ) list = solvedNodes.get(solvedLevel - 1);
+        }else{
+            for ( E point : resolver.getNeighbors(center) ){
+                addedPoint.add(point);
+                addBisector(point);
+            }
+        }
 
-        for ( int targetLevel = 1 ; targetLevel <= level ; targetLevel++ ){
+        for ( int targetLevel = solvedLevel + 1 ; targetLevel <= level ; targetLevel++ ){
             long loopTime = System.currentTimeMillis();
 
             startThread();
 
             list = traverse(list);
             for ( Node n : list ) n.onSolved(targetLevel);
+            solvedNodes.add(list);
 
             Polygon polygon = new Polygon(list);
             result[targetLevel - 1] = polygon;
@@ -97,6 +146,10 @@ public class HighVoronoi<E extends Point> {
                 callback.onResolved(targetLevel - 1, polygon, System.currentTimeMillis() - loopTime);
             }
 
+            if ( checkpoint != null && ( targetLevel % Math.max(interval, 1) == 0 || targetLevel == level ) ){
+                writeCheckpoint(checkpoint, result, targetLevel);
+            }
+
             System.out.println("solve > " + String.format(Locale.US, "index:%d, time:%dms", targetLevel, System.currentTimeMillis() - loopTime));
         }
 
@@ -104,6 +157,7 @@ public class HighVoronoi<E extends Point> {
         for ( Bisector bisector : bisectors ){
             bisector.release();
         }
+        solvedNodes = null;
 
         if ( callback != null ){
             callback.onCompleted(result, System.currentTimeMillis() - time);
@@ -114,6 +168,159 @@ public class HighVoronoi<E extends Point> {
 
     }
 
+    /**
+     * 直前の計算で隣接する点を参照した点. これらの点の隣接関係が変わると計算結果も変わり得ます
+     */
+    Set<Point> getRequestedPoints(){
+        return requestedPoint;
+    }
+
+    /**
+     * 直前の計算で二等分線を追加した点. これらの点の座標が変わると計算結果も変わり得ます
+     */
+    Set<Point> getAddedPoints(){
+        return addedPoint;
+    }
+
+    /**
+     * 途中経過を保存します.
+     * 二等分線の母点を追加順に、各次数の多角形の頂点をその頂点で交わる二本の線の添字の組で記録します.
+     * 書き込み途中で中断されても既存のファイルが壊れないよう一時ファイルに書いてから置き換えます.
+     * 置き換えは不可分な移動で行うため、ファイルは常に直前か今回のいずれかの途中経過を表します
+     */
+    private void writeCheckpoint(File file, Polygon[] result, int solvedLevel) throws IOException {
+        File temp = new File(file.getPath() + ".tmp");
+        DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(temp)));
+        try{
+            out.writeInt(CHECKPOINT_MAGIC);
+            out.writeInt(CHECKPOINT_VERSION);
+            writePoint(out, center);
+            writePoint(out, container.a);
+            writePoint(out, container.b);
+            writePoint(out, container.c);
+            out.writeInt(solvedLevel);
+            // 外接三角形の各辺の３本を除く
+            out.writeInt(bisectors.size() - 3);
+            for ( int i=3 ; i<bisectors.size() ; i++ ){
+                E point = bisectors.get(i).delaunayPoint;
+                writePoint(out, point);
+                out.writeBoolean(requestedPoint.contains(point));
+            }
+            for ( int i=0 ; i<solvedLevel ; i++ ){
+                List<Node> list = solvedNodes.get(i);
+                out.writeInt(list.size());
+                for ( Node node : list ){
+                    out.writeInt(node.p1.line.id);
+                    out.writeInt(node.p2.line.id);
+                }
+            }
+        }finally{
+            out.close();
+        }
+        Files.move(temp.toPath(), file.toPath(), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    private static void writePoint(DataOutputStream out, Point point) throws IOException {
+        out.writeDouble(point.getX());
+        out.writeDouble(point.getY());
+    }
+
+    private static Point readPoint(DataInputStream in) throws IOException {
+        double x = in.readDouble();
+        double y = in.readDouble();
+        return new BasePoint(x, y);
+    }
+
+    /**
+     * 保存された途中経過から二等分線の配置と解決済みの次数の多角形を復元します
+     * @param result 復元した多角形を格納する
+     * @return 解決済みの次数
+     */
+    private int readCheckpoint(File file, Polygon[] result) throws IOException {
+        DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)));
+        try{
+            if ( in.readInt() != CHECKPOINT_MAGIC || in.readInt() != CHECKPOINT_VERSION ){
+                throw new IOException("invalid checkpoint: " + file.getPath());
+            }
+            if ( !readPoint(in).equals(center) || !readPoint(in).equals(container.a)
+                    || !readPoint(in).equals(container.b) || !readPoint(in).equals(container.c) ){
+                throw new IllegalArgumentException("checkpoint does not match center or frame: " + file.getPath());
+            }
+            final int solvedLevel = in.readInt();
+            final int size = in.readInt();
+            List<Point> points = new ArrayList<>(size);
+            Set<Point> requested = new HashSet<>();
+            for ( int i=0 ; i<size ; i++ ){
+                Point point = readPoint(in);
+                points.add(point);
+                if ( in.readBoolean() ) requested.add(point);
+            }
+            // 座標から PointProvider の提供する点を引き当てる
+            Map<Point, E> map = resolvePoints(new HashSet<>(points), requested);
+            for ( Point point : points ){
+                E item = map.get(point);
+                if ( item == null ){
+                    throw new IllegalArgumentException("checkpoint does not match point provider: " + point.toString());
+                }
+                addedPoint.add(item);
+                if ( requested.contains(point) ) requestedPoint.add(item);
+                addBisector(item);
+            }
+            Map<Long, Node> nodes = new HashMap<>();
+            for ( Bisector bisector : bisectors ){
+                for ( Intersection intersection : bisector.intersections ){
+                    Node node = intersection.node;
+                    nodes.put(getNodeKey(node.p1.line.id, node.p2.line.id), node);
+                }
+            }
+            for ( int level=1 ; level<=solvedLevel ; level++ ){
+                final int length = in.readInt();
+                List<Node> list = new ArrayList<>(length);
+                for ( int i=0 ; i<length ; i++ ){
+                    Node node = nodes.get(getNodeKey(in.readInt(), in.readInt()));
+                    if ( node == null ){
+                        throw new IOException("invalid checkpoint: node not found");
+                    }
+                    list.add(node);
+                }
+                for ( Node n : list ) n.onSolved(level);
+                solvedNodes.add(list);
+                if ( level <= result.length ) result[level - 1] = new Polygon(list);
+            }
+            return Math.min(solvedLevel, result.length);
+        }finally{
+            in.close();
+        }
+    }
+
+    /**
+     * 中心から隣接関係を辿り、保存された座標に一致する点を探します.
+     * 辿るのは保存時に隣接点を要求済みだった点のみです
+     */
+    private Map<Point, E> resolvePoints(Set<Point> points, Set<Point> requested){
+        Map<Point, E> map = new HashMap<>();
+        Set<Point> visited = new HashSet<>();
+        Queue<E> queue = new LinkedList<>();
+        queue.offer(center);
+        visited.add(center);
+        while ( !queue.isEmpty() ){
+            E current = queue.poll();
+            for ( E point : resolver.getNeighbors(current) ){
+                if ( points.contains(point) && !map.containsKey(point) ){
+                    map.put(point, point);
+                }
+                if ( requested.contains(point) && visited.add(point) ){
+                    queue.offer(point);
+                }
+            }
+        }
+        return map;
+    }
+
+    private static long getNodeKey(int id1, int id2){
+        return ((long)Math.min(id1, id2) << 32) | Math.max(id1, id2);
+    }
+
     private List<Node> traverse(List<Node> list){
         Node next = null;
         Point previous = null;
@@ -193,10 +400,17 @@ public class HighVoronoi<E extends Point> {
         notifyAll();
     }
 
+    /**
+     * 二等分線を追加する補助スレッドを作成します. 試験でスレッドの確保量を計測するため差し替えられます
+     */
+    Thread newThread(Runnable runnable) {
+        return new Thread(runnable);
+    }
+
     private void startThread() {
         traverseRunning = true;
         extensionRunning = true;
-        new Thread(new Runnable() {
+        newThread(new Runnable() {
 
             private long elapsedTime = 0;
             private int cnt;
@@ -233,6 +447,7 @@ public class HighVoronoi<E extends Point> {
 
     private void addBoundary(Line self){
         Bisector boundary = new Bisector(self);
+        boundary.id = bisectors.size();
         for ( Bisector preexist : bisectors ){
             Point p = boundary.line.getIntersection(preexist.line);
             Intersection a = new Intersection(p, boundary);
@@ -248,9 +463,14 @@ public class HighVoronoi<E extends Point> {
 
     private void addBisector(E point) {
         Bisector bisector = new Bisector(point, Line.getPerpendicularBisector(point, center));
+        bisector.id = bisectors.size();
+        final Line line = bisector.line;
+        final double[] buffer = new double[2];
         for (Bisector preexist : bisectors) {
-            Point p = bisector.line.getIntersection(preexist.line);
-            if ( p != null && container.containsPoint(p) ) {
+            // 交点がFrame内部にある場合のみオブジェクトを生成する
+            if ( !Line.getIntersection(line.a, line.b, line.c, preexist.line.a, preexist.line.b, preexist.line.c, buffer) ) continue;
+            if ( container.containsPoint(buffer[0], buffer[1]) ) {
+                Point p = new BasePoint(buffer[0], buffer[1]);
                 Intersection a = new Intersection(p, bisector, preexist.line);
                 Intersection b = new Intersection(p, preexist, bisector.line);
                 Node n = new Node(p, a, b);
@@ -442,8 +662,7 @@ public class HighVoronoi<E extends Point> {
                 dx *= -1;
                 dy *= -1;
             }
-            Point p = new BasePoint(point.getX() + dx, point.getY() + dy);
-            this.step = other.onSameSide(p, center) ? Node.STEP_DOWN : Node.STEP_UP;
+            this.step = other.onSameSide(point.getX() + dx, point.getY() + dy, center.getX(), center.getY()) ? Node.STEP_DOWN : Node.STEP_UP;
         }
 
         private Intersection(Point point, Bisector line){
@@ -601,6 +820,10 @@ public class HighVoronoi<E extends Point> {
         }
 
         private List<Intersection> intersections;
+        /**
+         * 追加された順序 {@link HighVoronoi#bisectors}における添字
+         */
+        private int id;
         private int solvedPointIndexFrom = Integer.MAX_VALUE;
         private int solvedPointIndexTo = -1;
 
@@ -0,0 +1,278 @@
+package jp.seo.android.diagram;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * {@link HighVoronoi}の計算結果を中心の点と外接三角形の組ごとに保持します.<br>
+ * 各結果について計算に用いた点を記録し、{@link DelaunayDiagram#movePoint(Point, Point)}で点が移動した際には
+ * {@link #invalidate(Point, Collection)}により移動した点の二等分線を用いた結果と、
+ * 隣接する点が変化した点の隣接関係を参照した結果のみを破棄します. それ以外の結果は移動の影響を受けないため保持し続けます.<br>
+ * 保持する結果のメモリ量を頂点数などから概算し、上限を超えると最も長く参照されていない結果から破棄します.
+ * 複数のスレッドから呼び出せます
+ * @author Seo-4d696b75
+ * @version 2026/10/19
+ */
+public class HighVoronoiCache<E extends Point> {
+
+    /**
+     * 保持するメモリ量に上限を設けません
+     * @param frame 計算に用いる外接三角形
+     * @param provider 隣接する点の提供元 点の移動後は移動後の隣接関係を返す必要があります
+     */
+    public HighVoronoiCache(Triangle frame, HighVoronoi.PointProvider<E> provider){
+        this(frame, provider, Long.MAX_VALUE);
+    }
+
+    /**
+     * @param frame 外接三角形を指定しない{@link #solve(int, Point)}で用いる外接三角形
+     * @param provider 隣接する点の提供元 点の移動後は移動後の隣接関係を返す必要があります
+     * @param budget 保持する結果のメモリ量の上限[byte] 概算値で比較します
+     */
+    public HighVoronoiCache(Triangle frame, HighVoronoi.PointProvider<E> provider, long budget){
+        if ( budget <= 0 ){
+            throw new IllegalArgumentException("budget must be positive: " + budget);
+        }
+        this.frame = frame;
+        this.provider = provider;
+        this.budget = budget;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true);
+        this.positionIndex = new HashMap<>();
+        this.neighborIndex = new HashMap<>();
+    }
+
+    /**
+     * 結果一つあたりの固定の概算量[byte]
+     */
+    private static final long ENTRY_BYTES = 256;
+
+    /**
+     * 多角形の頂点あたりの概算量[byte]
+     */
+    private static final long VERTEX_BYTES = 64;
+
+    /**
+     * 計算に用いた点の記録と逆引きの対応の点あたりの概算量[byte]
+     */
+    private static final long INDEX_BYTES = 96;
+
+    private static class Key{
+
+        private Key(Point center, Triangle frame){
+            this.center = center;
+            this.frame = frame;
+        }
+
+        private final Point center;
+        private final Triangle frame;
+
+        @Override
+        public boolean equals(Object other){
+            if ( other instanceof Key ){
+                Key key = (Key)other;
+                return center.equals(key.center) && frame.equals(key.frame);
+            }
+            return false;
+        }
+
+        @Override
+        public int hashCode(){
+            return center.hashCode() * 31 + frame.hashCode();
+        }
+    }
+
+    private static class Entry{
+
+        private Entry(Polygon[] result, Set<Point> added, Set<Point> requested){
+            this.result = result;
+            this.added = added;
+            this.requested = requested;
+            long bytes = ENTRY_BYTES + INDEX_BYTES * (added.size() + requested.size());
+            for ( Polygon polygon : result ){
+                bytes += VERTEX_BYTES * polygon.size();
+            }
+            this.bytes = bytes;
+        }
+
+        private final Polygon[] result;
+        /**
+         * 二等分線を追加した点
+         */
+        private final Set<Point> added;
+        /**
+         * 隣接する点を参照した点
+         */
+        private final Set<Point> requested;
+        /**
+         * 保持するメモリ量の概算値
+         */
+        private final long bytes;
+    }
+
+    private final Triangle frame;
+    private final HighVoronoi.PointProvider<E> provider;
+    private final long budget;
+    /**
+     * 参照の古い順に並ぶ
+     */
+    private final LinkedHashMap<Key, Entry> entries;
+    /**
+     * 点からその点の二等分線を用いた結果への対応
+     */
+    private final Map<Point, Set<Key>> positionIndex;
+    /**
+     * 点からその点の隣接関係を参照した結果への対応
+     */
+    private final Map<Point, Set<Key>> neighborIndex;
+    /**
+     * 破棄の度に更新し、計算中に破棄が起きた結果を保持しないよう判定します
+     */
+    private long generation;
+    private long retained;
+
+    /**
+     * 構築時に指定した外接三角形で計算します
+     * @see #solve(int, Point, Triangle)
+     */
+    public Polygon[] solve(int level, E center){
+        return solve(level, center, frame);
+    }
+
+    /**
+     * 保持している結果があれば返し、なければ計算して保持します.
+     * 同じ中心と外接三角形で指定した次数以上の結果を保持している場合はその一部を返します
+     * @param frame 計算に用いる外接三角形
+     * @return 1次から指定した次数までの多角形
+     */
+    public Polygon[] solve(int level, E center, Triangle frame){
+        long current;
+        synchronized ( this ){
+            Polygon[] result = get(center, frame, level);
+            if ( result != null ) return result;
+            current = generation;
+        }
+        HighVoronoi<E> voronoi = new HighVoronoi<>(frame);
+        Polygon[] result = voronoi.solve(level, center, provider, null);
+        synchronized ( this ){
+            if ( current == generation ){
+                put(new Key(center, frame), new Entry(result, voronoi.getAddedPoints(), voronoi.getRequestedPoints()));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 構築時に指定した外接三角形で計算した結果を参照します
+     * @see #get(Point, Triangle, int)
+     */
+    public Polygon[] get(E center, int level){
+        return get(center, frame, level);
+    }
+
+    /**
+     * @return 指定した次数以上の結果を保持していない場合はnull
+     */
+    public synchronized Polygon[] get(E center, Triangle frame, int level){
+        Entry entry = entries.get(new Key(center, frame));
+        if ( entry == null || entry.result.length < level ) return null;
+        return Arrays.copyOf(entry.result, level);
+    }
+
+    /**
+     * 点の移動により変化し得る結果を破棄します
+     * @param moved 移動前の点
+     * @param changed 隣接する点が変化した点 {@link DelaunayDiagram#movePoint(Point, Point)}の返り値
+     * @return 破棄した結果の数
+     */
+    public synchronized int invalidate(Point moved, Collection<? extends Point> changed){
+        generation++;
+        Set<Key> keys = new HashSet<>();
+        Set<Key> set = positionIndex.get(moved);
+        if ( set != null ) keys.addAll(set);
+        for ( Point point : changed ){
+            set = neighborIndex.get(point);
+            if ( set != null ) keys.addAll(set);
+        }
+        for ( Key key : keys ){
+            remove(key);
+        }
+        return keys.size();
+    }
+
+    public synchronized void clear(){
+        generation++;
+        entries.clear();
+        positionIndex.clear();
+        neighborIndex.clear();
+        retained = 0;
+    }
+
+    public synchronized int size(){
+        return entries.size();
+    }
+
+    /**
+     * @return 保持している結果のメモリ量の概算値[byte]
+     */
+    public synchronized long getRetainedBytes(){
+        return retained;
+    }
+
+    public long getBudget(){
+        return budget;
+    }
+
+    private void put(Key key, Entry entry){
+        Entry previous = entries.get(key);
+        // 並行して計算したより高い次数の結果は置き換えない
+        if ( previous != null && previous.result.length >= entry.result.length ) return;
+        remove(key);
+        // 上限を超える結果は保持しない
+        if ( entry.bytes > budget ) return;
+        entries.put(key, entry);
+        retained += entry.bytes;
+        for ( Point point : entry.added ) addIndex(positionIndex, point, key);
+        for ( Point point : entry.requested ) addIndex(neighborIndex, point, key);
+        // 最も長く参照されていない結果から破棄する
+        Iterator<Map.Entry<Key, Entry>> iterator = entries.entrySet().iterator();
+        while ( retained > budget ){
+            Map.Entry<Key, Entry> eldest = iterator.next();
+            iterator.remove();
+            removeEntry(eldest.getKey(), eldest.getValue());
+        }
+    }
+
+    private void remove(Key key){
+        removeEntry(key, entries.remove(key));
+    }
+
+    private void removeEntry(Key key, Entry entry){
+        if ( entry == null ) return;
+        retained -= entry.bytes;
+        for ( Point point : entry.added ) removeIndex(positionIndex, point, key);
+        for ( Point point : entry.requested ) removeIndex(neighborIndex, point, key);
+    }
+
+    private void addIndex(Map<Point, Set<Key>> index, Point point, Key key){
+        Set<Key> set = index.get(point);
+        if ( set == null ){
+            set = new HashSet<>();
+            index.put(point, set);
+        }
+        set.add(key);
+    }
+
+    private void removeIndex(Map<Point, Set<Key>> index, Point point, Key key){
+        Set<Key> set = index.get(point);
+        if ( set == null ) return;
+        set.remove(key);
+        if ( set.isEmpty() ) index.remove(point);
+    }
+
+}
@@ -97,25 +97,98 @@ public class Line {
     }
 
     public Point getIntersection(Line line){
-        double det = a * line.b - line.a * b;
-        if ( Setting.isZero(det) ){
-            return null;
+        double[] result = new double[2];
+        if ( getIntersection(a, b, c, line.a, line.b, line.c, result) ){
+            return new BasePoint(result[0], result[1]);
         }else{
-            return new BasePoint(
-                    ( b * line.c - line.b * c )/det,
-                    (line.a * c - a * line.c )/det
-            );
+            return null;
         }
     }
 
     public Point getIntersection(Edge edge){
-        if ( (a*edge.a.getX() + b*edge.a.getY() + c ) * (a*edge.b.getX() + b*edge.b.getY() + c) <= 0 ){
-            return getIntersection(new Line(edge));
+        double[] result = new double[2];
+        if ( getIntersection(this, edge.a.getX(), edge.a.getY(), edge.b.getX(), edge.b.getY(), result) ){
+            return new BasePoint(result[0], result[1]);
         }else{
             return null;
         }
     }
 
+    /**
+     * 二直線 a1x+b1y+c1=0, a2x+b2y+c2=0 の交点を計算します. オブジェクトは生成しません
+     * @param result 交点の座標(x,y)の書き込み先 長さ2以上
+     * @return 交点が存在しない（平行）場合はfalseで{@code result}は変更されません
+     */
+    public static boolean getIntersection(double a1, double b1, double c1, double a2, double b2, double c2, double[] result){
+        return getIntersection(a1, b1, c1, a2, b2, c2, result, 0);
+    }
+
+    /**
+     * @param offset 交点のx座標を書き込む{@code result}の添字 y座標は{@code offset+1}に書き込みます
+     * @see #getIntersection(double, double, double, double, double, double, double[])
+     */
+    static boolean getIntersection(double a1, double b1, double c1, double a2, double b2, double c2, double[] result, int offset){
+        double det = a1 * b2 - a2 * b1;
+        if ( Setting.isZero(det) ){
+            return false;
+        }
+        result[offset] = ( b1 * c2 - b2 * c1 )/det;
+        result[offset+1] = ( a2 * c1 - a1 * c2 )/det;
+        return true;
+    }
+
+    /**
+     * 直線と、２点(x1,y1),(x2,y2)を通る直線の交点を計算します. オブジェクトは生成しません.
+     * ２点を通る直線は{@link #Line(Point, Point)}と同様に正規化して扱います
+     * @param result 交点の座標(x,y)の書き込み先
+     * @param offset 交点のx座標を書き込む{@code result}の添字
+     * @return 交点が存在しない、または２点が一致する場合はfalse
+     */
+    static boolean getIntersectionWithLine(double a, double b, double c, double x1, double y1, double x2, double y2, double[] result, int offset){
+        if ( Setting.isZero(x1 - x2) ){
+            if ( Setting.isZero(y1 - y2) ) return false;
+            return getIntersection(a, b, c, 1.0, 0.0, -(x1 + x2)/2, result, offset);
+        }else{
+            return getIntersection(
+                    a, b, c,
+                    (y2 - y1) / (x1 - x2), 1.0, (x2*y1 - x1*y2) / (x1 - x2),
+                    result, offset
+            );
+        }
+    }
+
+    /**
+     * ２点(x1,y1),(x2,y2)を通る直線と、２点(x3,y3),(x4,y4)を通る直線の交点を計算します. オブジェクトは生成しません
+     * @param result 交点の座標(x,y)の書き込み先
+     * @param offset 交点のx座標を書き込む{@code result}の添字
+     * @return 交点が存在しない、または直線を定義しない場合はfalse
+     */
+    static boolean getIntersectionOfLines(double x1, double y1, double x2, double y2,
+                                          double x3, double y3, double x4, double y4, double[] result, int offset){
+        if ( Setting.isZero(x1 - x2) ){
+            if ( Setting.isZero(y1 - y2) ) return false;
+            return getIntersectionWithLine(1.0, 0.0, -(x1 + x2)/2, x3, y3, x4, y4, result, offset);
+        }else{
+            return getIntersectionWithLine(
+                    (y2 - y1) / (x1 - x2), 1.0, (x2*y1 - x1*y2) / (x1 - x2),
+                    x3, y3, x4, y4,
+                    result, offset
+            );
+        }
+    }
+
+    /**
+     * 直線と線分(x1,y1)-(x2,y2)の交点を計算します. オブジェクトは生成しません
+     * @param result 交点の座標(x,y)の書き込み先 長さ2以上
+     * @return 線分の両端点が直線の同じ側にある、または交点が存在しない場合はfalse
+     */
+    public static boolean getIntersection(Line line, double x1, double y1, double x2, double y2, double[] result){
+        if ( (line.a*x1 + line.b*y1 + line.c) * (line.a*x2 + line.b*y2 + line.c) <= 0 ){
+            return getIntersectionWithLine(line.a, line.b, line.c, x1, y1, x2, y2, result, 0);
+        }
+        return false;
+    }
+
     public static Line getPerpendicularBisector(Edge edge){
         return getPerpendicularBisector(edge.a, edge.b);
     }
@@ -133,8 +206,12 @@ public class Line {
     }
 
     public boolean onSameSide(Point p1, Point p2){
-        double v1 = a * p1.getX() + b * p1.getY() + c;
-        double v2 = a * p2.getX() + b * p2.getY() + c;
+        return onSameSide(p1.getX(), p1.getY(), p2.getX(), p2.getY());
+    }
+
+    public boolean onSameSide(double x1, double y1, double x2, double y2){
+        double v1 = a * x1 + b * y1 + c;
+        double v2 = a * x2 + b * y2 + c;
         return v1 * v2 >= 0;
     }
 
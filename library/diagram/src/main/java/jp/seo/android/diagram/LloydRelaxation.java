@@ -0,0 +1,312 @@
+package jp.seo.android.diagram;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Lloydの反復により点を各自のボロノイ領域の重心へ移動させ、重心ボロノイ図に近づけます.<br>
+ * ドロネー分割は反復の間も保持し、各点の移動は{@link DelaunayDiagram#movePoint(Point, Point)}による
+ * 局所的なフリップで反映します. 各点のボロノイ領域は隣接する点との垂直二等分線で矩形を切り取って求め、
+ * その重心の計算は{@link MultiThreadTask}により複数のスレッドで分担します
+ * @author Seo-4d696b75
+ * @version 2026/10/19
+ */
+public class LloydRelaxation {
+
+    /**
+     * @param points 初期配置の点
+     * @param border 全ての点を内部に含む矩形 ボロノイ領域はこの矩形で切り取ります
+     * @param threads 重心の計算に用いるスレッドの数
+     */
+    public LloydRelaxation(Collection<? extends Point> points, Rectangle border, int threads){
+        this.border = border;
+        this.threads = Math.max(threads, 1);
+        this.sites = points.toArray(new Point[points.size()]);
+        this.index = new HashMap<>();
+        for ( int i=0 ; i<sites.length ; i++ ){
+            index.put(sites[i], i);
+        }
+        this.centroidX = new double[sites.length];
+        this.centroidY = new double[sites.length];
+        this.offset = new int[sites.length + 1];
+    }
+
+    /**
+     * 一つのスレッドが一度に重心を計算する点の数
+     */
+    private static final int CHUNK_SIZE = 256;
+
+    private final Rectangle border;
+    private final int threads;
+    private final Point[] sites;
+    private final Map<Point, Integer> index;
+    private final double[] centroidX, centroidY;
+    /**
+     * 各点に隣接する点の添字 i番目の点に隣接する点は{@code neighbor[offset[i]]~neighbor[offset[i+1]-1]}
+     */
+    private final int[] offset;
+    private int[] neighbor;
+    private DelaunayDiagram diagram;
+    private int iteration;
+    private double displacement;
+
+    /**
+     * 収束するか指定した回数に達するまで反復します. 続けて呼び出すと前回の状態から再開します
+     * @param maxIteration 反復の最大回数
+     * @param threshold 一回の反復で全ての点の移動距離がこの値未満になったら収束したとみなします
+     * @return 実行した反復の回数
+     */
+    public int relax(int maxIteration, double threshold){
+        if ( diagram == null ){
+            diagram = new DelaunayDiagram(Arrays.asList(sites));
+            diagram.split(border);
+        }
+        for ( int i=0 ; i<maxIteration ; i++ ){
+            updateAdjacency();
+            computeCentroids();
+            displacement = moveSites();
+            iteration++;
+            if ( displacement < threshold ) return i + 1;
+        }
+        return maxIteration;
+    }
+
+    /**
+     * @return 現在の点の配置 コンストラクタで渡した順序
+     */
+    public List<Point> getPoints(){
+        return new ArrayList<>(Arrays.asList(sites));
+    }
+
+    /**
+     * @return 現在の点の配置のドロネー分割 {@link #relax(int, double)}を呼ぶ前はnull
+     */
+    public DelaunayDiagram getDiagram(){
+        return diagram;
+    }
+
+    /**
+     * @return これまでに実行した反復の回数
+     */
+    public int getIteration(){
+        return iteration;
+    }
+
+    /**
+     * @return 直前の反復における点の移動距離の最大値
+     */
+    public double getDisplacement(){
+        return displacement;
+    }
+
+    private void updateAdjacency(){
+        final int size = sites.length;
+        Collection<Edge> edges = diagram.getEdges();
+        if ( neighbor == null || neighbor.length < edges.size() * 2 ){
+            neighbor = new int[edges.size() * 2 + size];
+        }
+        Arrays.fill(offset, 0);
+        for ( Edge edge : edges ){
+            offset[index.get(edge.a) + 1]++;
+            offset[index.get(edge.b) + 1]++;
+        }
+        for ( int i=0 ; i<size ; i++ ){
+            offset[i+1] += offset[i];
+        }
+        int[] position = Arrays.copyOf(offset, size);
+        for ( Edge edge : edges ){
+            int a = index.get(edge.a);
+            int b = index.get(edge.b);
+            neighbor[position[a]++] = b;
+            neighbor[position[b]++] = a;
+        }
+    }
+
+    /**
+     * いずれかのスレッドで例外が発生した場合は点を移動せず、最初の例外を投げます
+     */
+    private void computeCentroids(){
+        // MultiThreadTask は例外を捕捉して処理を続けるため、ここで記録して呼び出し元へ投げる
+        final AtomicReference<RuntimeException> failure = new AtomicReference<>();
+        MultiThreadTask<Integer, Void> task = new MultiThreadTask<Integer, Void>() {
+            @Override
+            protected ProcessThread getProcessThread() {
+                return new ProcessThread() {
+
+                    private final CellClipper clipper = new CellClipper();
+
+                    @Override
+                    protected Void process(Integer start) {
+                        if ( failure.get() != null ) return null;
+                        try{
+                            int end = Math.min(start + CHUNK_SIZE, sites.length);
+                            for ( int i=start ; i<end ; i++ ){
+                                clipper.computeCentroid(i);
+                            }
+                        }catch (RuntimeException e){
+                            failure.compareAndSet(null, e);
+                        }
+                        return null;
+                    }
+                };
+            }
+        };
+        task.start(threads);
+        for ( int i=0 ; i<sites.length ; i+=CHUNK_SIZE ){
+            task.enqueue(i);
+        }
+        task.waitForCompletion();
+        RuntimeException e = failure.get();
+        if ( e != null ) throw e;
+    }
+
+    /**
+     * @return 点の移動距離の最大値
+     */
+    private double moveSites(){
+        double max = 0;
+        for ( int i : getMoveOrder() ){
+            Point from = sites[i];
+            double dx = centroidX[i] - from.getX();
+            double dy = centroidY[i] - from.getY();
+            if ( dx == 0 && dy == 0 ) continue;
+            Point to = new BasePoint(centroidX[i], centroidY[i]);
+            // 移動先に他の点がある場合は移動しない
+            if ( isOccupied(i, to) ) continue;
+            diagram.movePoint(from, to);
+            sites[i] = to;
+            index.remove(from);
+            index.put(to, i);
+            max = Math.max(max, Math.sqrt(dx*dx + dy*dy));
+        }
+        return max;
+    }
+
+    /**
+     * 移動先と重複する他の点があるか判定します. 重心はボロノイ領域の内部にあるため、
+     * 誤差の範囲で一致し得る点は一致する座標の点を除けば隣接する点に限られます
+     */
+    private boolean isOccupied(int i, Point to){
+        if ( index.containsKey(to) ) return true;
+        for ( int j=offset[i] ; j<offset[i+1] ; j++ ){
+            if ( Point.isMatch(sites[neighbor[j]], to) ) return true;
+        }
+        return false;
+    }
+
+    /**
+     * 点を移動する順序を求めます. 移動の度に移動先の三角形を直前に移動した点の位置から辿って探すため、
+     * 矩形を横長の短冊に分けて短冊ごとに左右交互に並べ、続けて移動する点同士が近くなるようにします
+     */
+    private Integer[] getMoveOrder(){
+        final int size = sites.length;
+        final int strips = Math.max(1, (int)Math.sqrt(size / 2.0));
+        final double height = (border.top - border.bottom) / strips;
+        final long[] keys = new long[size];
+        for ( int i=0 ; i<size ; i++ ){
+            int strip = Math.min(strips - 1, (int)((centroidY[i] - border.bottom) / height));
+            double x = (centroidX[i] - border.left) / (border.right - border.left);
+            if ( strip % 2 == 1 ) x = 1 - x;
+            keys[i] = (long)strip << 32 | (long)(x * Integer.MAX_VALUE);
+        }
+        Integer[] order = new Integer[size];
+        for ( int i=0 ; i<size ; i++ ) order[i] = i;
+        Arrays.sort(order, new Comparator<Integer>() {
+            @Override
+            public int compare(Integer o1, Integer o2) {
+                return Long.compare(keys[o1], keys[o2]);
+            }
+        });
+        return order;
+    }
+
+    /**
+     * 矩形を垂直二等分線で順に切り取りボロノイ領域を求めます. 作業用の配列はスレッドごとに保持して再利用します
+     */
+    private class CellClipper {
+
+        private double[] x = new double[16];
+        private double[] y = new double[16];
+        private double[] nextX = new double[16];
+        private double[] nextY = new double[16];
+        private int length;
+
+        private void computeCentroid(int i){
+            final Point site = sites[i];
+            final double sx = site.getX();
+            final double sy = site.getY();
+            length = 4;
+            x[0] = border.left;
+            y[0] = border.bottom;
+            x[1] = border.right;
+            y[1] = border.bottom;
+            x[2] = border.right;
+            y[2] = border.top;
+            x[3] = border.left;
+            y[3] = border.top;
+            for ( int k=offset[i] ; k<offset[i+1] && length > 0 ; k++ ){
+                Point other = sites[neighbor[k]];
+                double nx = other.getX() - sx;
+                double ny = other.getY() - sy;
+                double c = (nx * (other.getX() + sx) + ny * (other.getY() + sy)) / 2;
+                clip(nx, ny, c);
+            }
+            double area = 0;
+            double cx = 0;
+            double cy = 0;
+            for ( int k=0 ; k<length ; k++ ){
+                int next = (k+1) % length;
+                double cross = x[k] * y[next] - x[next] * y[k];
+                area += cross;
+                cx += (x[k] + x[next]) * cross;
+                cy += (y[k] + y[next]) * cross;
+            }
+            if ( Math.abs(area) > 0 ){
+                centroidX[i] = cx / (3 * area);
+                centroidY[i] = cy / (3 * area);
+            }else{
+                centroidX[i] = sx;
+                centroidY[i] = sy;
+            }
+        }
+
+        /**
+         * 多角形を半平面{@code nx*x + ny*y <= c}で切り取ります
+         */
+        private void clip(double nx, double ny, double c){
+            if ( nextX.length < length * 2 ){
+                nextX = new double[length * 2];
+                nextY = new double[length * 2];
+            }
+            int cnt = 0;
+            for ( int k=0 ; k<length ; k++ ){
+                int next = (k+1) % length;
+                double v1 = nx * x[k] + ny * y[k] - c;
+                double v2 = nx * x[next] + ny * y[next] - c;
+                if ( v1 <= 0 ){
+                    nextX[cnt] = x[k];
+                    nextY[cnt++] = y[k];
+                }
+                if ( (v1 < 0 && v2 > 0) || (v1 > 0 && v2 < 0) ){
+                    double t = v1 / (v1 - v2);
+                    nextX[cnt] = x[k] + (x[next] - x[k]) * t;
+                    nextY[cnt++] = y[k] + (y[next] - y[k]) * t;
+                }
+            }
+            double[] temp = x;
+            x = nextX;
+            nextX = temp;
+            temp = y;
+            y = nextY;
+            nextY = temp;
+            length = cnt;
+        }
+    }
+
+}
@@ -0,0 +1,473 @@
+package jp.seo.android.diagram;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * 解決済みのドロネー分割の母点に与えた値から、Sibsonの自然近傍補間により任意の点の値を求めます.<br>
+ * 補間する点を仮に挿入した場合に外接円の内部に補間点を含む三角形（空洞）を探し、
+ * 補間点の新たなボロノイ領域が各母点の元のボロノイ領域から奪う面積を重みとします. 分割自体は変更しません.
+ * 各母点の奪われる領域は、空洞の三角形の外接円の中心と補間点・母点の二等分線上の点を結ぶ多角形として三角形ごとに足し合わせます.<br>
+ * 構築後は変更されないため複数のスレッドから同時に参照できます. 作業領域は{@link Query}に保持し、
+ * スレッドごとに{@link #newQuery()}で作成して使い回します
+ * @author Seo-4d696b75
+ * @version 2026/10/19
+ */
+public class NaturalNeighborInterpolation {
+
+    /**
+     * 母点の値を提供します
+     */
+    public interface ValueProvider {
+
+        /**
+         * @param point 分割の母点
+         * @return 母点の値
+         */
+        double getValue(Point point);
+    }
+
+    /**
+     * @param diagram {@link DelaunayDiagram#split(Rectangle)}などで解決済みの分割
+     * @param provider 母点の値の提供元 構築時に一度のみ参照します
+     */
+    public NaturalNeighborInterpolation(DelaunayDiagram diagram, ValueProvider provider){
+        search = new NeighborSearch(diagram);
+        final int size = search.size();
+        Map<Point, Integer> index = new HashMap<>();
+        x = new double[size];
+        y = new double[size];
+        values = new double[size];
+        for ( int i=0 ; i<size ; i++ ){
+            Point point = search.getPoint(i);
+            index.put(point, i);
+            x[i] = point.getX();
+            y[i] = point.getY();
+            values[i] = provider.getValue(point);
+        }
+        vertexTriangle = new int[size];
+        Arrays.fill(vertexTriangle, -1);
+        int count = 0;
+        int[] list = new int[diagram.getTriangles().size() * 3];
+        for ( Triangle triangle : diagram.getTriangles() ){
+            Integer a = index.get(triangle.a);
+            Integer b = index.get(triangle.b);
+            Integer c = index.get(triangle.c);
+            if ( a == null || b == null || c == null ) continue;
+            // 頂点を左回りに揃える
+            if ( (x[b] - x[a]) * (y[c] - y[a]) - (y[b] - y[a]) * (x[c] - x[a]) < 0 ){
+                Integer temp = b;
+                b = c;
+                c = temp;
+            }
+            list[count * 3] = a;
+            list[count * 3 + 1] = b;
+            list[count * 3 + 2] = c;
+            count++;
+        }
+        vertex = Arrays.copyOf(list, count * 3);
+        adjacent = new int[count * 3];
+        Arrays.fill(adjacent, -1);
+        centerX = new double[count];
+        centerY = new double[count];
+        radius = new double[count];
+        Map<Long, Integer> edges = new HashMap<>();
+        for ( int t=0 ; t<count ; t++ ){
+            for ( int k=0 ; k<3 ; k++ ){
+                int a = vertex[t * 3 + k];
+                int b = vertex[t * 3 + (k + 1) % 3];
+                vertexTriangle[a] = t;
+                long key = a < b ? (long)a << 32 | b : (long)b << 32 | a;
+                Integer other = edges.remove(key);
+                if ( other == null ){
+                    edges.put(key, t * 3 + k);
+                }else{
+                    adjacent[t * 3 + k] = other / 3;
+                    adjacent[other] = t;
+                }
+            }
+            int a = vertex[t * 3];
+            int b = vertex[t * 3 + 1];
+            int c = vertex[t * 3 + 2];
+            double bx = x[b] - x[a];
+            double by = y[b] - y[a];
+            double cx = x[c] - x[a];
+            double cy = y[c] - y[a];
+            double d = 2 * (bx * cy - by * cx);
+            double b2 = bx * bx + by * by;
+            double c2 = cx * cx + cy * cy;
+            double ux = (cy * b2 - by * c2) / d;
+            double uy = (bx * c2 - cx * b2) / d;
+            centerX[t] = x[a] + ux;
+            centerY[t] = y[a] + uy;
+            radius[t] = ux * ux + uy * uy;
+        }
+    }
+
+    /**
+     * 一つのスレッドが一度に補間する点の数
+     */
+    private static final int CHUNK_SIZE = 256;
+
+    private final NeighborSearch search;
+    private final double[] x, y, values;
+    /**
+     * t番目の三角形の頂点は左回りに{@code vertex[3t], vertex[3t+1], vertex[3t+2]}
+     */
+    private final int[] vertex;
+    /**
+     * t番目の三角形の辺{@code (vertex[3t+k], vertex[3t+(k+1)%3])}を共有する三角形 凸包上の辺では-1
+     */
+    private final int[] adjacent;
+    /**
+     * 各母点を頂点にもつ三角形のひとつ
+     */
+    private final int[] vertexTriangle;
+    /**
+     * 三角形の外接円の中心と半径の二乗
+     */
+    private final double[] centerX, centerY, radius;
+
+    /**
+     * @return 母点の数
+     */
+    public int size(){
+        return x.length;
+    }
+
+    /**
+     * @param index {@link Query#getNeighbor(int)}で得た添字
+     */
+    public Point getPoint(int index){
+        return search.getPoint(index);
+    }
+
+    /**
+     * 補間の作業領域を作成します. 作成した{@link Query}は一つのスレッドのみから使用してください
+     */
+    public Query newQuery(){
+        return new Query();
+    }
+
+    /**
+     * 複数の点を補間します
+     * @param px 補間する点のｘ座標
+     * @param py 補間する点のｙ座標
+     * @param threads 計算に用いるスレッドの数
+     * @return 補間した値 凸包の外側の点はNaN
+     * @throws RuntimeException いずれかのスレッドで発生した最初の例外
+     */
+    public double[] interpolate(final double[] px, final double[] py, int threads){
+        final double[] result = new double[px.length];
+        // MultiThreadTask は例外を捕捉して処理を続けるため、ここで記録して呼び出し元へ投げる
+        final AtomicReference<RuntimeException> failure = new AtomicReference<>();
+        MultiThreadTask<Integer, Void> task = new MultiThreadTask<Integer, Void>() {
+            @Override
+            protected ProcessThread getProcessThread() {
+                return new ProcessThread() {
+
+                    private final Query query = newQuery();
+
+                    @Override
+                    protected Void process(Integer start) {
+                        if ( failure.get() != null ) return null;
+                        try{
+                            int end = Math.min(start + CHUNK_SIZE, px.length);
+                            for ( int i=start ; i<end ; i++ ){
+                                result[i] = query.interpolate(px[i], py[i]);
+                            }
+                        }catch (RuntimeException e){
+                            failure.compareAndSet(null, e);
+                        }
+                        return null;
+                    }
+                };
+            }
+        };
+        task.start(Math.max(threads, 1));
+        for ( int i=0 ; i<px.length ; i+=CHUNK_SIZE ){
+            task.enqueue(i);
+        }
+        task.waitForCompletion();
+        RuntimeException e = failure.get();
+        if ( e != null ) throw e;
+        return result;
+    }
+
+    /**
+     * 矩形上の格子の各画素の中心で補間します. 各行を左から順に補間し、
+     * 隣の画素の中心を含んでいた三角形から辿って次の画素の中心を含む三角形を探します.
+     * 隣の画素の空洞そのものは再利用せず、空洞は画素ごとに含む三角形から辿って集め直します.
+     * 空洞を集める手順は空洞の三角形の数に比例し、再利用しても空洞の境界の三角形の外接円は画素ごとに判定し直す必要があるためです
+     * @param border 補間する矩形
+     * @param width 横方向の画素の数
+     * @param height 縦方向の画素の数
+     * @param threads 計算に用いるスレッドの数
+     * @return 画素ごとの値を下の行から順に並べた配列 凸包の外側の画素はNaN
+     * @throws RuntimeException いずれかのスレッドで発生した最初の例外
+     */
+    public double[] interpolate(final Rectangle border, final int width, final int height, int threads){
+        final double[] result = new double[width * height];
+        final double pixelWidth = (border.right - border.left) / width;
+        final double pixelHeight = (border.top - border.bottom) / height;
+        // MultiThreadTask は例外を捕捉して処理を続けるため、ここで記録して呼び出し元へ投げる
+        final AtomicReference<RuntimeException> failure = new AtomicReference<>();
+        MultiThreadTask<Integer, Void> task = new MultiThreadTask<Integer, Void>() {
+            @Override
+            protected ProcessThread getProcessThread() {
+                return new ProcessThread() {
+
+                    private final Query query = newQuery();
+
+                    @Override
+                    protected Void process(Integer row) {
+                        if ( failure.get() != null ) return null;
+                        try{
+                            double py = border.bottom + pixelHeight * (row + 0.5);
+                            for ( int col=0 ; col<width ; col++ ){
+                                double px = border.left + pixelWidth * (col + 0.5);
+                                result[row * width + col] = query.interpolate(px, py);
+                            }
+                        }catch (RuntimeException e){
+                            failure.compareAndSet(null, e);
+                        }
+                        return null;
+                    }
+                };
+            }
+        };
+        task.start(Math.max(threads, 1));
+        for ( int row=0 ; row<height ; row++ ){
+            task.enqueue(row);
+        }
+        task.waitForCompletion();
+        RuntimeException e = failure.get();
+        if ( e != null ) throw e;
+        return result;
+    }
+
+    /**
+     * 補間の作業領域と直前の補間に用いた自然近傍の母点と重みを保持します.<br>
+     * 直前の補間点を含んでいた三角形から辿って次の補間点を含む三角形を探すため、
+     * 近い点を続けて補間すると探索の手順が少なく済みます
+     */
+    public class Query {
+
+        private Query(){
+            triangleMark = new int[adjacent.length / 3];
+            vertexMark = new int[x.length];
+            weight = new double[x.length];
+            stack = new int[16];
+            cavity = new int[16];
+            neighbors = new int[16];
+            nearest = search.newQuery();
+        }
+
+        private final NeighborSearch.Query nearest;
+
+        private final int[] triangleMark, vertexMark;
+        private final double[] weight;
+        private int stamp;
+        private int[] stack, cavity, neighbors;
+        private int cavitySize, neighborSize;
+        private double total;
+        /**
+         * 直前に補間点を含んでいた三角形
+         */
+        private int last = -1;
+
+        /**
+         * 点を補間します
+         * @return 補間した値 凸包の外側の点はNaN
+         */
+        public double interpolate(double px, double py){
+            if ( !solve(px, py) ) return Double.NaN;
+            double sum = 0;
+            for ( int i=0 ; i<neighborSize ; i++ ){
+                int n = neighbors[i];
+                sum += values[n] * weight[n];
+            }
+            return sum / total;
+        }
+
+        /**
+         * @return 直前に補間した点の自然近傍の母点の数 凸包の外側の点では0
+         */
+        public int getNeighborSize(){
+            return neighborSize;
+        }
+
+        /**
+         * @param i [0, 自然近傍の母点の数)
+         * @return 母点の添字 {@link NaturalNeighborInterpolation#getPoint(int)}で点を取得できます
+         */
+        public int getNeighbor(int i){
+            if ( i >= neighborSize ) throw new IndexOutOfBoundsException();
+            return neighbors[i];
+        }
+
+        /**
+         * @param i [0, 自然近傍の母点の数)
+         * @return 正規化した重み 総和は１
+         */
+        public double getWeight(int i){
+            if ( i >= neighborSize ) throw new IndexOutOfBoundsException();
+            return weight[neighbors[i]] / total;
+        }
+
+        /**
+         * 自然近傍の母点と重みを求めます
+         * @return 凸包の外側の点の場合はfalse
+         */
+        private boolean solve(double px, double py){
+            neighborSize = 0;
+            if ( vertex.length == 0 ) return false;
+            int start = findTriangle(px, py);
+            if ( start < 0 ) return false;
+            last = start;
+            nextStamp();
+            // 母点と一致する場合はその母点の値
+            for ( int k=0 ; k<3 ; k++ ){
+                int v = vertex[start * 3 + k];
+                if ( x[v] == px && y[v] == py ){
+                    addNeighbor(v);
+                    weight[v] = 1;
+                    total = 1;
+                    return true;
+                }
+            }
+            collectCavity(start, px, py);
+            total = 0;
+            for ( int i=0 ; i<cavitySize ; i++ ){
+                int t = cavity[i];
+                // 補間点を原点とする座標で計算する
+                double ox = centerX[t] - px;
+                double oy = centerY[t] - py;
+                for ( int k=0 ; k<3 ; k++ ){
+                    int a = vertex[t * 3 + k];
+                    int b = vertex[t * 3 + (k + 1) % 3];
+                    int c = vertex[t * 3 + (k + 2) % 3];
+                    double ax = x[a] - px;
+                    double ay = y[a] - py;
+                    // 補間点と母点の二等分線上の点を基準に面積を足し合わせると、二等分線上の辺の寄与は０になる
+                    double rx = ax / 2;
+                    double ry = ay / 2;
+                    double area = 0;
+                    int before = adjacent[t * 3 + k];
+                    if ( before >= 0 && triangleMark[before] == stamp ){
+                        area += getArea(rx, ry, centerX[before] - px, centerY[before] - py, ox, oy);
+                    }else{
+                        double[] m = getCenter(ax, ay, x[b] - px, y[b] - py);
+                        area += getArea(rx, ry, m[0], m[1], ox, oy);
+                    }
+                    int after = adjacent[t * 3 + (k + 2) % 3];
+                    if ( after < 0 || triangleMark[after] != stamp ){
+                        double[] m = getCenter(ax, ay, x[c] - px, y[c] - py);
+                        area += getArea(rx, ry, ox, oy, m[0], m[1]);
+                    }
+                    if ( vertexMark[a] != stamp ){
+                        addNeighbor(a);
+                        weight[a] = 0;
+                    }
+                    weight[a] += area;
+                    total += area;
+                }
+            }
+            // 凸包の境界上の点では補間点の領域が有界でない
+            return total > 0 && total < Double.POSITIVE_INFINITY;
+        }
+
+        private final double[] center = new double[2];
+
+        /**
+         * 原点と二点の成す三角形の外接円の中心
+         */
+        private double[] getCenter(double ax, double ay, double bx, double by){
+            double d = 2 * (ax * by - ay * bx);
+            double a2 = ax * ax + ay * ay;
+            double b2 = bx * bx + by * by;
+            center[0] = (by * a2 - ay * b2) / d;
+            center[1] = (ax * b2 - bx * a2) / d;
+            return center;
+        }
+
+        private double getArea(double ax, double ay, double bx, double by, double cx, double cy){
+            return ((bx - ax) * (cy - ay) - (by - ay) * (cx - ax)) / 2;
+        }
+
+        /**
+         * 外接円の内部に補間点を含む三角形を補間点を含む三角形から辿って集めます
+         */
+        private void collectCavity(int start, double px, double py){
+            cavitySize = 0;
+            int top = 0;
+            triangleMark[start] = stamp;
+            stack[top++] = start;
+            while ( top > 0 ){
+                int t = stack[--top];
+                if ( cavitySize == cavity.length ) cavity = Arrays.copyOf(cavity, cavitySize * 2);
+                cavity[cavitySize++] = t;
+                for ( int k=0 ; k<3 ; k++ ){
+                    int next = adjacent[t * 3 + k];
+                    if ( next < 0 || triangleMark[next] == stamp ) continue;
+                    double dx = centerX[next] - px;
+                    double dy = centerY[next] - py;
+                    if ( dx * dx + dy * dy >= radius[next] ) continue;
+                    triangleMark[next] = stamp;
+                    if ( top == stack.length ) stack = Arrays.copyOf(stack, top * 2);
+                    stack[top++] = next;
+                }
+            }
+        }
+
+        /**
+         * 補間点を含む三角形を探します. 補間点が直前の三角形の近くにあればそこから、
+         * そうでなければ最も近い母点を頂点にもつ三角形から辿ります
+         * @return 凸包の外側の場合は-1
+         */
+        private int findTriangle(double px, double py){
+            int t = last;
+            if ( t >= 0 ){
+                double dx = centerX[t] - px;
+                double dy = centerY[t] - py;
+                if ( dx * dx + dy * dy > radius[t] * 4 ) t = -1;
+            }
+            if ( t < 0 ){
+                t = vertexTriangle[nearest.nearest(px, py)];
+            }
+            final int limit = adjacent.length;
+            for ( int step=0 ; step<limit ; step++ ){
+                int next = -2;
+                for ( int k=0 ; k<3 ; k++ ){
+                    int a = vertex[t * 3 + k];
+                    int b = vertex[t * 3 + (k + 1) % 3];
+                    if ( (x[b] - x[a]) * (py - y[a]) - (y[b] - y[a]) * (px - x[a]) < 0 ){
+                        next = adjacent[t * 3 + k];
+                        break;
+                    }
+                }
+                if ( next == -2 ) return t;
+                if ( next < 0 ) return -1;
+                t = next;
+            }
+            return -1;
+        }
+
+        private void addNeighbor(int v){
+            vertexMark[v] = stamp;
+            if ( neighborSize == neighbors.length ) neighbors = Arrays.copyOf(neighbors, neighborSize * 2);
+            neighbors[neighborSize++] = v;
+        }
+
+        private void nextStamp(){
+            if ( ++stamp == Integer.MAX_VALUE ){
+                Arrays.fill(triangleMark, 0);
+                Arrays.fill(vertexMark, 0);
+                stamp = 1;
+            }
+        }
+    }
+
+}
@@ -0,0 +1,410 @@
+package jp.seo.android.diagram;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Queue;
+
+/**
+ * 解決済みのドロネー分割の隣接関係を辿り、任意の点の周囲にある母点を探索します.<br>
+ * 最近傍の母点は隣接する母点のうち探索点により近いものへ移動を繰り返す貪欲な探索で求まり、
+ * 探索点を中心とする任意の円の内部にある母点はドロネー分割上で連結であるため、
+ * 最近傍の母点から近い順に隣接する母点を展開すれば、近傍の母点を距離の昇順に列挙できます.
+ * 探索の開始点は粗い格子で選ぶため、探索の計算量は点の総数ではなく結果の点の数に依存します.<br>
+ * 構築後は変更されないため複数のスレッドから同時に参照できます. 探索の作業領域は{@link Query}に保持し、
+ * スレッドごとに{@link #newQuery()}で作成して使い回します
+ * @author Seo-4d696b75
+ * @version 2026/10/19
+ */
+public class NeighborSearch {
+
+    /**
+     * @param diagram {@link DelaunayDiagram#split(Rectangle)}などで解決済みの分割
+     */
+    public NeighborSearch(DelaunayDiagram diagram){
+        Collection<Edge> edges = diagram.getEdges();
+        if ( edges == null ){
+            throw new IllegalStateException("not solved yet");
+        }
+        Map<Point, Integer> index = new HashMap<>();
+        for ( Edge edge : edges ){
+            if ( !index.containsKey(edge.a) ) index.put(edge.a, index.size());
+            if ( !index.containsKey(edge.b) ) index.put(edge.b, index.size());
+        }
+        final int size = index.size();
+        points = new Point[size];
+        x = new double[size];
+        y = new double[size];
+        for ( Map.Entry<Point, Integer> entry : index.entrySet() ){
+            int i = entry.getValue();
+            points[i] = entry.getKey();
+            x[i] = entry.getKey().getX();
+            y[i] = entry.getKey().getY();
+        }
+        offset = new int[size + 1];
+        neighbor = new int[edges.size() * 2];
+        for ( Edge edge : edges ){
+            offset[index.get(edge.a) + 1]++;
+            offset[index.get(edge.b) + 1]++;
+        }
+        for ( int i=0 ; i<size ; i++ ){
+            offset[i+1] += offset[i];
+        }
+        int[] position = Arrays.copyOf(offset, size);
+        for ( Edge edge : edges ){
+            int a = index.get(edge.a);
+            int b = index.get(edge.b);
+            neighbor[position[a]++] = b;
+            neighbor[position[b]++] = a;
+        }
+        initGrid();
+    }
+
+    private final Point[] points;
+    private final double[] x, y;
+    /**
+     * i番目の点に隣接する点の添字は{@code neighbor[offset[i]]~neighbor[offset[i+1]-1]}
+     */
+    private final int[] offset, neighbor;
+
+    /**
+     * 探索の開始点を選ぶ格子 各区画に含まれる、または近くの点の添字
+     */
+    private int[] grid;
+    private int gridWidth, gridHeight;
+    private double gridLeft, gridBottom, cellWidth, cellHeight;
+
+    private void initGrid(){
+        final int size = points.length;
+        double left = Double.MAX_VALUE;
+        double right = -Double.MAX_VALUE;
+        double bottom = Double.MAX_VALUE;
+        double top = -Double.MAX_VALUE;
+        for ( int i=0 ; i<size ; i++ ){
+            left = Math.min(left, x[i]);
+            right = Math.max(right, x[i]);
+            bottom = Math.min(bottom, y[i]);
+            top = Math.max(top, y[i]);
+        }
+        // 区画あたり平均２点程度になるよう分割する
+        final int length = Math.max(1, (int)Math.sqrt(size / 2.0));
+        gridWidth = length;
+        gridHeight = length;
+        gridLeft = left;
+        gridBottom = bottom;
+        cellWidth = Math.max(right - left, Double.MIN_VALUE) / length;
+        cellHeight = Math.max(top - bottom, Double.MIN_VALUE) / length;
+        grid = new int[gridWidth * gridHeight];
+        Arrays.fill(grid, -1);
+        Queue<Integer> queue = new ArrayDeque<>();
+        for ( int i=0 ; i<size ; i++ ){
+            int cell = getCell(x[i], y[i]);
+            if ( grid[cell] < 0 ){
+                grid[cell] = i;
+                queue.offer(cell);
+            }
+        }
+        // 点を含まない区画には近くの区画の点を割り当てる
+        while ( !queue.isEmpty() ){
+            int cell = queue.poll();
+            int cx = cell % gridWidth;
+            int cy = cell / gridWidth;
+            if ( cx > 0 ) fillCell(queue, cell - 1, grid[cell]);
+            if ( cx < gridWidth - 1 ) fillCell(queue, cell + 1, grid[cell]);
+            if ( cy > 0 ) fillCell(queue, cell - gridWidth, grid[cell]);
+            if ( cy < gridHeight - 1 ) fillCell(queue, cell + gridWidth, grid[cell]);
+        }
+    }
+
+    private void fillCell(Queue<Integer> queue, int cell, int point){
+        if ( grid[cell] < 0 ){
+            grid[cell] = point;
+            queue.offer(cell);
+        }
+    }
+
+    private int getCell(double px, double py){
+        int cx = (int)Math.floor((px - gridLeft) / cellWidth);
+        int cy = (int)Math.floor((py - gridBottom) / cellHeight);
+        cx = Math.max(0, Math.min(gridWidth - 1, cx));
+        cy = Math.max(0, Math.min(gridHeight - 1, cy));
+        return cy * gridWidth + cx;
+    }
+
+    /**
+     * @return 母点の数
+     */
+    public int size(){
+        return points.length;
+    }
+
+    /**
+     * @param index 探索結果の添字
+     */
+    public Point getPoint(int index){
+        return points[index];
+    }
+
+    /**
+     * 探索の作業領域を作成します. 作成した{@link Query}は一つのスレッドのみから使用してください
+     */
+    public Query newQuery(){
+        return new Query();
+    }
+
+    /**
+     * 探索の作業領域と直前の探索結果を保持します.<br>
+     * 探索の度に配列を確保しないよう、訪問済みの印は探索ごとに更新する番号で区別し、
+     * 優先度付きキューと結果の配列は必要に応じて拡張して使い回します
+     */
+    public class Query {
+
+        private Query(){
+            mark = new int[points.length];
+            heapIndex = new int[16];
+            heapKey = new double[16];
+            resultIndex = new int[16];
+            resultDistance = new double[16];
+        }
+
+        private final int[] mark;
+        private int stamp;
+        private int[] heapIndex;
+        private double[] heapKey;
+        private int heapSize;
+        private int[] resultIndex;
+        private double[] resultDistance;
+        private int resultSize;
+
+        /**
+         * 最も近い母点を探します
+         * @return 母点の添字
+         */
+        public int nearest(double px, double py){
+            if ( points.length == 0 ) return -1;
+            return nearestFrom(px, py, grid[getCell(px, py)]);
+        }
+
+        /**
+         * 指定した母点から辿り、最も近い母点を探します. 探索点の近くの母点から辿れば少ない手順で見つかります
+         * @param start 辿り始める母点の添字
+         * @return 母点の添字
+         */
+        public int nearestFrom(double px, double py, int start){
+            int current = start;
+            double min = distance(current, px, py);
+            while ( true ){
+                int best = current;
+                final int end = offset[current+1];
+                for ( int k=offset[current] ; k<end ; k++ ){
+                    int next = neighbor[k];
+                    double d = distance(next, px, py);
+                    if ( d < min ){
+                        min = d;
+                        best = next;
+                    }
+                }
+                if ( best == current ) return current;
+                current = best;
+            }
+        }
+
+        /**
+         * 水平線上に等間隔に並ぶ点について、最も近い母点を左から順に求めます.
+         * 現在の母点の領域から右へ出る位置は、ｘ座標が大きい隣接する点との二等分線と水平線の交点のうち最も左のものであり、
+         * その隣接する点の領域へ移ります. 移る先の母点のｘ座標は単調に増えるため、各点について探索し直す必要はありません
+         * @param py 水平線のｙ座標
+         * @param left 最初の点のｘ座標
+         * @param step 点の間隔
+         * @param count 点の数
+         * @param labels 母点の添字を書き込む配列
+         * @param position 書き込みを始める位置
+         */
+        void scanRow(double py, double left, double step, int count, int[] labels, int position){
+            if ( count <= 0 ) return;
+            int current = nearest(left, py);
+            double exit = Double.NaN;
+            int next = -1;
+            for ( int j=0 ; j<count ; j++ ){
+                final double px = left + step * j;
+                while ( true ){
+                    if ( exit != exit ){
+                        // 領域から出る位置を求める
+                        exit = Double.POSITIVE_INFINITY;
+                        next = -1;
+                        final double sx = x[current];
+                        final double sy = y[current];
+                        final double s2 = sx * sx + sy * sy;
+                        for ( int k=offset[current] ; k<offset[current+1] ; k++ ){
+                            int n = neighbor[k];
+                            double dx = x[n] - sx;
+                            if ( dx <= 0 ) continue;
+                            double t = (x[n] * x[n] + y[n] * y[n] - s2 - 2 * py * (y[n] - sy)) / (2 * dx);
+                            if ( t < exit ){
+                                exit = t;
+                                next = n;
+                            }
+                        }
+                    }
+                    if ( next < 0 || px <= exit ) break;
+                    current = next;
+                    exit = Double.NaN;
+                }
+                labels[position + j] = current;
+            }
+        }
+
+        /**
+         * 近い順に指定した数の母点を探します. 結果は{@link #getResult(int)}で参照します
+         * @param k 探す母点の数
+         * @return 見つかった母点の数
+         */
+        public int nearest(double px, double py, int k){
+            resultSize = 0;
+            if ( k <= 0 || points.length == 0 ) return 0;
+            nextStamp();
+            heapSize = 0;
+            int start = nearest(px, py);
+            mark[start] = stamp;
+            push(start, distance(start, px, py));
+            while ( heapSize > 0 && resultSize < k ){
+                double d = heapKey[0];
+                int current = pop();
+                addResult(current, d);
+                for ( int i=offset[current] ; i<offset[current+1] ; i++ ){
+                    int next = neighbor[i];
+                    if ( mark[next] == stamp ) continue;
+                    mark[next] = stamp;
+                    push(next, distance(next, px, py));
+                }
+            }
+            return resultSize;
+        }
+
+        /**
+         * 指定した距離以内の母点を全て探します. 結果は{@link #getResult(int)}で参照し、距離の順には並びません
+         * @param radius 探索点からの距離
+         * @return 見つかった母点の数
+         */
+        public int within(double px, double py, double radius){
+            resultSize = 0;
+            if ( points.length == 0 ) return 0;
+            nextStamp();
+            final double limit = radius * radius;
+            int start = nearest(px, py);
+            double d = distance(start, px, py);
+            if ( d > limit ) return 0;
+            // 円の内部の母点は連結しているので円の外側の点は辿らない
+            heapSize = 0;
+            mark[start] = stamp;
+            push(start, d);
+            while ( heapSize > 0 ){
+                heapSize--;
+                int current = heapIndex[heapSize];
+                addResult(current, heapKey[heapSize]);
+                for ( int i=offset[current] ; i<offset[current+1] ; i++ ){
+                    int next = neighbor[i];
+                    if ( mark[next] == stamp ) continue;
+                    mark[next] = stamp;
+                    double nd = distance(next, px, py);
+                    if ( nd <= limit ){
+                        ensureHeap();
+                        heapIndex[heapSize] = next;
+                        heapKey[heapSize++] = nd;
+                    }
+                }
+            }
+            return resultSize;
+        }
+
+        /**
+         * 直前の探索結果を参照します
+         * @param i [0, 見つかった母点の数)
+         * @return 母点の添字 {@link NeighborSearch#getPoint(int)}で点を取得できます
+         */
+        public int getResult(int i){
+            if ( i >= resultSize ) throw new IndexOutOfBoundsException();
+            return resultIndex[i];
+        }
+
+        /**
+         * @return 直前の探索結果の探索点からの距離
+         */
+        public double getDistance(int i){
+            if ( i >= resultSize ) throw new IndexOutOfBoundsException();
+            return Math.sqrt(resultDistance[i]);
+        }
+
+        public int getResultSize(){
+            return resultSize;
+        }
+
+        private void nextStamp(){
+            if ( ++stamp == Integer.MAX_VALUE ){
+                Arrays.fill(mark, 0);
+                stamp = 1;
+            }
+        }
+
+        private void addResult(int index, double d){
+            if ( resultSize == resultIndex.length ){
+                resultIndex = Arrays.copyOf(resultIndex, resultSize * 2);
+                resultDistance = Arrays.copyOf(resultDistance, resultSize * 2);
+            }
+            resultIndex[resultSize] = index;
+            resultDistance[resultSize++] = d;
+        }
+
+        private void ensureHeap(){
+            if ( heapSize == heapIndex.length ){
+                heapIndex = Arrays.copyOf(heapIndex, heapSize * 2);
+                heapKey = Arrays.copyOf(heapKey, heapSize * 2);
+            }
+        }
+
+        private void push(int index, double key){
+            ensureHeap();
+            int i = heapSize++;
+            while ( i > 0 ){
+                int parent = (i - 1) >>> 1;
+                if ( heapKey[parent] <= key ) break;
+                heapIndex[i] = heapIndex[parent];
+                heapKey[i] = heapKey[parent];
+                i = parent;
+            }
+            heapIndex[i] = index;
+            heapKey[i] = key;
+        }
+
+        private int pop(){
+            int top = heapIndex[0];
+            int lastIndex = heapIndex[--heapSize];
+            double lastKey = heapKey[heapSize];
+            int i = 0;
+            while ( true ){
+                int child = 2 * i + 1;
+                if ( child >= heapSize ) break;
+                if ( child + 1 < heapSize && heapKey[child+1] < heapKey[child] ) child++;
+                if ( heapKey[child] >= lastKey ) break;
+                heapIndex[i] = heapIndex[child];
+                heapKey[i] = heapKey[child];
+                i = child;
+            }
+            heapIndex[i] = lastIndex;
+            heapKey[i] = lastKey;
+            return top;
+        }
+
+        /**
+         * @return 距離の二乗
+         */
+        private double distance(int index, double px, double py){
+            double dx = x[index] - px;
+            double dy = y[index] - py;
+            return dx * dx + dy * dy;
+        }
+    }
+
+}
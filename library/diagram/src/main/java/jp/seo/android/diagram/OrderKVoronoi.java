@@ -0,0 +1,616 @@
+package jp.seo.android.diagram;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * 平面全体のk次ボロノイ図を求め、各領域とその領域で最も近いk個の母点の組を表にまとめます.<br>
+ * {@link HighVoronoi}が一つの母点の周囲の１~k次の領域のみを求めるのに対し、矩形内の全てのk次の領域を求めます.
+ * 1次の領域は{@link VoronoiDiagram}で求め、以降は次数を一つずつ上げます.
+ * 母点の組Sのi次の領域の内部では、Sの外側で最も近い母点ごとに領域を分割すると各部分がi+1次の領域の一部となり、
+ * 同じ組の部分を合わせた凸包がi+1次の領域です. 最も近い母点の候補は、円の内部の母点がドロネー分割上で連結であることから
+ * Sのいずれかの母点に隣接する母点に限られます. 各次数の領域の計算は{@link MultiThreadTask}により複数のスレッドで分担します.<br>
+ * 結果は母点の添字の組を辞書順に並べた表と、各領域の頂点の座標を連結した配列で保持します.
+ * 構築後は変更されないため複数のスレッドから同時に参照できます
+ * @author Seo-4d696b75
+ * @version 2026/10/19
+ */
+public class OrderKVoronoi {
+
+    /**
+     * @param diagram {@link DelaunayDiagram#split(Rectangle)}などで解決済みの分割
+     * @param border 領域を切り取る矩形
+     * @param level 次数 [1, 母点の数)
+     * @param threads 計算に用いるスレッドの数
+     */
+    public OrderKVoronoi(DelaunayDiagram diagram, Rectangle border, int level, int threads){
+        VoronoiDiagram voronoi = new VoronoiDiagram(diagram, threads);
+        final int size = voronoi.size();
+        if ( level < 1 || level >= Math.max(size, 2) ){
+            throw new IllegalArgumentException("level out of range: " + level);
+        }
+        this.level = level;
+        this.threads = Math.max(threads, 1);
+        this.border = border;
+        double area = (border.right - border.left) * (border.top - border.bottom);
+        this.epsilon = area * 1e-12;
+        double width = border.right - border.left;
+        double height = border.top - border.bottom;
+        this.tolerance = (width * width + height * height) * 1e-18;
+        points = new Point[size];
+        x = new double[size];
+        y = new double[size];
+        Map<Point, Integer> index = new HashMap<>();
+        for ( int i=0 ; i<size ; i++ ){
+            points[i] = voronoi.getPoint(i);
+            x[i] = points[i].getX();
+            y[i] = points[i].getY();
+            index.put(points[i], i);
+        }
+        offset = new int[size + 1];
+        neighbor = new int[diagram.getEdges().size() * 2];
+        for ( Edge edge : diagram.getEdges() ){
+            offset[index.get(edge.a) + 1]++;
+            offset[index.get(edge.b) + 1]++;
+        }
+        for ( int i=0 ; i<size ; i++ ){
+            offset[i+1] += offset[i];
+        }
+        int[] position = Arrays.copyOf(offset, size);
+        for ( Edge edge : diagram.getEdges() ){
+            int a = index.get(edge.a);
+            int b = index.get(edge.b);
+            neighbor[position[a]++] = b;
+            neighbor[position[b]++] = a;
+        }
+        search = new NeighborSearch(diagram);
+        searchIndex = new int[search.size()];
+        for ( int i=0 ; i<searchIndex.length ; i++ ){
+            searchIndex[i] = index.get(search.getPoint(i));
+        }
+
+        Polygon[] first = voronoi.getCells(border);
+        List<Group> groups = new ArrayList<>();
+        for ( int i=0 ; i<size ; i++ ){
+            if ( first[i] == null ) continue;
+            Group group = new Group(new int[]{i});
+            double[] coordinates = new double[first[i].size() * 2];
+            int j = 0;
+            for ( Point point : first[i] ){
+                coordinates[j++] = point.getX();
+                coordinates[j++] = point.getY();
+            }
+            group.pieces.add(coordinates);
+            groups.add(group);
+        }
+        for ( int i=1 ; i<level ; i++ ){
+            groups = nextLevel(groups);
+        }
+        List<Cell> cells = toCells(groups);
+        Collections.sort(cells, new Comparator<Cell>() {
+            @Override
+            public int compare(Cell o1, Cell o2) {
+                return compareLabel(o1.label, 0, o2.label);
+            }
+        });
+        final int count = cells.size();
+        labels = new int[count * level];
+        vertexOffset = new int[count + 1];
+        for ( int i=0 ; i<count ; i++ ){
+            Cell cell = cells.get(i);
+            System.arraycopy(cell.label, 0, labels, i * level, level);
+            vertexOffset[i+1] = vertexOffset[i] + cell.coordinates.length / 2;
+        }
+        vertexX = new double[vertexOffset[count]];
+        vertexY = new double[vertexOffset[count]];
+        for ( int i=0 ; i<count ; i++ ){
+            double[] coordinates = cells.get(i).coordinates;
+            for ( int j=0 ; j<coordinates.length / 2 ; j++ ){
+                vertexX[vertexOffset[i] + j] = coordinates[j * 2];
+                vertexY[vertexOffset[i] + j] = coordinates[j * 2 + 1];
+            }
+        }
+    }
+
+    /**
+     * 一つのスレッドが一度に計算する領域の数
+     */
+    private static final int CHUNK_SIZE = 64;
+
+    private final int level;
+    private final int threads;
+    private final Rectangle border;
+    /**
+     * 面積が０とみなす閾値
+     */
+    private final double epsilon;
+    /**
+     * 同一とみなす頂点間の距離の二乗
+     */
+    private final double tolerance;
+    private final Point[] points;
+    private final double[] x, y;
+    /**
+     * i番目の点に隣接する点の添字は{@code neighbor[offset[i]]~neighbor[offset[i+1]-1]}
+     */
+    private final int[] offset, neighbor;
+    private final NeighborSearch search;
+    /**
+     * {@link #search}の添字から母点の添字への対応
+     */
+    private final int[] searchIndex;
+
+    /**
+     * i番目の領域の母点の組は{@code labels[i*level]~labels[(i+1)*level-1]} 昇順に並ぶ
+     */
+    private final int[] labels;
+    /**
+     * i番目の領域の頂点は左回りに{@code vertexX[vertexOffset[i]]~vertexX[vertexOffset[i+1]-1]}
+     */
+    private final int[] vertexOffset;
+    private final double[] vertexX, vertexY;
+
+    /**
+     * 同じ母点の組をもつ領域の部分
+     */
+    private static class Group {
+
+        private Group(int[] label){
+            this.label = label;
+            this.pieces = new ArrayList<>();
+        }
+
+        private final int[] label;
+        /**
+         * 各部分の頂点の座標 {@code [x0, y0, x1, y1, ...]}
+         */
+        private final List<double[]> pieces;
+    }
+
+    private static class Cell {
+
+        private Cell(int[] label, double[] coordinates){
+            this.label = label;
+            this.coordinates = coordinates;
+        }
+
+        private final int[] label;
+        private final double[] coordinates;
+    }
+
+    private static class LabelKey {
+
+        private LabelKey(int[] label){
+            this.label = label;
+            this.hash = Arrays.hashCode(label);
+        }
+
+        private final int[] label;
+        private final int hash;
+
+        @Override
+        public boolean equals(Object other){
+            return other instanceof LabelKey && Arrays.equals(label, ((LabelKey)other).label);
+        }
+
+        @Override
+        public int hashCode(){
+            return hash;
+        }
+    }
+
+    /**
+     * いずれかのスレッドで例外が発生した場合は残りの領域を分割せず、最初の例外を投げます
+     */
+    private List<Group> nextLevel(final List<Group> groups){
+        final Map<LabelKey, Group> next = new HashMap<>();
+        // MultiThreadTask は例外を捕捉して処理を続けるため、ここで記録して呼び出し元へ投げる
+        final AtomicReference<RuntimeException> failure = new AtomicReference<>();
+        MultiThreadTask<Integer, List<Group>> task = new MultiThreadTask<Integer, List<Group>>() {
+            @Override
+            protected ProcessThread getProcessThread() {
+                return new ProcessThread() {
+
+                    private final Splitter splitter = new Splitter();
+
+                    @Override
+                    protected List<Group> process(Integer start) {
+                        if ( failure.get() != null ) return null;
+                        try{
+                            List<Group> list = new ArrayList<>();
+                            int end = Math.min(start + CHUNK_SIZE, groups.size());
+                            for ( int i=start ; i<end ; i++ ){
+                                Group group = groups.get(i);
+                                double[] cell = getConvexHull(group);
+                                if ( cell != null ) splitter.split(group.label, cell, list);
+                            }
+                            return list;
+                        }catch (RuntimeException e){
+                            failure.compareAndSet(null, e);
+                            return null;
+                        }
+                    }
+                };
+            }
+
+            @Override
+            protected void onProcessed(Integer start, List<Group> product, int cnt) {
+                if ( product == null ) return;
+                for ( Group piece : product ){
+                    LabelKey key = new LabelKey(piece.label);
+                    Group group = next.get(key);
+                    if ( group == null ){
+                        next.put(key, piece);
+                    }else{
+                        group.pieces.addAll(piece.pieces);
+                    }
+                }
+            }
+        };
+        task.start(threads);
+        for ( int i=0 ; i<groups.size() ; i+=CHUNK_SIZE ){
+            task.enqueue(i);
+        }
+        task.waitForCompletion();
+        RuntimeException e = failure.get();
+        if ( e != null ) throw e;
+        return new ArrayList<>(next.values());
+    }
+
+    /**
+     * いずれかのスレッドで例外が発生した場合は残りの領域を求めず、最初の例外を投げます
+     */
+    private List<Cell> toCells(final List<Group> groups){
+        final Cell[] cells = new Cell[groups.size()];
+        // MultiThreadTask は例外を捕捉して処理を続けるため、ここで記録して呼び出し元へ投げる
+        final AtomicReference<RuntimeException> failure = new AtomicReference<>();
+        MultiThreadTask<Integer, Void> task = new MultiThreadTask<Integer, Void>() {
+            @Override
+            protected ProcessThread getProcessThread() {
+                return new ProcessThread() {
+                    @Override
+                    protected Void process(Integer start) {
+                        if ( failure.get() != null ) return null;
+                        try{
+                            int end = Math.min(start + CHUNK_SIZE, groups.size());
+                            for ( int i=start ; i<end ; i++ ){
+                                Group group = groups.get(i);
+                                double[] cell = getConvexHull(group);
+                                if ( cell != null ) cells[i] = new Cell(group.label, cell);
+                            }
+                        }catch (RuntimeException e){
+                            failure.compareAndSet(null, e);
+                        }
+                        return null;
+                    }
+                };
+            }
+        };
+        task.start(threads);
+        for ( int i=0 ; i<groups.size() ; i+=CHUNK_SIZE ){
+            task.enqueue(i);
+        }
+        task.waitForCompletion();
+        RuntimeException e = failure.get();
+        if ( e != null ) throw e;
+        List<Cell> list = new ArrayList<>(cells.length);
+        for ( Cell cell : cells ){
+            if ( cell != null ) list.add(cell);
+        }
+        return list;
+    }
+
+    /**
+     * 部分を合わせた凸包を求めます. 領域は凸であり部分は領域を隙間なく覆うので、凸包が領域そのものです
+     * @return 左回りの頂点の座標 面積が０とみなせる場合はnull
+     */
+    private double[] getConvexHull(Group group){
+        int count = 0;
+        for ( double[] piece : group.pieces ) count += piece.length / 2;
+        final double[] px = new double[count];
+        final double[] py = new double[count];
+        // 別々に計算した部分の共有する頂点は誤差によりわずかにずれるので、近接する頂点はまとめる
+        count = 0;
+        for ( double[] piece : group.pieces ){
+            for ( int j=0 ; j<piece.length ; j+=2 ){
+                if ( !contains(px, py, count, piece[j], piece[j+1]) ){
+                    px[count] = piece[j];
+                    py[count++] = piece[j+1];
+                }
+            }
+        }
+        // 矩形の辺上など同一直線上に並ぶ頂点の順序が誤差で入れ替わらないよう、ｘ座標は丸めて比較する
+        final long[] key = new long[count];
+        final double unit = Math.sqrt(tolerance);
+        int i;
+        Integer[] order = new Integer[count];
+        for ( i=0 ; i<count ; i++ ){
+            order[i] = i;
+            key[i] = Math.round(px[i] / unit);
+        }
+        Arrays.sort(order, new Comparator<Integer>() {
+            @Override
+            public int compare(Integer o1, Integer o2) {
+                int c = Long.compare(key[o1], key[o2]);
+                return c != 0 ? c : Double.compare(py[o1], py[o2]);
+            }
+        });
+        int[] hull = new int[count * 2];
+        int k = 0;
+        for ( i=0 ; i<count ; i++ ){
+            int p = order[i];
+            while ( k >= 2 && !isConvex(px, py, hull[k-2], hull[k-1], p) ) k--;
+            hull[k++] = p;
+        }
+        for ( int t=k+1, j=count-2 ; j>=0 ; j-- ){
+            int p = order[j];
+            while ( k >= t && !isConvex(px, py, hull[k-2], hull[k-1], p) ) k--;
+            hull[k++] = p;
+        }
+        int size = k - 1;
+        if ( size < 3 ) return null;
+        double[] coordinates = new double[size * 2];
+        double area = 0;
+        for ( i=0 ; i<size ; i++ ){
+            coordinates[i * 2] = px[hull[i]];
+            coordinates[i * 2 + 1] = py[hull[i]];
+            int next = hull[(i + 1) % size];
+            area += px[hull[i]] * py[next] - px[next] * py[hull[i]];
+        }
+        return area / 2 > epsilon ? coordinates : null;
+    }
+
+    /**
+     * 点oから見て点a,bの成す角の正弦で判定し、辺の長さによらず同一直線上の頂点を除きます
+     * @return o→a→bが左に曲がるか
+     */
+    private static boolean isConvex(double[] x, double[] y, int o, int a, int b){
+        double ax = x[a] - x[o];
+        double ay = y[a] - y[o];
+        double bx = x[b] - x[o];
+        double by = y[b] - y[o];
+        double cross = ax * by - ay * bx;
+        return cross > 1e-12 * Math.sqrt((ax * ax + ay * ay) * (bx * bx + by * by));
+    }
+
+    private boolean contains(double[] x, double[] y, int size, double px, double py){
+        for ( int i=0 ; i<size ; i++ ){
+            double dx = x[i] - px;
+            double dy = y[i] - py;
+            if ( dx * dx + dy * dy <= tolerance ) return true;
+        }
+        return false;
+    }
+
+    /**
+     * 一つの領域を外側で最も近い母点ごとに分割します. 作業用の配列はスレッドごとに保持して再利用します
+     */
+    private class Splitter {
+
+        private final int[] mark = new int[points.length];
+        private int stamp;
+        private int[] candidate = new int[32];
+        private double[] cellX = new double[16];
+        private double[] cellY = new double[16];
+        private double[] nextX = new double[16];
+        private double[] nextY = new double[16];
+        private int length;
+
+        private void split(int[] label, double[] cell, List<Group> result){
+            stamp++;
+            for ( int s : label ) mark[s] = stamp;
+            int count = 0;
+            for ( int s : label ){
+                for ( int k=offset[s] ; k<offset[s+1] ; k++ ){
+                    int n = neighbor[k];
+                    if ( mark[n] == stamp ) continue;
+                    mark[n] = stamp;
+                    if ( count == candidate.length ) candidate = Arrays.copyOf(candidate, count * 2);
+                    candidate[count++] = n;
+                }
+            }
+            for ( int i=0 ; i<count ; i++ ){
+                final int t = candidate[i];
+                length = cell.length / 2;
+                ensureCapacity(length);
+                for ( int j=0 ; j<length ; j++ ){
+                    cellX[j] = cell[j * 2];
+                    cellY[j] = cell[j * 2 + 1];
+                }
+                // 他の候補よりtに近い部分を切り取る
+                for ( int j=0 ; j<count && length > 0 ; j++ ){
+                    if ( j == i ) continue;
+                    int o = candidate[j];
+                    double nx = x[o] - x[t];
+                    double ny = y[o] - y[t];
+                    clip(nx, ny, (nx * (x[o] + x[t]) + ny * (y[o] + y[t])) / 2);
+                }
+                if ( length < 3 || getArea() <= epsilon ) continue;
+                double[] piece = new double[length * 2];
+                for ( int j=0 ; j<length ; j++ ){
+                    piece[j * 2] = cellX[j];
+                    piece[j * 2 + 1] = cellY[j];
+                }
+                Group group = new Group(insert(label, t));
+                group.pieces.add(piece);
+                result.add(group);
+            }
+        }
+
+        private double getArea(){
+            double area = 0;
+            for ( int k=0 ; k<length ; k++ ){
+                int next = (k+1) % length;
+                area += cellX[k] * cellY[next] - cellX[next] * cellY[k];
+            }
+            return area / 2;
+        }
+
+        private void ensureCapacity(int size){
+            if ( cellX.length < size ){
+                cellX = new double[size * 2];
+                cellY = new double[size * 2];
+            }
+        }
+
+        /**
+         * 凸多角形を半平面{@code nx*x + ny*y <= c}で切り取ります
+         */
+        private void clip(double nx, double ny, double c){
+            if ( nextX.length < length * 2 ){
+                nextX = new double[length * 2];
+                nextY = new double[length * 2];
+            }
+            int cnt = 0;
+            for ( int k=0 ; k<length ; k++ ){
+                int next = (k+1) % length;
+                double v1 = nx * cellX[k] + ny * cellY[k] - c;
+                double v2 = nx * cellX[next] + ny * cellY[next] - c;
+                if ( v1 <= 0 ){
+                    nextX[cnt] = cellX[k];
+                    nextY[cnt++] = cellY[k];
+                }
+                if ( (v1 < 0 && v2 > 0) || (v1 > 0 && v2 < 0) ){
+                    double t = v1 / (v1 - v2);
+                    nextX[cnt] = cellX[k] + (cellX[next] - cellX[k]) * t;
+                    nextY[cnt++] = cellY[k] + (cellY[next] - cellY[k]) * t;
+                }
+            }
+            double[] temp = cellX;
+            cellX = nextX;
+            nextX = temp;
+            temp = cellY;
+            cellY = nextY;
+            nextY = temp;
+            length = cnt;
+        }
+    }
+
+    /**
+     * @return 昇順の組に値を加えた昇順の組
+     */
+    private static int[] insert(int[] label, int value){
+        int[] result = new int[label.length + 1];
+        int i = 0;
+        while ( i < label.length && label[i] < value ){
+            result[i] = label[i];
+            i++;
+        }
+        result[i] = value;
+        System.arraycopy(label, i, result, i + 1, label.length - i);
+        return result;
+    }
+
+    /**
+     * 表のi番目以降の組と辞書順で比較します
+     */
+    private static int compareLabel(int[] table, int position, int[] label){
+        for ( int i=0 ; i<label.length ; i++ ){
+            int c = Integer.compare(table[position + i], label[i]);
+            if ( c != 0 ) return c;
+        }
+        return 0;
+    }
+
+    /**
+     * @return 次数
+     */
+    public int getLevel(){
+        return level;
+    }
+
+    public Rectangle getBorder(){
+        return border;
+    }
+
+    /**
+     * @return 母点の数
+     */
+    public int size(){
+        return points.length;
+    }
+
+    public Point getPoint(int index){
+        return points[index];
+    }
+
+    /**
+     * @return 領域の数
+     */
+    public int getCellCount(){
+        return vertexOffset.length - 1;
+    }
+
+    /**
+     * @param cell 領域の添字 領域は母点の組の辞書順に並びます
+     * @return 最も近いk個の母点の添字 昇順
+     */
+    public int[] getLabel(int cell){
+        return Arrays.copyOfRange(labels, cell * level, (cell + 1) * level);
+    }
+
+    /**
+     * @param cell 領域の添字
+     * @return 左回りの頂点からなる凸多角形
+     */
+    public Polygon getCell(int cell){
+        List<Point> list = new ArrayList<>(vertexOffset[cell+1] - vertexOffset[cell]);
+        for ( int i=vertexOffset[cell] ; i<vertexOffset[cell+1] ; i++ ){
+            list.add(new BasePoint(vertexX[i], vertexY[i]));
+        }
+        return new Polygon(list);
+    }
+
+    /**
+     * 母点の組をもつ領域を二分探索で探します
+     * @param label 母点の添字の組 昇順
+     * @return 領域の添字 存在しない場合は負数
+     */
+    public int indexOf(int[] label){
+        if ( label.length != level ) return -1;
+        int low = 0;
+        int high = getCellCount() - 1;
+        while ( low <= high ){
+            int mid = (low + high) >>> 1;
+            int c = compareLabel(labels, mid * level, label);
+            if ( c < 0 ){
+                low = mid + 1;
+            }else if ( c > 0 ){
+                high = mid - 1;
+            }else{
+                return mid;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * 点を含む領域を探します
+     * @param query {@link #getSearch()}から作成した探索の作業領域
+     * @return 領域の添字 矩形の外側など存在しない場合は負数
+     */
+    public int findCell(double px, double py, NeighborSearch.Query query){
+        if ( px < border.left || px > border.right || py < border.bottom || py > border.top ) return -1;
+        if ( query.nearest(px, py, level) < level ) return -1;
+        int[] label = new int[level];
+        for ( int i=0 ; i<level ; i++ ){
+            label[i] = searchIndex[query.getResult(i)];
+        }
+        Arrays.sort(label);
+        return indexOf(label);
+    }
+
+    /**
+     * @return {@link #findCell(double, double, NeighborSearch.Query)}に渡す探索の作業領域の作成に用います
+     */
+    public NeighborSearch getSearch(){
+        return search;
+    }
+
+}
@@ -0,0 +1,336 @@
+package jp.seo.android.diagram;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 点群をｘ座標で短冊状に分割し、各短冊ごとに独立してドロネー分割を計算してから結合します.<br>
+ * 各短冊の計算には担当範囲の点に加えて左右の糊代(halo)の範囲の点のみを用います.
+ * 短冊ごとの計算結果から、外接円の中心が担当範囲にあり、かつ外接円の内部に全体の点が含まれない三角形のみを採用します.
+ * 結合した結果が凸包を覆う三角形分割を成さない場合は糊代を広げて再計算し、
+ * それでも解決しない場合は{@link DelaunayDiagram#split(Rectangle)}による単一の計算に切り替えます.
+ * 各短冊の計算は互いに独立しており、担当範囲と糊代の点のみを渡せばよいため、
+ * 別プロセスへ分散することもできます. ここでは{@link MultiThreadTask}によるスレッドで代用します
+ * @author Seo-4d696b75
+ * @version 2026/10/19
+ */
+public class PartitionedDelaunay extends DelaunayDiagram {
+
+    /**
+     * @param points 分割する点
+     * @param partitions 短冊の数
+     * @param threads 計算に用いるスレッドの数
+     */
+    public PartitionedDelaunay(Collection<? extends Point> points, int partitions, int threads){
+        super(points);
+        this.partitions = Math.max(partitions, 1);
+        this.threads = Math.max(threads, 1);
+    }
+
+    /**
+     * 糊代を広げて再計算する最大の回数
+     */
+    private static final int MAX_RETRY = 3;
+
+    /**
+     * 全ての試行で短冊の計算に用いる点の延べ数の上限（全体の点数に対する倍率）.
+     * これを超える場合は再計算せず単一の計算に切り替えます
+     */
+    private static final int MAX_COST = 4;
+
+    /**
+     * 短冊の外側の点を探索する際に用いる区間の短冊あたりの数
+     */
+    private static final int BIN_PER_PARTITION = 16;
+
+    private final int partitions;
+    private final int threads;
+
+    private Point[] sorted;
+    private double[] xs;
+    private double[] bounds;
+    private int[] binStart;
+    private double[] binMinY, binMaxY;
+    private double binLeft, binWidth;
+
+    @Override
+    public void split(Rectangle border){
+        Set<Point> points = getPoints();
+        if ( partitions < 2 || points.size() < partitions * 16 ){
+            super.split(border);
+            return;
+        }
+        sorted = points.toArray(new Point[points.size()]);
+        Arrays.sort(sorted);
+        final int size = sorted.length;
+        xs = new double[size];
+        for ( int i=0 ; i<size ; i++ ) xs[i] = sorted[i].getX();
+        if ( xs[0] == xs[size-1] ){
+            super.split(border);
+            return;
+        }
+        // 各短冊の点数が等しくなるよう境界を定める 両端の短冊は外側に無限に広がる
+        bounds = new double[partitions+1];
+        bounds[0] = Double.NEGATIVE_INFINITY;
+        bounds[partitions] = Double.POSITIVE_INFINITY;
+        for ( int i=1 ; i<partitions ; i++ ){
+            bounds[i] = xs[(int)((long)size * i / partitions)];
+        }
+        initBins(partitions * BIN_PER_PARTITION);
+
+        double halo = (xs[size-1] - xs[0]) / partitions / 4;
+        long cost = 0;
+        for ( int i=0 ; i<=MAX_RETRY ; i++ ){
+            cost += getCost(halo);
+            if ( cost > (long)MAX_COST * size ) break;
+            Collection<Triangle> triangles = solve(border, halo);
+            Map<Edge, Integer> count = countEdges(triangles);
+            // 重なる三角形は退化した入力に対し短冊ごとに異なる三角形を採用した場合に生じ、糊代を広げても解消しない
+            if ( count == null ) break;
+            List<Point> frame = getFrame(triangles, count, size);
+            if ( frame != null ){
+                setSolved(triangles, frame, border);
+                release();
+                return;
+            }
+            halo *= 2;
+        }
+        release();
+        super.split(border);
+    }
+
+    private void release(){
+        sorted = null;
+        xs = null;
+        bounds = null;
+        binStart = null;
+        binMinY = null;
+        binMaxY = null;
+    }
+
+    /**
+     * @return 指定した糊代で全ての短冊の計算に用いる点の延べ数
+     */
+    private long getCost(double halo){
+        long cost = 0;
+        for ( int i=0 ; i<partitions ; i++ ){
+            cost += lowerBound(bounds[i+1] + halo) - lowerBound(bounds[i] - halo);
+        }
+        return cost;
+    }
+
+    private Collection<Triangle> solve(final Rectangle border, final double halo){
+        final Set<Triangle> result = new HashSet<>();
+        MultiThreadTask<Integer, Collection<Triangle>> task = new MultiThreadTask<Integer, Collection<Triangle>>() {
+            @Override
+            protected ProcessThread getProcessThread() {
+                return new ProcessThread() {
+                    @Override
+                    protected Collection<Triangle> process(Integer index) {
+                        return solvePartition(border, index, halo);
+                    }
+                };
+            }
+
+            @Override
+            protected void onProcessed(Integer index, Collection<Triangle> product, int cnt) {
+                if ( product != null ) result.addAll(product);
+            }
+        };
+        task.start(Math.min(threads, partitions));
+        for ( int i=0 ; i<partitions ; i++ ) task.enqueue(i);
+        task.waitForCompletion();
+        return result;
+    }
+
+    /**
+     * 一つの短冊を計算し、全体のドロネー分割に含まれることが確定した三角形のみを返します
+     */
+    private Collection<Triangle> solvePartition(Rectangle border, int index, double halo){
+        final double left = bounds[index];
+        final double right = bounds[index+1];
+        final double min = left - halo;
+        final double max = right + halo;
+        final int start = lowerBound(min);
+        final int end = lowerBound(max);
+        DelaunayDiagram diagram = new DelaunayDiagram(Arrays.asList(sorted).subList(start, end));
+        // 複数のスレッドから進捗を表示しない
+        diagram.split(border, false);
+        List<Triangle> list = new ArrayList<>();
+        for ( Triangle triangle : diagram.getTriangles() ){
+            Circle circle = triangle.getCircumscribed();
+            double x = circle.center.getX();
+            // 外接円の中心で担当する短冊を一意に定める
+            if ( x < left || x >= right ) continue;
+            if ( isEmpty(circle, min, max) ) list.add(triangle);
+        }
+        return list;
+    }
+
+    /**
+     * 短冊の計算に用いたｘ座標の範囲[min,max)の外側に外接円の内部の点が存在しないか調べます.
+     * 範囲内の点は全て計算に用いているので調べる必要はありません
+     */
+    private boolean isEmpty(Circle circle, double min, double max){
+        final double cx = circle.center.getX();
+        final double cy = circle.center.getY();
+        final double r = circle.radius;
+        if ( cx - r >= min && cx + r < max ) return true;
+        final int first = Math.max(0, getBin(cx - r));
+        final int last = Math.min(binStart.length - 2, getBin(cx + r));
+        for ( int bin=first ; bin<=last ; bin++ ){
+            int from = binStart[bin];
+            int to = binStart[bin+1];
+            if ( from == to ) continue;
+            if ( xs[from] >= min && xs[to-1] < max ) continue;
+            // 区間内の点のｙ座標の範囲が円と交わらなければ調べる必要はない
+            double x1 = xs[from] - cx;
+            double x2 = xs[to-1] - cx;
+            double dx = x1 <= 0 && x2 >= 0 ? 0 : Math.min(Math.abs(x1), Math.abs(x2));
+            if ( dx >= r ) continue;
+            double dy = Math.sqrt(r*r - dx*dx);
+            if ( binMaxY[bin] <= cy - dy || binMinY[bin] >= cy + dy ) continue;
+            for ( int i=from ; i<to ; i++ ){
+                if ( xs[i] >= min && xs[i] < max ) continue;
+                if ( circle.containsPoint(sorted[i]) ) return false;
+            }
+        }
+        return true;
+    }
+
+    private void initBins(int count){
+        final int size = sorted.length;
+        binLeft = xs[0];
+        binWidth = (xs[size-1] - xs[0]) / count;
+        binStart = new int[count+1];
+        binMinY = new double[count];
+        binMaxY = new double[count];
+        Arrays.fill(binMinY, Double.POSITIVE_INFINITY);
+        Arrays.fill(binMaxY, Double.NEGATIVE_INFINITY);
+        int bin = 0;
+        for ( int i=0 ; i<size ; i++ ){
+            int b = Math.min(count-1, getBin(xs[i]));
+            while ( bin < b ) binStart[++bin] = i;
+            double y = sorted[i].getY();
+            if ( y < binMinY[b] ) binMinY[b] = y;
+            if ( y > binMaxY[b] ) binMaxY[b] = y;
+        }
+        while ( bin < count ) binStart[++bin] = size;
+    }
+
+    private int getBin(double x){
+        double index = Math.floor((x - binLeft) / binWidth);
+        if ( index < 0 ) return -1;
+        if ( index > binStart.length ) return binStart.length;
+        return (int)index;
+    }
+
+    private int lowerBound(double x){
+        int low = 0;
+        int high = xs.length;
+        while ( low < high ){
+            int mid = (low + high) >>> 1;
+            if ( xs[mid] < x ){
+                low = mid + 1;
+            }else{
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * 各辺を共有する三角形の数を数えます
+     * @return ３つ以上の三角形が共有する辺がある場合はnull
+     */
+    private static Map<Edge, Integer> countEdges(Collection<Triangle> triangles){
+        Map<Edge, Integer> count = new HashMap<>();
+        for ( Triangle triangle : triangles ){
+            if ( !countEdge(count, new Edge(triangle.a, triangle.b)) ) return null;
+            if ( !countEdge(count, new Edge(triangle.b, triangle.c)) ) return null;
+            if ( !countEdge(count, new Edge(triangle.c, triangle.a)) ) return null;
+        }
+        return count;
+    }
+
+    /**
+     * 各辺を共有する三角形が２つ以下の三角形の集合が隙間なく一つの領域を覆う三角形分割か判定し、その外周を求めます.
+     * 全ての点を頂点に含み、１つの三角形にのみ属する辺が単一の閉路を成し、
+     * その閉路の囲む面積が三角形の面積の総和に等しいことを確認します.
+     * 外周の凹んだ部分は{@link DelaunayDiagram#split(Rectangle)}と同様に後から補うため、外周と凸包の一致は要求しません
+     * @param count {@link #countEdges(Collection)}で数えた辺を共有する三角形の数
+     * @return 外周の点 条件を満たさない場合はnull
+     */
+    private List<Point> getFrame(Collection<Triangle> triangles, Map<Edge, Integer> count, int size){
+        Set<Point> vertex = new HashSet<>();
+        double area = 0;
+        for ( Triangle triangle : triangles ){
+            vertex.add(triangle.a);
+            vertex.add(triangle.b);
+            vertex.add(triangle.c);
+            area += Math.abs(getSignedArea(triangle.a, triangle.b, triangle.c));
+        }
+        if ( vertex.size() != size ) return null;
+        Map<Point, Point[]> boundary = new HashMap<>();
+        int length = 0;
+        for ( Map.Entry<Edge, Integer> entry : count.entrySet() ){
+            if ( entry.getValue() == 1 ){
+                Edge edge = entry.getKey();
+                if ( !linkBoundary(boundary, edge.a, edge.b) ) return null;
+                if ( !linkBoundary(boundary, edge.b, edge.a) ) return null;
+                length++;
+            }
+        }
+        if ( length < 3 ) return null;
+        // 境界の辺を辿って単一の閉路か確認する
+        List<Point> frame = new ArrayList<>(length);
+        Point start = boundary.keySet().iterator().next();
+        Point previous = start;
+        Point current = boundary.get(start)[0];
+        frame.add(start);
+        double loop = 0;
+        while ( !current.equals(start) ){
+            Point[] link = boundary.get(current);
+            if ( link[1] == null ) return null;
+            Point next = link[0].equals(previous) ? link[1] : link[0];
+            loop += getSignedArea(start, current, next);
+            frame.add(current);
+            previous = current;
+            current = next;
+        }
+        if ( frame.size() != length ) return null;
+        if ( Math.abs(Math.abs(loop) - area) > area * 1e-9 ) return null;
+        return frame;
+    }
+
+    private static boolean countEdge(Map<Edge, Integer> count, Edge edge){
+        Integer value = count.get(edge);
+        int next = value == null ? 1 : value + 1;
+        count.put(edge, next);
+        return next <= 2;
+    }
+
+    private static boolean linkBoundary(Map<Point, Point[]> boundary, Point from, Point to){
+        Point[] link = boundary.get(from);
+        if ( link == null ){
+            boundary.put(from, new Point[]{to, null});
+            return true;
+        }else if ( link[1] == null ){
+            link[1] = to;
+            return true;
+        }
+        // 境界が一点で接する場合
+        return false;
+    }
+
+    private static double getSignedArea(Point a, Point b, Point c){
+        return ((b.getX() - a.getX()) * (c.getY() - a.getY()) - (b.getY() - a.getY()) * (c.getX() - a.getX())) / 2;
+    }
+
+}
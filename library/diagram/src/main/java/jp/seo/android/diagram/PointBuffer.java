@@ -0,0 +1,175 @@
+package jp.seo.android.diagram;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.RandomAccess;
+
+/**
+ * 多数の点の座標をｘ座標・ｙ座標それぞれのdouble配列で保持します.<br>
+ * 点ごとにオブジェクトを確保せずに座標を読み込み・受け渡しできます.
+ * {@link Point}を要求する既存のAPIには{@link #get(int)}や{@link #asList()}が返す
+ * 軽量なビューを渡すことができ、ビューは座標の実体を持たず配列を参照します.
+ * ただし{@link DelaunayDiagram#DelaunayDiagram(PointBuffer)}のように点の集合を保持するAPIでは、
+ * 座標の複製は避けられますが点ごとにビューと集合の要素が確保されます.
+ * <strong>NOTE </strong>{@link Point}の座標は不変である必要があるため、
+ * ビューを渡した後に該当する座標を変更してはいけません
+ * @author Seo-4d696b75
+ * @version 2026/10/19
+ */
+public class PointBuffer {
+
+    public PointBuffer(){
+        this(16);
+    }
+
+    public PointBuffer(int capacity){
+        mX = new double[Math.max(capacity, 1)];
+        mY = new double[Math.max(capacity, 1)];
+        mSize = 0;
+    }
+
+    /**
+     * 座標の配列をコピーせずにそのまま保持します
+     * @param x ｘ座標
+     * @param y ｙ座標 {@code x}と同じ長さ
+     */
+    public PointBuffer(double[] x, double[] y){
+        if ( x.length != y.length ){
+            throw new IllegalArgumentException("array length mismatch");
+        }
+        mX = x;
+        mY = y;
+        mSize = x.length;
+    }
+
+    public static PointBuffer of(Collection<? extends Point> points){
+        PointBuffer buffer = new PointBuffer(points.size());
+        for ( Point p : points ){
+            buffer.add(p.getX(), p.getY());
+        }
+        return buffer;
+    }
+
+    private double[] mX, mY;
+    private int mSize;
+
+    public int size(){
+        return mSize;
+    }
+
+    /**
+     * 点を末尾に追加します
+     * @return 追加した点の添字
+     */
+    public int add(double x, double y){
+        if ( mSize == mX.length ){
+            int capacity = mX.length * 2;
+            mX = Arrays.copyOf(mX, capacity);
+            mY = Arrays.copyOf(mY, capacity);
+        }
+        mX[mSize] = x;
+        mY[mSize] = y;
+        return mSize++;
+    }
+
+    public double getX(int index){
+        if ( index >= mSize ) throw new IndexOutOfBoundsException();
+        return mX[index];
+    }
+
+    public double getY(int index){
+        if ( index >= mSize ) throw new IndexOutOfBoundsException();
+        return mY[index];
+    }
+
+    /**
+     * ｘ座標を保持する配列をそのまま返します. {@link #size()}以降の要素は意味を持ちません
+     */
+    public double[] getXArray(){
+        return mX;
+    }
+
+    /**
+     * ｙ座標を保持する配列をそのまま返します. {@link #size()}以降の要素は意味を持ちません
+     */
+    public double[] getYArray(){
+        return mY;
+    }
+
+    /**
+     * 指定した点を参照するビューを取得します
+     */
+    public PointView get(int index){
+        if ( index < 0 || index >= mSize ) throw new IndexOutOfBoundsException();
+        return new PointView(this, index);
+    }
+
+    /**
+     * 全ての点をビューとして参照するリストを返します. 要素は参照の度に生成されます
+     */
+    public List<PointView> asList(){
+        return new ViewList();
+    }
+
+    public Rectangle getRectBound(){
+        double left = Double.MAX_VALUE;
+        double right = -Double.MAX_VALUE;
+        double bottom = Double.MAX_VALUE;
+        double top = -Double.MAX_VALUE;
+        for ( int i=0 ; i<mSize ; i++ ){
+            if ( mX[i] < left ) left = mX[i];
+            if ( mX[i] > right ) right = mX[i];
+            if ( mY[i] < bottom ) bottom = mY[i];
+            if ( mY[i] > top ) top = mY[i];
+        }
+        return new Rectangle(left, top, right, bottom);
+    }
+
+    private class ViewList extends AbstractList<PointView> implements RandomAccess{
+
+        @Override
+        public PointView get(int index) {
+            return PointBuffer.this.get(index);
+        }
+
+        @Override
+        public int size() {
+            return mSize;
+        }
+    }
+
+    /**
+     * {@link PointBuffer}内の一点を参照する軽量な{@link Point}
+     */
+    public static final class PointView extends Point{
+
+        private PointView(PointBuffer buffer, int index){
+            this.buffer = buffer;
+            this.index = index;
+        }
+
+        private final PointBuffer buffer;
+        private final int index;
+
+        public PointBuffer getBuffer(){
+            return buffer;
+        }
+
+        public int getIndex(){
+            return index;
+        }
+
+        @Override
+        public double getX() {
+            return buffer.mX[index];
+        }
+
+        @Override
+        public double getY() {
+            return buffer.mY[index];
+        }
+    }
+
+}
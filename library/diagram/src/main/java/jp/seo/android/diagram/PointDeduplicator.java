@@ -0,0 +1,182 @@
+package jp.seo.android.diagram;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * {@link DelaunayDiagram}に渡す前に、重複する点や許容誤差より近い点をまとめます.<br>
+ * 重複する点は{@link DelaunayDiagram#split(Rectangle)}の中で外接三角形を探索した後にしか検出されず、
+ * 誤差{@link Setting#error}をわずかに超えて近接する点は細長い三角形を生じ多くの辺のフリップを引き起こします.
+ * 許容誤差を一辺とする格子で点を分類し、近傍の格子のみ調べるため点の数nに対しO(n)でまとめます
+ * @author Seo-4d696b75
+ * @version 2026/10/19
+ */
+public class PointDeduplicator {
+
+    /**
+     * @param tolerance 許容誤差 この距離以下の点をまとめます
+     */
+    public PointDeduplicator(double tolerance){
+        if ( !(tolerance > 0) || Double.isInfinite(tolerance) ){
+            throw new IllegalArgumentException("invalid tolerance: " + tolerance);
+        }
+        this.tolerance = tolerance;
+    }
+
+    private final double tolerance;
+
+    public double getTolerance(){
+        return tolerance;
+    }
+
+    /**
+     * まとめた結果
+     * @param <E> まとめた後の点の型
+     */
+    public static class Result<E extends Point> {
+
+        private Result(List<E> points, Map<Point, E> mapping, Map<Point, E> merged, int count){
+            this.points = Collections.unmodifiableList(points);
+            this.mapping = mapping;
+            this.merged = Collections.unmodifiableMap(merged);
+            this.count = count;
+        }
+
+        private final List<E> points;
+        /**
+         * 入力の全ての点からまとめた先の点への対応
+         */
+        private final Map<Point, E> mapping;
+        private final Map<Point, E> merged;
+        private final int count;
+
+        /**
+         * @return まとめた後の点 入力で最初に現れた順
+         */
+        public List<E> getPoints(){
+            return points;
+        }
+
+        /**
+         * @param point 入力の点
+         * @return 入力の点をまとめた先の点 入力に含まれない点はnull
+         */
+        public E getRepresentative(Point point){
+            return mapping.get(point);
+        }
+
+        /**
+         * @return 他の点にまとめられ取り除かれた入力の点からまとめた先の点への対応 座標の重複する点は一つのみ含みます
+         */
+        public Map<Point, E> getMerged(){
+            return merged;
+        }
+
+        /**
+         * @return 取り除かれた入力の点の数 座標の重複する点も数えます
+         */
+        public int getMergedCount(){
+            return count;
+        }
+    }
+
+    /**
+     * 許容誤差以下の距離にある点を、入力で先に現れた点にまとめます. 点の座標は変更しません.
+     * まとめた先の点同士は許容誤差より離れています
+     * @param points 入力の点
+     * @return まとめた先は入力の点
+     */
+    public <E extends Point> Result<E> deduplicate(Collection<? extends E> points){
+        final double limit = tolerance * tolerance;
+        List<E> list = new ArrayList<>();
+        Map<Point, E> mapping = new LinkedHashMap<>();
+        Map<Point, E> merged = new LinkedHashMap<>();
+        Map<Long, List<E>> grid = new HashMap<>();
+        int count = 0;
+        for ( E point : points ){
+            if ( mapping.containsKey(point) ){
+                count++;
+                continue;
+            }
+            long ix = (long)Math.floor(point.getX() / tolerance);
+            long iy = (long)Math.floor(point.getY() / tolerance);
+            E representative = null;
+            // 許容誤差以下の点は隣接する格子までに含まれる
+            for ( long dx=-1 ; dx<=1 && representative == null ; dx++ ){
+                for ( long dy=-1 ; dy<=1 && representative == null ; dy++ ){
+                    List<E> cell = grid.get(getKey(ix + dx, iy + dy));
+                    if ( cell == null ) continue;
+                    for ( E other : cell ){
+                        double x = other.getX() - point.getX();
+                        double y = other.getY() - point.getY();
+                        if ( x * x + y * y <= limit ){
+                            representative = other;
+                            break;
+                        }
+                    }
+                }
+            }
+            if ( representative == null ){
+                representative = point;
+                list.add(point);
+                Long key = getKey(ix, iy);
+                List<E> cell = grid.get(key);
+                if ( cell == null ){
+                    cell = new ArrayList<>(2);
+                    grid.put(key, cell);
+                }
+                cell.add(point);
+            }else{
+                merged.put(point, representative);
+                count++;
+            }
+            mapping.put(point, representative);
+        }
+        return new Result<>(list, mapping, merged, count);
+    }
+
+    /**
+     * 点を許容誤差の整数倍の座標に移動し、同じ座標に移動した点をまとめます
+     * @param points 入力の点
+     * @return まとめた先は移動後の点
+     */
+    public Result<Point> snap(Collection<? extends Point> points){
+        List<Point> list = new ArrayList<>();
+        Map<Point, Point> mapping = new LinkedHashMap<>();
+        Map<Point, Point> merged = new LinkedHashMap<>();
+        Map<Point, Point> snapped = new HashMap<>();
+        int count = 0;
+        for ( Point point : points ){
+            if ( mapping.containsKey(point) ){
+                count++;
+                continue;
+            }
+            Point target = new BasePoint(
+                    Math.round(point.getX() / tolerance) * tolerance,
+                    Math.round(point.getY() / tolerance) * tolerance
+            );
+            Point representative = snapped.get(target);
+            if ( representative == null ){
+                snapped.put(target, target);
+                list.add(target);
+                representative = target;
+            }else{
+                merged.put(point, representative);
+                count++;
+            }
+            mapping.put(point, representative);
+        }
+        return new Result<>(list, mapping, merged, count);
+    }
+
+    private static Long getKey(long ix, long iy){
+        // 異なる格子の衝突は距離の比較で除かれる
+        return ix * 0x9E3779B97F4A7C15L + iy;
+    }
+
+}
@@ -0,0 +1,312 @@
+package jp.seo.android.diagram;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * 点を環状に並べた列をカーソル付きで表現します.<br>
+ * 配列上の環状ギャップバッファとして実装されており、カーソルは常にギャップの位置にあります.
+ * そのためカーソルの1ステップの移動、カーソル位置での挿入・削除はいずれもO(1)で済みます.
+ * 点列の一部をまとめて挿入・削除する場合も要素ごとの操作ではなく配列のコピーのみで行います.
+ * <pre>
+ *     ... previous | cursor | next ...
+ * </pre>
+ * @author Seo-4d696b75
+ * @version 2026/10/19
+ */
+public class PointRing implements Iterable<Point> {
+
+    public PointRing(){
+        this(16);
+    }
+
+    public PointRing(int capacity){
+        mData = new Point[Math.max(capacity, 4)];
+        mGapStart = 0;
+        mSize = 0;
+    }
+
+    /**
+     * 指定した点列を順に並べた環を作成します. カーソルは先頭の点の直前に位置します
+     */
+    public PointRing(Collection<? extends Point> points){
+        this(points.size() + 1);
+        for ( Point p : points ){
+            mData[mGapStart++] = p;
+        }
+        mSize = points.size();
+    }
+
+    private Point[] mData;
+    /**
+     * ギャップの先頭=カーソルの直前の要素の次の添字
+     */
+    private int mGapStart;
+    private int mSize;
+
+    public int size(){
+        return mSize;
+    }
+
+    public boolean isEmpty(){
+        return mSize == 0;
+    }
+
+    private int gapEnd(){
+        return (mGapStart + mData.length - mSize) % mData.length;
+    }
+
+    private int index(int i){
+        final int length = mData.length;
+        return ((i % length) + length) % length;
+    }
+
+    /**
+     * カーソルの直後の点を返します
+     * @return 空の場合はnull
+     */
+    public Point peekNext(){
+        return mSize > 0 ? mData[gapEnd()] : null;
+    }
+
+    /**
+     * カーソルの直前の点を返します
+     * @return 空の場合はnull
+     */
+    public Point peekPrevious(){
+        return mSize > 0 ? mData[index(mGapStart - 1)] : null;
+    }
+
+    /**
+     * カーソルを一つ進めます
+     * @return カーソルが通過した点
+     */
+    public Point next(){
+        if ( mSize == 0 ) throw new NoSuchElementException();
+        final int end = gapEnd();
+        Point p = mData[end];
+        mData[end] = null;
+        mData[mGapStart] = p;
+        mGapStart = index(mGapStart + 1);
+        return p;
+    }
+
+    /**
+     * カーソルを一つ戻します
+     * @return カーソルが通過した点
+     */
+    public Point previous(){
+        if ( mSize == 0 ) throw new NoSuchElementException();
+        final int end = index(gapEnd() - 1);
+        mGapStart = index(mGapStart - 1);
+        Point p = mData[mGapStart];
+        mData[mGapStart] = null;
+        mData[end] = p;
+        return p;
+    }
+
+    /**
+     * カーソルを指定した点の直前まで進めます
+     * @return 見つからない場合はカーソルを動かさずfalse
+     */
+    public boolean seek(Point point){
+        for ( int i=0 ; i<mSize ; i++ ){
+            if ( mData[index(gapEnd() + i)].equals(point) ){
+                for ( int j=0 ; j<i ; j++ ) next();
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * カーソル位置に点を挿入します. カーソルは挿入した点の直後に移動します
+     */
+    public void add(Point point){
+        if ( point == null ) throw new NullPointerException();
+        ensureCapacity(mSize + 1);
+        mData[mGapStart] = point;
+        mGapStart = index(mGapStart + 1);
+        mSize++;
+    }
+
+    /**
+     * カーソル位置に点列をまとめて挿入します. カーソルは挿入した点列の直後に移動します
+     */
+    public void splice(Point[] points, int offset, int length){
+        if ( length <= 0 ) return;
+        ensureCapacity(mSize + length);
+        final int first = Math.min(length, mData.length - mGapStart);
+        System.arraycopy(points, offset, mData, mGapStart, first);
+        System.arraycopy(points, offset + first, mData, 0, length - first);
+        mGapStart = index(mGapStart + length);
+        mSize += length;
+    }
+
+    /**
+     * 他の環の全ての点を、その環のカーソルの直後から順にこの環のカーソル位置へ挿入します.
+     * カーソルは挿入した点列の直後に移動します. 引数の環は変更されません.<br>
+     * 連結リストと異なり点列を配列上でコピーするため、計算量は挿入する点の数に比例します
+     * @param other この環とは異なる環
+     */
+    public void splice(PointRing other){
+        if ( other == this ) throw new IllegalArgumentException("can not splice itself");
+        final int length = other.mSize;
+        ensureCapacity(mSize + length);
+        copyFrom(other, mGapStart);
+        mGapStart = index(mGapStart + length);
+        mSize += length;
+    }
+
+    /**
+     * {@link #splice(PointRing)}と同様に挿入しますが、カーソルは挿入した点列の直前に留まります
+     * @param other この環とは異なる環
+     */
+    public void spliceNext(PointRing other){
+        if ( other == this ) throw new IllegalArgumentException("can not splice itself");
+        final int length = other.mSize;
+        ensureCapacity(mSize + length);
+        copyFrom(other, index(gapEnd() - length));
+        mSize += length;
+    }
+
+    /**
+     * 他の環の点をカーソルの直後から順に、この環の配列の指定した位置から環状に書き込みます
+     */
+    private void copyFrom(PointRing other, int destination){
+        final int start = other.gapEnd();
+        int i = 0;
+        while ( i < other.mSize ){
+            int source = other.index(start + i);
+            int target = index(destination + i);
+            int length = Math.min(other.mSize - i, Math.min(other.mData.length - source, mData.length - target));
+            System.arraycopy(other.mData, source, mData, target, length);
+            i += length;
+        }
+    }
+
+    /**
+     * カーソルの直後の点を削除します
+     */
+    public Point removeNext(){
+        if ( mSize == 0 ) throw new NoSuchElementException();
+        final int end = gapEnd();
+        Point p = mData[end];
+        mData[end] = null;
+        mSize--;
+        return p;
+    }
+
+    /**
+     * カーソルの直前の点を削除します
+     */
+    public Point removePrevious(){
+        if ( mSize == 0 ) throw new NoSuchElementException();
+        mGapStart = index(mGapStart - 1);
+        Point p = mData[mGapStart];
+        mData[mGapStart] = null;
+        mSize--;
+        return p;
+    }
+
+    /**
+     * カーソルの直後から指定した数の点をまとめて削除します
+     */
+    public void removeNext(int count){
+        if ( count < 0 || count > mSize ) throw new IndexOutOfBoundsException();
+        final int end = gapEnd();
+        final int first = Math.min(count, mData.length - end);
+        Arrays.fill(mData, end, end + first, null);
+        Arrays.fill(mData, 0, count - first, null);
+        mSize -= count;
+    }
+
+    /**
+     * 点の並びを反転します. カーソルの直前・直後の点は入れ替わります
+     */
+    public void reverse(){
+        Point[] array = toArray();
+        for ( int i=0, j=mSize-1 ; i<j ; i++, j-- ){
+            Point temp = array[i];
+            array[i] = array[j];
+            array[j] = temp;
+        }
+        Arrays.fill(mData, null);
+        System.arraycopy(array, 0, mData, 0, mSize);
+        mGapStart = index(mSize);
+    }
+
+    private void ensureCapacity(int capacity){
+        if ( capacity <= mData.length ) return;
+        Point[] array = toArray();
+        mData = new Point[Math.max(capacity, mData.length * 2)];
+        System.arraycopy(array, 0, mData, 0, mSize);
+        mGapStart = mSize;
+    }
+
+    /**
+     * カーソルの直後から順に全ての点を配列にコピーします
+     */
+    public Point[] toArray(){
+        Point[] array = new Point[mSize];
+        final int end = gapEnd();
+        final int first = Math.min(mSize, mData.length - end);
+        System.arraycopy(mData, end, array, 0, first);
+        System.arraycopy(mData, 0, array, first, mSize - first);
+        return array;
+    }
+
+    /**
+     * カーソルの直後から順に全ての点をリストにコピーします
+     */
+    public List<Point> toList(){
+        return new ArrayList<>(Arrays.asList(toArray()));
+    }
+
+    /**
+     * カーソルの直後から一周する走査を行います. 走査中に環を変更してはいけません
+     */
+    @Override
+    public Iterator<Point> iterator(){
+        return new Iterator<Point>() {
+
+            private final int start = gapEnd();
+            private int cnt = 0;
+
+            @Override
+            public boolean hasNext() {
+                return cnt < mSize;
+            }
+
+            @Override
+            public Point next() {
+                if ( !hasNext() ) throw new NoSuchElementException();
+                return mData[index(start + cnt++)];
+            }
+
+            @Override
+            public void remove() {
+                throw new UnsupportedOperationException();
+            }
+        };
+    }
+
+    @Override
+    public String toString(){
+        StringBuilder builder = new StringBuilder();
+        builder.append("PointRing{size:");
+        builder.append(mSize);
+        builder.append(",points:[\n");
+        for ( Point p : this ){
+            builder.append(p.toString());
+            builder.append('\n');
+        }
+        builder.append("]}");
+        return builder.toString();
+    }
+
+}
@@ -2,12 +2,14 @@ package jp.seo.android.diagram;
 
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
-import java.util.LinkedList;
 import java.util.List;
-import java.util.ListIterator;
-import java.util.NoSuchElementException;
+import java.util.Map;
 import java.util.Set;
 
 /**
@@ -18,70 +20,21 @@ public class Polygon implements Iterable<Point> {
 
     public static class Builder{
 
-        private List<EdgeGroup> groups;
+        /**
+         * 点列の端点からその点列への対応.
+         * 各点列は環のカーソルの直後が一方の端点、直前がもう一方の端点となるよう保持します
+         */
+        private Map<Point, PointRing> endpoints;
+        private int groupCount = 0;
+        private int loopCount = 0;
+        private PointRing loop;
         private boolean closed = false;
 
         private Set<Edge> edgeSet;
         private Set<Point> solvedPointSet;
 
-        private class EdgeGroup{
-            EdgeGroup(Edge edge){
-                list = new LinkedList<>();
-                list.add(edge.a);
-                list.add(edge.b);
-                p1 = edge.a;
-                p2 = edge.b;
-            }
-            List<Point> list;
-            Point p1,p2;
-            boolean closed(){
-                return Point.isMatch(p1, p2);
-            }
-            boolean merge(EdgeGroup group){
-                if ( p1.equals(group.p1) ){
-                    solvedPointSet.add(p1);
-                    p1 = group.p2;
-                    group.list.remove(0);
-                    for ( Point point : group.list ){
-                        this.list.add(0, point);
-                    }
-                }else if ( p1.equals(group.p2) ){
-                    solvedPointSet.add(p1);
-                    p1 = group.p1;
-                    this.list.remove(0);
-                    group.list.addAll(this.list);
-                    this.list = group.list;
-                }else if ( p2.equals(group.p1) ){
-                    solvedPointSet.add(p2);
-                    p2 = group.p2;
-                    group.list.remove(0);
-                    this.list.addAll(group.list);
-                }else if ( p2.equals(group.p2) ){
-                    solvedPointSet.add(p2);
-                    p2 = group.p1;
-                    for ( int i=group.list.size()-2 ; i>=0 ; i-- ){
-                        this.list.add(group.list.get(i));
-                    }
-                }else{
-                    return false;
-                }
-                return true;
-            }
-            @Override
-            public String toString(){
-                StringBuilder builder = new StringBuilder();
-                builder.append("Builder#Group{point_list:[\n");
-                for ( Point p : list ){
-                    builder.append(p.toString());
-                    builder.append('\n');
-                }
-                builder.append("]}");
-                return builder.toString();
-            }
-        }
-
         public Builder(){
-            groups = new ArrayList<>();
+            endpoints = new HashMap<>();
             edgeSet = new HashSet<>();
             solvedPointSet = new HashSet<>();
         }
@@ -95,16 +48,68 @@ public class Polygon implements Iterable<Point> {
             if ( solvedPointSet.contains(edge.a) || solvedPointSet.contains(edge.b) ){
                 throw new IllegalArgumentException("Point already appended and connected. " + edge.toString());
             }
-            EdgeGroup group = new EdgeGroup(edge);
-
-            for (Iterator<EdgeGroup> iterator = groups.iterator() ; iterator.hasNext() ; ){
-                EdgeGroup next = iterator.next();
-                if ( group.merge(next) ){
-                    iterator.remove();
+            PointRing a = endpoints.remove(edge.a);
+            PointRing b = endpoints.remove(edge.b);
+            if ( a == null && b == null ){
+                PointRing ring = new PointRing();
+                ring.add(edge.a);
+                ring.add(edge.b);
+                endpoints.put(edge.a, ring);
+                endpoints.put(edge.b, ring);
+                groupCount++;
+            }else if ( a == null || b == null ){
+                // 既存の点列の端点を一つ延長する
+                PointRing ring = a == null ? b : a;
+                Point end = a == null ? edge.b : edge.a;
+                Point extension = a == null ? edge.a : edge.b;
+                solvedPointSet.add(end);
+                boolean head = ring.peekNext().equals(end);
+                ring.add(extension);
+                if ( head ) ring.previous();
+                endpoints.put(extension, ring);
+            }else if ( a == b ){
+                // 同じ点列の両端が連結され閉じる
+                solvedPointSet.add(edge.a);
+                solvedPointSet.add(edge.b);
+                loopCount++;
+                // 閉じた辺の一方の端点から始まる順に揃える
+                if ( !a.peekNext().equals(edge.a) ) a.reverse();
+                loop = a;
+            }else{
+                solvedPointSet.add(edge.a);
+                solvedPointSet.add(edge.b);
+                // 短い方の点列を長い方へ挿入する
+                if ( a.size() < b.size() ){
+                    join(b, edge.b, a, edge.a);
+                }else{
+                    join(a, edge.a, b, edge.b);
                 }
+                groupCount--;
+            }
+            closed = groupCount == 1 && loopCount == 1;
+        }
+
+        /**
+         * 点列の端点同士を連結し、一方の点列にまとめます.
+         * 点列は配列上の環として保持するため連結は短い方の点列の長さに比例する計算量を要しますが、
+         * 常に短い方を長い方へ挿入するので各点がコピーされるのは高々log m回であり、m本の辺の連結の総計はO(m log m)です
+         * @param target 連結後の点列
+         * @param targetEnd 連結するtargetの端点
+         * @param source targetへ挿入する点列
+         * @param sourceEnd 連結するsourceの端点
+         */
+        private void join(PointRing target, Point targetEnd, PointRing source, Point sourceEnd){
+            if ( target.peekPrevious().equals(targetEnd) ){
+                // 末尾に続ける
+                if ( !source.peekNext().equals(sourceEnd) ) source.reverse();
+                endpoints.put(source.peekPrevious(), target);
+                target.splice(source);
+            }else{
+                // 先頭の前に挿入し、カーソルは挿入した点列の直前に留める
+                if ( !source.peekPrevious().equals(sourceEnd) ) source.reverse();
+                endpoints.put(source.peekNext(), target);
+                target.spliceNext(source);
             }
-            groups.add(group);
-            closed = groups.size() == 1 && group.closed();
         }
 
         public boolean isClosed(){
@@ -112,12 +117,12 @@ public class Polygon implements Iterable<Point> {
         }
 
         public boolean isLine(){
-            return groups.size() == 1;
+            return groupCount == 1 && loopCount == 0;
         }
 
         public List<Point> getLine(){
             if ( isLine() ){
-                return groups.get(0).list;
+                return endpoints.values().iterator().next().toList();
             }else{
                 return null;
             }
@@ -125,32 +130,8 @@ public class Polygon implements Iterable<Point> {
 
         public Polygon build(){
             if ( closed ){
-                EdgeGroup group = groups.get(0);
-                group.list.remove(group.list.size()-1);
                 // 自己交錯は考慮しない
-                /*
-                final int size = group.list.size();
-                if ( size < 3 ){
-                    return null;
-                }
-                Point p1 = group.list.get(size-2);
-                Point p2 = group.list.get(size-1);
-                double sum = 0.0;
-                for ( Point p3 : group.list ){
-                    double ax = p2.getX() - p1.getX();
-                    double ay = p2.getY() - p1.getY();
-                    double bx = p3.getX() - p2.getX();
-                    double by = p3.getY() - p2.getY();
-                    double cross = ax*by - ay*bx;
-                    double argument = Math.atan( cross / (ax*bx + ay*by));
-                    if ( argument < 0 ) argument += Math.PI;
-                    sum = cross > 0 ? sum + argument : sum - argument;
-                    p1 = p2;
-                    p2 = p3;
-                }*/
-                //if ( Math.abs(Math.PI*2 - Math.abs(sum)) < Setting.error ){
-                    return new Polygon(group.list);
-                //}
+                return new Polygon(loop);
             }
             return null;
         }
@@ -160,11 +141,41 @@ public class Polygon implements Iterable<Point> {
     }
 
     public Polygon(List<? extends Point> points){
+        this(points, null);
+    }
+
+    /**
+     * 座標配列に並ぶ点列から多角形を作成します. 頂点は{@link PointBuffer.PointView}として保持されます
+     */
+    public Polygon(PointBuffer buffer){
+        this(buffer.asList(), null);
+    }
+
+    /**
+     * 環の点列から多角形を作成します. 頂点はカーソルの直後から順に並びます
+     */
+    public Polygon(PointRing ring){
+        this(Arrays.asList(ring.toArray()), null);
+    }
+
+    /**
+     * 穴を持つ多角形を表現します
+     * @param points 外周の頂点
+     * @param holes 穴を表す多角形 穴が無い場合はnullも可
+     */
+    public Polygon(List<? extends Point> points, List<Polygon> holes){
         this.points = new ArrayList<>(points.size());
         this.points.addAll(points);
+        if ( holes == null || holes.isEmpty() ){
+            this.holes = Collections.emptyList();
+        }else{
+            this.holes = Collections.unmodifiableList(new ArrayList<>(holes));
+        }
     }
 
     private List<Point> points;
+    private List<Polygon> holes;
+    private volatile SlabIndex index;
 
     public int size(){
         return points.size();
@@ -179,6 +190,60 @@ public class Polygon implements Iterable<Point> {
         return points;
     }
 
+    /**
+     * この多角形の穴を取得します
+     * @return 穴が無い場合は空のリスト
+     */
+    public List<Polygon> getHoles(){
+        return holes;
+    }
+
+    public boolean hasHole(){
+        return !holes.isEmpty();
+    }
+
+    /**
+     * 外周の符号付き面積を計算します
+     * @return 頂点が左回り（反時計回り）に並ぶ場合は正の値
+     */
+    public double getSignedArea(){
+        return getSignedArea(points);
+    }
+
+    static double getSignedArea(List<Point> list){
+        final int size = list.size();
+        double sum = 0.0;
+        Point previous = list.get(size-1);
+        for ( Point next : list ){
+            sum += previous.getX() * next.getY() - next.getX() * previous.getY();
+            previous = next;
+        }
+        return sum / 2;
+    }
+
+    /**
+     * 点が閉じた点列の内部に含まれるか判定します（境界上の扱いは不定）
+     */
+    static boolean contains(List<Point> list, double x, double y){
+        boolean inside = false;
+        Point previous = list.get(list.size()-1);
+        for ( Point next : list ){
+            if ( (next.getY() > y) != (previous.getY() > y) ){
+                double cx = previous.getX() + (y - previous.getY()) * (next.getX() - previous.getX()) / (next.getY() - previous.getY());
+                if ( x < cx ) inside = !inside;
+            }
+            previous = next;
+        }
+        return inside;
+    }
+
+    /**
+     * 外周の頂点の座標を配列にコピーします
+     */
+    public PointBuffer toPointBuffer(){
+        return PointBuffer.of(points);
+    }
+
     public List<Edge> getEdges(){
         List<Edge> list = new ArrayList<>(size());
         Point previous = points.get(size()-1);
@@ -189,6 +254,197 @@ public class Polygon implements Iterable<Point> {
         return list;
     }
 
+    /**
+     * 指定した点がこの多角形の内部に含まれるか判定します.<br>
+     * 初回の呼び出し時に頂点のｙ座標で平面を帯状に分割した索引を作成し、
+     * 以降は帯と帯内の辺をそれぞれ二分探索するのでO(log n)で判定できます.
+     * 穴の内部は含まれません.
+     * <strong>NOTE </strong>境界上の点の判定結果は保証されません. 複数のスレッドから同時に呼び出せます
+     * @return 内部に含まれる場合はtrue
+     */
+    public boolean containsPoint(Point point){
+        return getIndex().contains(point.getX(), point.getY());
+    }
+
+    public boolean containsPoint(double x, double y){
+        return getIndex().contains(x, y);
+    }
+
+    /**
+     * 複数の点をまとめて判定します
+     * @param x 判定する点のｘ座標
+     * @param y 判定する点のｙ座標
+     * @param results 結果の書き込み先 長さは{@code x, y}と同じかそれ以上
+     * @see #containsPoint(Point)
+     */
+    public void containsPoints(double[] x, double[] y, boolean[] results){
+        if ( x.length != y.length || results.length < x.length ){
+            throw new IllegalArgumentException("array length mismatch");
+        }
+        final SlabIndex index = getIndex();
+        for ( int i=0 ; i<x.length ; i++ ){
+            results[i] = index.contains(x[i], y[i]);
+        }
+    }
+
+    /**
+     * 複数の点をまとめて判定します
+     * @return 各点の判定結果
+     * @see #containsPoint(Point)
+     */
+    public boolean[] containsPoints(List<? extends Point> points){
+        final SlabIndex index = getIndex();
+        boolean[] results = new boolean[points.size()];
+        int i = 0;
+        for ( Point p : points ){
+            results[i++] = index.contains(p.getX(), p.getY());
+        }
+        return results;
+    }
+
+    private SlabIndex getIndex(){
+        SlabIndex index = this.index;
+        if ( index == null ){
+            synchronized ( this ){
+                index = this.index;
+                if ( index == null ){
+                    index = new SlabIndex(this);
+                    this.index = index;
+                }
+            }
+        }
+        return index;
+    }
+
+    /**
+     * 頂点のｙ座標で区切った帯ごとに、その帯を横切る辺をｘ座標順に並べた索引.
+     * 単純多角形の辺は帯の内部で交差しないので、帯内の辺の順序はｙ座標に依らず一定です.
+     * 点の左側にある辺の数の偶奇で内外を判定します
+     */
+    private static class SlabIndex{
+
+        SlabIndex(Polygon polygon){
+            List<List<Point>> rings = new ArrayList<>();
+            rings.add(polygon.points);
+            for ( Polygon hole : polygon.holes ) rings.add(hole.points);
+
+            int cnt = 0;
+            for ( List<Point> ring : rings ) cnt += ring.size();
+            double[] ys = new double[cnt];
+            double[] x1 = new double[cnt];
+            double[] y1 = new double[cnt];
+            double[] x2 = new double[cnt];
+            double[] y2 = new double[cnt];
+            int edgeCnt = 0;
+            cnt = 0;
+            for ( List<Point> ring : rings ){
+                Point previous = ring.get(ring.size()-1);
+                for ( Point next : ring ){
+                    // -0.0 と 0.0 を同一視する
+                    ys[cnt++] = next.getY() + 0.0;
+                    if ( previous.getY() != next.getY() ){
+                        // 下端がp1となるよう整理 水平な辺は無視
+                        boolean upward = previous.getY() < next.getY();
+                        Point p1 = upward ? previous : next;
+                        Point p2 = upward ? next : previous;
+                        x1[edgeCnt] = p1.getX();
+                        y1[edgeCnt] = p1.getY() + 0.0;
+                        x2[edgeCnt] = p2.getX();
+                        y2[edgeCnt] = p2.getY() + 0.0;
+                        edgeCnt++;
+                    }
+                    previous = next;
+                }
+            }
+            Arrays.sort(ys);
+            int length = 0;
+            for ( int i=0 ; i<ys.length ; i++ ){
+                if ( length == 0 || ys[i] != ys[length-1] ) ys[length++] = ys[i];
+            }
+            slabY = Arrays.copyOf(ys, length);
+            final int slabCnt = Math.max(length - 1, 0);
+
+            slabStart = new int[slabCnt + 1];
+            int[] from = new int[edgeCnt];
+            int[] to = new int[edgeCnt];
+            for ( int i=0 ; i<edgeCnt ; i++ ){
+                from[i] = Arrays.binarySearch(slabY, y1[i]);
+                to[i] = Arrays.binarySearch(slabY, y2[i]);
+                for ( int j=from[i] ; j<to[i] ; j++ ) slabStart[j+1]++;
+            }
+            for ( int j=0 ; j<slabCnt ; j++ ) slabStart[j+1] += slabStart[j];
+            final int total = slabStart[slabCnt];
+            entryX = new double[total];
+            entryY = new double[total];
+            entrySlope = new double[total];
+            int[] position = Arrays.copyOf(slabStart, slabCnt);
+            final double[] key = new double[total];
+            for ( int i=0 ; i<edgeCnt ; i++ ){
+                double slope = (x2[i] - x1[i]) / (y2[i] - y1[i]);
+                for ( int j=from[i] ; j<to[i] ; j++ ){
+                    int k = position[j]++;
+                    // 原点から遠い辺で桁落ちしないよう下端の座標を基準に保持する
+                    entryX[k] = x1[i];
+                    entryY[k] = y1[i];
+                    entrySlope[k] = slope;
+                    key[k] = x1[i] + slope * ((slabY[j] + slabY[j+1]) / 2 - y1[i]);
+                }
+            }
+            // 各帯の中央におけるｘ座標で辺を整列
+            Integer[] order = new Integer[total];
+            for ( int k=0 ; k<total ; k++ ) order[k] = k;
+            Comparator<Integer> comparator = new Comparator<Integer>() {
+                @Override
+                public int compare(Integer o1, Integer o2) {
+                    return Double.compare(key[o1], key[o2]);
+                }
+            };
+            double[] sortedX = new double[total];
+            double[] sortedY = new double[total];
+            double[] sortedSlope = new double[total];
+            for ( int j=0 ; j<slabCnt ; j++ ){
+                Arrays.sort(order, slabStart[j], slabStart[j+1], comparator);
+                for ( int k=slabStart[j] ; k<slabStart[j+1] ; k++ ){
+                    sortedX[k] = entryX[order[k]];
+                    sortedY[k] = entryY[order[k]];
+                    sortedSlope[k] = entrySlope[order[k]];
+                }
+            }
+            entryX = sortedX;
+            entryY = sortedY;
+            entrySlope = sortedSlope;
+        }
+
+        private final double[] slabY;
+        private final int[] slabStart;
+        /**
+         * 帯を横切る辺の下端の座標と傾き（ｙに対するｘの変化）
+         */
+        private double[] entryX, entryY, entrySlope;
+
+        boolean contains(double x, double y){
+            final int length = slabY.length;
+            if ( length < 2 || y < slabY[0] || y >= slabY[length-1] ) return false;
+            // y in [slabY[slab], slabY[slab+1])
+            int slab = Arrays.binarySearch(slabY, y + 0.0);
+            if ( slab < 0 ) slab = -slab - 2;
+            int low = slabStart[slab];
+            int high = slabStart[slab+1];
+            final int start = low;
+            // 点より左側にある辺の数を数える
+            while ( low < high ){
+                int mid = (low + high) >>> 1;
+                if ( entryX[mid] + entrySlope[mid] * (y - entryY[mid]) < x ){
+                    low = mid + 1;
+                }else{
+                    high = mid;
+                }
+            }
+            return ((low - start) & 1) == 1;
+        }
+
+    }
+
     public Rectangle getRectBound(){
         double left = Double.MAX_VALUE;
         double right = -Double.MAX_VALUE;
@@ -217,253 +473,194 @@ public class Polygon implements Iterable<Point> {
         return builder.toString();
     }
 
-    public static class LoopIterator<E> implements ListIterator<E>{
-
-        LoopIterator(List<E> list, int startIndex, boolean forward){
-            if ( startIndex < 0 || startIndex >= list.size() ){
-                throw new IndexOutOfBoundsException();
-            }
-            mSize = list.size();
-            mList = list;
-            mCurrentIndex = startIndex;
-            mDirection = forward ? 1 : -1;
-            reset();
-        }
-
-        LoopIterator(List<E> list, int startIndex){
-            this(list, startIndex, true);
-        }
-
-        LoopIterator(List<E> list){
-            this(list, 0, true);
-        }
-
-        private final List<E> mList;
-        private int mSize;
-        private int mDirection;
-        private int mStartIndex;
-        private int mCurrentIndex;
-        private int mCanRemove;
+    /**
+     * 隣接する複数の多角形を結合します.<br>
+     * 各多角形を左回りの有向辺の集合として扱い、隣接する多角形と共有する辺は向きが逆の有向辺として
+     * 必ず対で現れることを利用します. 逆向きの辺が既に登録されていれば両者を打ち消し、
+     * 最後に残った有向辺を連結すると結合後の外周（左回り）と穴（右回り）が得られます.
+     * 辺の探索はハッシュで行うため、辺の総数mに対してO(m)で処理できます.<br>
+     * <strong>NOTE </strong>共有する辺の端点は{@link Point#equals(Object)}で一致する必要があります.
+     * 辺の一部のみを共有するような（T字型に接する）多角形は考慮しません.
+     */
+    public static class MergeBuilder{
 
-        public E peekNext(){
-            return hasNext() ? mList.get(mCurrentIndex%mSize) : null;
+        public MergeBuilder(){
+            mEdges = new HashSet<>();
         }
 
-        public E peekPrevious(){
-            return hasPrevious() ? mList.get((mCurrentIndex - mDirection) % mSize) : null;
-        }
+        private final Set<DirectedEdge> mEdges;
 
-        @Override
-        public E next(){
-            if ( hasNext() ) {
-                mCanRemove = 1;
-                E next = mList.get(mCurrentIndex % mSize);
-                mCurrentIndex += mDirection;
-                return next;
+        private static class DirectedEdge{
+            DirectedEdge(Point from, Point to){
+                this.from = from;
+                this.to = to;
             }
-            throw new NoSuchElementException();
-        }
-
-        @Override
-        public boolean hasPrevious() {
-            return previousIndex() > mStartIndex - mSize && previousIndex() < mStartIndex + mSize;
-        }
-
-        @Override
-        public E previous() {
-            if ( hasPrevious() ){
-                mCanRemove = 0;
-                mCurrentIndex -= mDirection;
-                return mList.get(mCurrentIndex % mSize);
+            final Point from, to;
+            @Override
+            public boolean equals(Object other){
+                if ( other instanceof DirectedEdge ){
+                    DirectedEdge edge = (DirectedEdge)other;
+                    return from.equals(edge.from) && to.equals(edge.to);
+                }
+                return false;
             }
-            throw new NoSuchElementException();
-        }
-
-        @Override
-        public int nextIndex() {
-            return mCurrentIndex;
-        }
-
-        @Override
-        public int previousIndex() {
-            return mCurrentIndex - mDirection;
-        }
-
-        @Override
-        public void remove() {
-            if ( mCanRemove < 0 ){
-                throw new IllegalStateException();
+            @Override
+            public int hashCode(){
+                int result = 17;
+                result = result * 31 + from.hashCode();
+                result = result * 31 + to.hashCode();
+                return result;
             }
-            final int targetIndex = mCurrentIndex - mDirection*mCanRemove;
-            mList.remove(targetIndex % mSize);
-            mCanRemove = -1;
-            if ( targetIndex%mSize < mStartIndex%mSize ) mStartIndex--;
-            mSize--;
-            mCurrentIndex = mDirection > 0 ? targetIndex - 1 : targetIndex - 2;
-            mStartIndex--;
-        }
-
-        @Override
-        public void set(E e) {
-            throw new UnsupportedOperationException();
-        }
-
-        @Override
-        public boolean hasNext(){
-            return nextIndex() > mStartIndex - mSize && nextIndex() < mStartIndex + mSize;
-        }
-
-        public void changeDirection(){
-            setDirection(mDirection < 0);
-        }
-
-        public void setDirection(boolean forward){
-            if ( forward == mDirection > 0 ) return;
-            mDirection = -mDirection;
-            mCurrentIndex = mCurrentIndex + mDirection;
-            reset();
-        }
-
-        public void reset(){
-            mStartIndex = mCurrentIndex%mSize + mSize;
-            mCurrentIndex = mStartIndex;
-            mCanRemove = -1;
-        }
-
-        @Override
-        public void add(E element){
-            mCanRemove = -1;
-            final int targetIndex = mDirection > 0 ? mCurrentIndex : mCurrentIndex + 1;
-            mList.add(targetIndex%mSize, element);
-            if ( targetIndex%mSize <= mStartIndex%mSize ) mStartIndex++;
-            mSize++;
-            mCurrentIndex = mDirection > 0 ? targetIndex + 2 : targetIndex;
-            mStartIndex++;
-        }
-
-    }
-
-    public static class MergeBuilder{
-
-        public MergeBuilder(){
-            mList = new LinkedList<>();
         }
 
+        /**
+         * 多角形を追加します. 穴を持つ多角形は穴の点列を外周と逆の右回りの有向辺として追加するため、
+         * この結合の結果を再び追加しても穴は保たれます
+         */
         public void append(Polygon polygon){
-            Entry entry = new Entry(polygon);
-            for ( ListIterator<Entry> iterator = mList.listIterator() ; iterator.hasNext() ; ){
-                Entry item = iterator.next();
-                if ( entry.merge(item) ) iterator.remove();
+            appendRing(polygon.points, true);
+            for ( Polygon hole : polygon.holes ){
+                appendRing(hole.points, false);
             }
-            mList.add(entry);
         }
 
-        public List<Polygon> build(){
-            List<Polygon> polygons = new ArrayList<>(mList.size());
-            for ( Entry item : mList ){
-                if ( item.mHasHollow ){
-                    return null;
+        /**
+         * @param outer 外周なら左回り、穴なら右回りの有向辺として追加する
+         */
+        private void appendRing(List<Point> list, boolean outer){
+            final int size = list.size();
+            final boolean forward = (getSignedArea(list) > 0) == outer;
+            for ( int i=0 ; i<size ; i++ ){
+                Point p1 = list.get(i);
+                Point p2 = list.get((i+1)%size);
+                DirectedEdge edge = forward ? new DirectedEdge(p1, p2) : new DirectedEdge(p2, p1);
+                if ( !mEdges.remove(new DirectedEdge(edge.to, edge.from)) ){
+                    mEdges.add(edge);
                 }
-                polygons.add(new Polygon(item.mPointList));
             }
-            return polygons;
         }
 
-        private final List<Entry> mList;
-
-        private static class Entry{
-
-            Entry(Polygon polygon){
-                mPointList = new LinkedList<>();
-                mPointSet = new HashSet<>();
-                mHasHollow = false;
+        /**
+         * 結合した結果を取得します
+         * @return 互いに離れた領域ごとの多角形 外周は左回り、穴は右回りで{@link Polygon#getHoles()}に含まれます
+         */
+        public List<Polygon> build(){
+            Map<Point, List<Point>> outgoing = new HashMap<>();
+            for ( DirectedEdge edge : mEdges ){
+                List<Point> list = outgoing.get(edge.from);
+                if ( list == null ){
+                    list = new ArrayList<>(2);
+                    outgoing.put(edge.from, list);
+                }
+                list.add(edge.to);
             }
-
-            final List<Point> mPointList;
-            final Set<Point> mPointSet;
-            boolean mHasHollow;
-
-
-            boolean merge(Entry entry){
-                final List<Point> list = entry.mPointList;
-                final int size = list.size();
-                for ( int i=0 ; i<size ; i++ ){
-                    if ( mPointSet.contains(list.get(i)) ){
-                        int j = 0;
-                        for ( ; j<mPointList.size() ; j++ ){
-                            if ( mPointList.get(j).equals(list.get(i)) ) break;
-                        }
-                        LoopIterator<Point> self = new LoopIterator<Point>(mPointList, j);
-                        LoopIterator<Point> other = new LoopIterator<Point>(list, i);
-                        other.next();
-                        Point next = other.peekNext();
-                        other.previous();
-                        Point previous = self.peekPrevious();
-                        self.next();
-                        if ( self.peekNext().equals(next) ){
-                            self.previous();
-                            merge(self, other);
-                        }else if ( previous.equals(next) ){
-                            self.setDirection(false);
-                            merge(self, other);
-                        }else{
-                            return false;
-                        }
-                        return true;
-                    }
+            List<List<Point>> outers = new ArrayList<>();
+            List<List<Point>> hollows = new ArrayList<>();
+            for ( DirectedEdge edge : mEdges ){
+                List<Point> ring = traverse(edge, outgoing);
+                if ( ring == null ) continue;
+                if ( getSignedArea(ring) > 0 ){
+                    outers.add(ring);
+                }else{
+                    hollows.add(ring);
                 }
-                return false;
             }
-
-            private void merge(LoopIterator<Point> self, LoopIterator<Point> other){
-                while ( true ){
-                    Point nextSelf = self.peekNext();
-                    Point nextOther = other.peekNext();
-                    if ( !nextOther.equals(nextSelf) ) break;
-                    self.next();
-                    self.remove();
-                    other.next();
-                    mPointSet.remove(nextSelf);
+            // 各穴を、それを含む外周のうち面積が最小のものに割り当てる
+            final int size = outers.size();
+            double[] areas = new double[size];
+            Rectangle[] bounds = new Rectangle[size];
+            List<List<Polygon>> holes = new ArrayList<>(size);
+            // 外周の頂点の集合は穴の外接矩形を含む外周についてのみ、外周ごとに一度だけ作成する
+            List<Set<Point>> vertices = new ArrayList<>(size);
+            for ( int i=0 ; i<size ; i++ ){
+                Polygon outer = new Polygon(outers.get(i));
+                areas[i] = outer.getSignedArea();
+                bounds[i] = outer.getRectBound();
+                holes.add(new ArrayList<Polygon>());
+                vertices.add(null);
+            }
+            for ( List<Point> hollow : hollows ){
+                Polygon hole = new Polygon(hollow);
+                Rectangle bound = hole.getRectBound();
+                int target = -1;
+                for ( int i=0 ; i<size ; i++ ){
+                    if ( target >= 0 && areas[i] >= areas[target] ) continue;
+                    if ( !contains(bounds[i], bound) ) continue;
+                    Set<Point> vertex = vertices.get(i);
+                    if ( vertex == null ){
+                        vertex = new HashSet<>(outers.get(i));
+                        vertices.set(i, vertex);
+                    }
+                    if ( isInside(hollow, outers.get(i), vertex) ) target = i;
                 }
-                self.changeDirection();
-                final boolean hasHollow = mHasHollow;
-                while( other.hasNext() ){
-                    Point next = other.next();
-                    if ( !mPointSet.add(next) ) mHasHollow = true;
-                    self.add(next);
+                if ( target < 0 ){
+                    throw new IllegalStateException("hole not enclosed by any boundary");
                 }
-                if ( hasHollow ) mHasHollow = checkHollow();
+                holes.get(target).add(hole);
+            }
+            List<Polygon> polygons = new ArrayList<>(size);
+            for ( int i=0 ; i<size ; i++ ){
+                polygons.add(new Polygon(outers.get(i), holes.get(i)));
             }
+            return polygons;
+        }
 
-            private boolean checkHollow(){
-                Point previous = mPointList.get(mPointList.size()-1);
-                final int size = mPointList.size();
-                for ( int i=0 ; i<size ; i++ ){
-                    Point next  = mPointList.get(i);
-                    if ( next.equals(previous) ){
-                        int start = size + i -1;
-                        int end = size + i;
-                        while ( mPointList.get(start%size).equals(mPointList.get(end%size)) ){
-                            start--;
-                            end++;
-                        }
-                        LoopIterator<Point> iterator = new LoopIterator<Point>(mPointList, start%size);
-                        for ( i=0 ; i<= end-start ; i++ ){
-                            iterator.next();
-                            iterator.remove();
-                        }
-                        mPointSet.clear();
-                        boolean hollow = false;
-                        for ( Point point : mPointList ){
-                            if ( !mPointSet.add(point) ) hollow = true;
+        /**
+         * 指定した有向辺から始まる閉路を辿り、通過した辺を消費します.
+         * 複数の辺が出る頂点（領域が一点で接する箇所）では最も左へ曲がる辺を選び、閉路を分離します
+         * @return 既に消費された辺の場合はnull
+         */
+        private List<Point> traverse(DirectedEdge start, Map<Point, List<Point>> outgoing){
+            List<Point> first = outgoing.get(start.from);
+            if ( first == null || !first.remove(start.to) ) return null;
+            List<Point> ring = new ArrayList<>();
+            ring.add(start.from);
+            Point previous = start.from;
+            Point current = start.to;
+            while ( !current.equals(start.from) ){
+                ring.add(current);
+                List<Point> candidates = outgoing.get(current);
+                if ( candidates == null || candidates.isEmpty() ){
+                    throw new IllegalStateException("boundary not closed at " + current.toString());
+                }
+                int index = 0;
+                if ( candidates.size() > 1 ){
+                    double ax = current.getX() - previous.getX();
+                    double ay = current.getY() - previous.getY();
+                    double max = -Double.MAX_VALUE;
+                    for ( int i=0 ; i<candidates.size() ; i++ ){
+                        Point p = candidates.get(i);
+                        double bx = p.getX() - current.getX();
+                        double by = p.getY() - current.getY();
+                        double angle = Math.atan2(ax*by - ay*bx, ax*bx + ay*by);
+                        if ( angle > max ){
+                            max = angle;
+                            index = i;
                         }
-                        return hollow;
                     }
-                    previous = next;
                 }
-                return mHasHollow;
+                Point next = candidates.remove(index);
+                previous = current;
+                current = next;
             }
+            return ring;
+        }
+
+        private static boolean contains(Rectangle outer, Rectangle inner){
+            return outer.left <= inner.left && inner.right <= outer.right
+                    && outer.bottom <= inner.bottom && inner.top <= outer.top;
+        }
 
+        /**
+         * @param vertex 外周の頂点の集合
+         */
+        private static boolean isInside(List<Point> hollow, List<Point> outer, Set<Point> vertex){
+            for ( Point p : hollow ){
+                if ( vertex.contains(p) ) continue;
+                return Polygon.contains(outer, p.getX(), p.getY());
+            }
+            // 全ての頂点を共有する場合
+            return true;
         }
 
     }
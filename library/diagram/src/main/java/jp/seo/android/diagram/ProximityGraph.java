@@ -0,0 +1,364 @@
+package jp.seo.android.diagram;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * 解決済みのドロネー分割から、その部分グラフである近接グラフを抽出します.<br>
+ * ユークリッド最小全域木 ⊂ 相対近傍グラフ ⊂ ガブリエルグラフ ⊂ ドロネー分割 の包含関係を利用し、
+ * いずれもドロネー分割の辺のみを候補として調べます. 各辺の判定は{@link MultiThreadTask}により複数のスレッドで分担し、
+ * 結果は点の添字の組を並べたint配列{@code [a0, b0, a1, b1, ...]}で返します. 添字の点は{@link #getPoint(int)}で参照します
+ * @author Seo-4d696b75
+ * @version 2026/10/19
+ */
+public class ProximityGraph {
+
+    /**
+     * @param diagram {@link DelaunayDiagram#split(Rectangle)}などで解決済みの分割
+     * @param threads 計算に用いるスレッドの数
+     */
+    public ProximityGraph(DelaunayDiagram diagram, int threads){
+        Map<Edge, DelaunayDiagram.TrianglePair> map = diagram.getEdgeTriangleMap();
+        if ( map == null ){
+            throw new IllegalStateException("not solved yet");
+        }
+        this.threads = Math.max(threads, 1);
+        Map<Point, Integer> index = new HashMap<>();
+        for ( Edge edge : map.keySet() ){
+            if ( !index.containsKey(edge.a) ) index.put(edge.a, index.size());
+            if ( !index.containsKey(edge.b) ) index.put(edge.b, index.size());
+        }
+        final int size = index.size();
+        points = new Point[size];
+        x = new double[size];
+        y = new double[size];
+        for ( Map.Entry<Point, Integer> entry : index.entrySet() ){
+            int i = entry.getValue();
+            points[i] = entry.getKey();
+            x[i] = entry.getKey().getX();
+            y[i] = entry.getKey().getY();
+        }
+        final int count = map.size();
+        edgeA = new int[count];
+        edgeB = new int[count];
+        apex1 = new int[count];
+        apex2 = new int[count];
+        int i = 0;
+        for ( Map.Entry<Edge, DelaunayDiagram.TrianglePair> entry : map.entrySet() ){
+            Edge edge = entry.getKey();
+            DelaunayDiagram.TrianglePair pair = entry.getValue();
+            edgeA[i] = index.get(edge.a);
+            edgeB[i] = index.get(edge.b);
+            apex1[i] = getApex(index, edge, pair.getTriangle1());
+            apex2[i] = getApex(index, edge, pair.getTriangle2());
+            i++;
+        }
+        offset = new int[size + 1];
+        incident = new int[count * 2];
+        for ( i=0 ; i<count ; i++ ){
+            offset[edgeA[i] + 1]++;
+            offset[edgeB[i] + 1]++;
+        }
+        for ( i=0 ; i<size ; i++ ){
+            offset[i+1] += offset[i];
+        }
+        int[] position = Arrays.copyOf(offset, size);
+        for ( i=0 ; i<count ; i++ ){
+            incident[position[edgeA[i]]++] = i;
+            incident[position[edgeB[i]]++] = i;
+        }
+    }
+
+    /**
+     * 一つのスレッドが一度に判定する辺の数
+     */
+    private static final int CHUNK_SIZE = 1024;
+
+    private final int threads;
+    private final Point[] points;
+    private final double[] x, y;
+    private final int[] edgeA, edgeB;
+    /**
+     * 辺を共有する三角形の辺の対頂点の添字 凸包上の辺の外側など存在しない場合は-1
+     */
+    private final int[] apex1, apex2;
+    /**
+     * i番目の点を端点にもつ辺の添字は{@code incident[offset[i]]~incident[offset[i+1]-1]}
+     */
+    private final int[] offset, incident;
+
+    private static int getApex(Map<Point, Integer> index, Edge edge, Triangle triangle){
+        if ( triangle == null ) return -1;
+        Integer value = index.get(getVertex(edge, triangle));
+        // 外周の辺の外側には外接三角形の頂点が対応している
+        return value == null ? -1 : value;
+    }
+
+    private static Point getVertex(Edge edge, Triangle triangle){
+        if ( !triangle.a.equals(edge.a) && !triangle.a.equals(edge.b) ) return triangle.a;
+        if ( !triangle.b.equals(edge.a) && !triangle.b.equals(edge.b) ) return triangle.b;
+        return triangle.c;
+    }
+
+    /**
+     * @return 点の数
+     */
+    public int size(){
+        return points.length;
+    }
+
+    public Point getPoint(int index){
+        return points[index];
+    }
+
+    /**
+     * @return ドロネー分割の全ての辺
+     */
+    public int[] getDelaunayEdges(){
+        boolean[] keep = new boolean[edgeA.length];
+        Arrays.fill(keep, true);
+        return toArray(keep);
+    }
+
+    /**
+     * 直径の円の内部および円周上に他の点を含まない辺を抽出します.
+     * ドロネー分割の辺については、辺を共有する二つの三角形の対頂点のみ調べれば十分です
+     * @return ガブリエルグラフの辺
+     */
+    public int[] getGabrielGraph(){
+        final boolean[] keep = new boolean[edgeA.length];
+        forEachChunk(new ChunkTask() {
+            @Override
+            public void process(int start, int end, Scratch scratch) {
+                for ( int i=start ; i<end ; i++ ){
+                    keep[i] = isGabriel(i);
+                }
+            }
+        });
+        return toArray(keep);
+    }
+
+    /**
+     * 両端点からの距離がいずれも辺の長さ未満となる点（辺の両端点を中心とする二円の共通部分の内部）を含まない辺を抽出します.
+     * ガブリエルグラフの辺のみを候補とし、一方の端点を中心とする円の内部の点は
+     * ドロネー分割上で連結であることを利用して端点から辿って調べます
+     * @return 相対近傍グラフの辺
+     */
+    public int[] getRelativeNeighborhoodGraph(){
+        final boolean[] keep = new boolean[edgeA.length];
+        forEachChunk(new ChunkTask() {
+            @Override
+            public void process(int start, int end, Scratch scratch) {
+                for ( int i=start ; i<end ; i++ ){
+                    keep[i] = isGabriel(i) && isRelativeNeighbor(i, scratch);
+                }
+            }
+        });
+        return toArray(keep);
+    }
+
+    /**
+     * Borůvka法により最小全域木を求めます. 各連結成分から出る最短の辺を点ごとに並列に探し、成分ごとに集約して併合します.
+     * 同じ長さの辺は添字の順で比較し閉路が生じないようにします
+     * @return ユークリッド最小全域木の辺 点が連結でない場合は全域森
+     */
+    public int[] getMinimumSpanningTree(){
+        final int size = points.length;
+        final double[] length = new double[edgeA.length];
+        for ( int i=0 ; i<edgeA.length ; i++ ){
+            length[i] = distance(edgeA[i], edgeB[i]);
+        }
+        final int[] parent = new int[size];
+        for ( int i=0 ; i<size ; i++ ) parent[i] = i;
+        final int[] component = new int[size];
+        final int[] cheapest = new int[size];
+        int[] componentBest = new int[size];
+        boolean[] keep = new boolean[edgeA.length];
+        boolean merged = true;
+        while ( merged ){
+            merged = false;
+            for ( int i=0 ; i<size ; i++ ) component[i] = find(parent, i);
+            // 各点から別の成分へ向かう最短の辺
+            forEachPoint(new ChunkTask() {
+                @Override
+                public void process(int start, int end, Scratch scratch) {
+                    for ( int v=start ; v<end ; v++ ){
+                        int best = -1;
+                        for ( int k=offset[v] ; k<offset[v+1] ; k++ ){
+                            int e = incident[k];
+                            if ( component[edgeA[e]] == component[edgeB[e]] ) continue;
+                            if ( best < 0 || isShorter(length, e, best) ) best = e;
+                        }
+                        cheapest[v] = best;
+                    }
+                }
+            });
+            Arrays.fill(componentBest, -1);
+            for ( int v=0 ; v<size ; v++ ){
+                int e = cheapest[v];
+                if ( e < 0 ) continue;
+                int c = component[v];
+                if ( componentBest[c] < 0 || isShorter(length, e, componentBest[c]) ) componentBest[c] = e;
+            }
+            for ( int c=0 ; c<size ; c++ ){
+                int e = componentBest[c];
+                if ( e < 0 ) continue;
+                int a = find(parent, edgeA[e]);
+                int b = find(parent, edgeB[e]);
+                if ( a == b ) continue;
+                parent[a] = b;
+                keep[e] = true;
+                merged = true;
+            }
+        }
+        return toArray(keep);
+    }
+
+    private static boolean isShorter(double[] length, int e1, int e2){
+        return length[e1] < length[e2] || ( length[e1] == length[e2] && e1 < e2 );
+    }
+
+    private static int find(int[] parent, int i){
+        int root = i;
+        while ( parent[root] != root ) root = parent[root];
+        while ( parent[i] != root ){
+            int next = parent[i];
+            parent[i] = root;
+            i = next;
+        }
+        return root;
+    }
+
+    private boolean isGabriel(int e){
+        return isOutsideDiameter(e, apex1[e]) && isOutsideDiameter(e, apex2[e]);
+    }
+
+    private boolean isOutsideDiameter(int e, int c){
+        if ( c < 0 ) return true;
+        int a = edgeA[e];
+        int b = edgeB[e];
+        double dot = (x[a] - x[c]) * (x[b] - x[c]) + (y[a] - y[c]) * (y[b] - y[c]);
+        return dot > 0;
+    }
+
+    private boolean isRelativeNeighbor(int e, Scratch scratch){
+        final int a = edgeA[e];
+        final int b = edgeB[e];
+        final double limit = distance(a, b);
+        int stamp = scratch.nextStamp();
+        int[] stack = scratch.stack;
+        int top = 0;
+        scratch.mark[a] = stamp;
+        stack[top++] = a;
+        while ( top > 0 ){
+            int current = stack[--top];
+            for ( int k=offset[current] ; k<offset[current+1] ; k++ ){
+                int i = incident[k];
+                int next = edgeA[i] == current ? edgeB[i] : edgeA[i];
+                if ( scratch.mark[next] == stamp ) continue;
+                scratch.mark[next] = stamp;
+                // 端点Aを中心とする円の内部のみ辿る
+                double da = distance(a, next);
+                if ( da > limit ) continue;
+                if ( next != b && da < limit && distance(b, next) < limit ) return false;
+                if ( top == stack.length ){
+                    stack = scratch.stack = Arrays.copyOf(stack, top * 2);
+                }
+                stack[top++] = next;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return 距離の二乗
+     */
+    private double distance(int a, int b){
+        double dx = x[a] - x[b];
+        double dy = y[a] - y[b];
+        return dx * dx + dy * dy;
+    }
+
+    private int[] toArray(boolean[] keep){
+        int count = 0;
+        for ( boolean k : keep ) if ( k ) count++;
+        int[] array = new int[count * 2];
+        int j = 0;
+        for ( int i=0 ; i<keep.length ; i++ ){
+            if ( keep[i] ){
+                array[j++] = edgeA[i];
+                array[j++] = edgeB[i];
+            }
+        }
+        return array;
+    }
+
+    /**
+     * スレッドごとに再利用する作業領域
+     */
+    private class Scratch {
+
+        private final int[] mark = new int[points.length];
+        private int[] stack = new int[64];
+        private int stamp;
+
+        private int nextStamp(){
+            if ( ++stamp == Integer.MAX_VALUE ){
+                Arrays.fill(mark, 0);
+                stamp = 1;
+            }
+            return stamp;
+        }
+    }
+
+    private interface ChunkTask {
+        void process(int start, int end, Scratch scratch);
+    }
+
+    private void forEachChunk(ChunkTask task){
+        forEachRange(edgeA.length, task);
+    }
+
+    private void forEachPoint(ChunkTask task){
+        forEachRange(points.length, task);
+    }
+
+    /**
+     * いずれかのスレッドで例外が発生した場合は残りの範囲を処理せず、最初の例外を投げます
+     */
+    private void forEachRange(final int size, final ChunkTask chunk){
+        // MultiThreadTask は例外を捕捉して処理を続けるため、ここで記録して呼び出し元へ投げる
+        final AtomicReference<RuntimeException> failure = new AtomicReference<>();
+        MultiThreadTask<Integer, Void> task = new MultiThreadTask<Integer, Void>() {
+            @Override
+            protected ProcessThread getProcessThread() {
+                return new ProcessThread() {
+
+                    private Scratch scratch;
+
+                    @Override
+                    protected Void process(Integer start) {
+                        if ( failure.get() != null ) return null;
+                        try{
+                            if ( scratch == null ) scratch = new Scratch();
+                            chunk.process(start, Math.min(start + CHUNK_SIZE, size), scratch);
+                        }catch (RuntimeException e){
+                            failure.compareAndSet(null, e);
+                        }
+                        return null;
+                    }
+                };
+            }
+        };
+        task.start(threads);
+        for ( int i=0 ; i<size ; i+=CHUNK_SIZE ){
+            task.enqueue(i);
+        }
+        task.waitForCompletion();
+        RuntimeException e = failure.get();
+        if ( e != null ) throw e;
+    }
+
+}
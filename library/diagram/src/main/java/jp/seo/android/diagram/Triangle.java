@@ -80,7 +80,6 @@ public class Triangle {
     public final Point a,b,c;
 
     private Circle circumscribed;
-    private Edge ab, bc, ca;
 
     @Override
     public String toString(){
@@ -105,50 +104,62 @@ public class Triangle {
         return result;
     }
 
-    private void setEdge(){
-        if ( ab == null || bc == null || ca == null ){
-            ab = new Edge(a, b);
-            bc = new Edge(b, c);
-            ca = new Edge(c, a);
-        }
+    public Point[] getIntersection(Line line){
+        double[] buffer = new double[6];
+        return toPoints(buffer, getIntersection(line, buffer));
     }
 
-    public Point[] getIntersection(Line line){
-        setEdge();
-        Point a = bc.getIntersection(line);
-        Point b = ca.getIntersection(line);
-        Point c = ab.getIntersection(line);
+    /**
+     * 直線と三辺の交点を計算します. オブジェクトは生成しません.<br>
+     * 交点は辺bc,ca,abの順に書き込み、交点が２つの場合は{@link Point#compare(Point, Point)}の昇順に並べます
+     * @param result 交点の座標(x,y)を順に書き込む先 長さ6以上
+     * @return 交点の数
+     * @see #getIntersection(Line)
+     */
+    public int getIntersection(Line line, double[] result){
         int cnt = 0;
-        if ( a != null ) cnt++;
-        if ( b != null ) cnt++;
-        if ( c != null ) cnt++;
-        Point[] results = new Point[cnt];
-        int index = 0;
-        if ( a != null ) results[index++] = a;
-        if ( b != null ) results[index++] = b;
-        if ( c != null ) results[index] = c;
-        if ( cnt == 2 && results[0].compareTo(results[1]) > 0 ){
-            Point temp = results[0];
-            results[0] = results[1];
-            results[1] = temp;
+        if ( Edge.getIntersection(b.getX(), b.getY(), c.getX(), c.getY(), line, result, cnt*2) ) cnt++;
+        if ( Edge.getIntersection(c.getX(), c.getY(), a.getX(), a.getY(), line, result, cnt*2) ) cnt++;
+        if ( Edge.getIntersection(a.getX(), a.getY(), b.getX(), b.getY(), line, result, cnt*2) ) cnt++;
+        if ( cnt == 2 && ( result[0] > result[2] || (result[0] == result[2] && result[1] > result[3]) ) ){
+            double temp = result[0];
+            result[0] = result[2];
+            result[2] = temp;
+            temp = result[1];
+            result[1] = result[3];
+            result[3] = temp;
         }
-        return results;
+        return cnt;
     }
 
     Point[] getIntersection(Edge edge){
-        setEdge();
-        Point a = edge.getIntersection(bc.toLine());
-        Point b = edge.getIntersection(ca.toLine());
-        Point c = edge.getIntersection(ab.toLine());
+        double[] buffer = new double[6];
+        return toPoints(buffer, getIntersection(edge, buffer));
+    }
+
+    /**
+     * 線分と三辺を延長した直線との交点を辺bc,ca,abの順に計算します. オブジェクトは生成しません
+     * @param result 交点の座標(x,y)を順に書き込む先 長さ6以上
+     * @return 交点の数
+     * @see #getIntersection(Edge)
+     */
+    int getIntersection(Edge edge, double[] result){
+        final double x1 = edge.a.getX();
+        final double y1 = edge.a.getY();
+        final double x2 = edge.b.getX();
+        final double y2 = edge.b.getY();
         int cnt = 0;
-        if ( a != null ) cnt++;
-        if ( b != null ) cnt++;
-        if ( c != null ) cnt++;
+        if ( Edge.getIntersectionWithLine(x1, y1, x2, y2, b.getX(), b.getY(), c.getX(), c.getY(), result, cnt*2) ) cnt++;
+        if ( Edge.getIntersectionWithLine(x1, y1, x2, y2, c.getX(), c.getY(), a.getX(), a.getY(), result, cnt*2) ) cnt++;
+        if ( Edge.getIntersectionWithLine(x1, y1, x2, y2, a.getX(), a.getY(), b.getX(), b.getY(), result, cnt*2) ) cnt++;
+        return cnt;
+    }
+
+    private static Point[] toPoints(double[] buffer, int cnt){
         Point[] results = new Point[cnt];
-        int index = 0;
-        if ( a != null ) results[index++] = a;
-        if ( b != null ) results[index++] = b;
-        if ( c != null ) results[index] = c;
+        for ( int i=0 ; i<cnt ; i++ ){
+            results[i] = new BasePoint(buffer[i*2], buffer[i*2+1]);
+        }
         return results;
     }
 
@@ -170,12 +181,16 @@ public class Triangle {
      * @return 三角形の内部・辺上・頂点上に含まれる場合はtrue
      */
     public boolean containsPoint(Point point){
-        double x1 = a.getX() - point.getX();
-        double y1 = a.getY() - point.getY();
-        double x2 = b.getX() - point.getX();
-        double y2 = b.getY() - point.getY();
-        double x3 = c.getX() - point.getX();
-        double y3 = c.getY() - point.getY();
+        return containsPoint(point.getX(), point.getY());
+    }
+
+    public boolean containsPoint(double x, double y){
+        double x1 = a.getX() - x;
+        double y1 = a.getY() - y;
+        double x2 = b.getX() - x;
+        double y2 = b.getY() - y;
+        double x3 = c.getX() - x;
+        double y3 = c.getY() - y;
         double v1 = x1*y2 - y1*x2;
         double v2 = x2*y3 - y2*x3;
         double v3 = x3*y1 - y3*x1;
@@ -0,0 +1,313 @@
+package jp.seo.android.diagram;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * 解決済みのドロネー分割の双対として、全ての母点の１次のボロノイ領域をまとめて求めます.<br>
+ * 凸包の内部にある母点の領域は、その母点を囲む三角形の外接円の中心を隣接する点の偏角の順に並べた多角形です.
+ * 凸包上の母点の領域は有界でないため、矩形を隣接する点との垂直二等分線で切り取って求めます.
+ * 母点ごとの計算は{@link MultiThreadTask}により複数のスレッドで分担します.
+ * 母点ごとに{@link HighVoronoi#solve(int, Point, HighVoronoi.PointProvider, HighVoronoi.ResultCallback)}を呼ぶ場合と異なり、
+ * 二等分線の配置を構築せずドロネー分割を一度辿るのみで済みます
+ * @author Seo-4d696b75
+ * @version 2026/10/19
+ */
+public class VoronoiDiagram {
+
+    /**
+     * @param diagram {@link DelaunayDiagram#split(Rectangle)}などで解決済みの分割
+     * @param threads 計算に用いるスレッドの数
+     */
+    public VoronoiDiagram(DelaunayDiagram diagram, int threads){
+        Map<Edge, DelaunayDiagram.TrianglePair> map = diagram.getEdgeTriangleMap();
+        if ( map == null ){
+            throw new IllegalStateException("not solved yet");
+        }
+        this.threads = Math.max(threads, 1);
+        Set<Point> set = diagram.getPoints();
+        final int size = set.size();
+        Map<Point, Integer> index = new HashMap<>();
+        points = new Point[size];
+        x = new double[size];
+        y = new double[size];
+        for ( Point point : set ){
+            int i = index.size();
+            index.put(point, i);
+            points[i] = point;
+            x[i] = point.getX();
+            y[i] = point.getY();
+        }
+        hull = new boolean[size];
+        offset = new int[size + 1];
+        neighbor = new int[map.size() * 2];
+        for ( Map.Entry<Edge, DelaunayDiagram.TrianglePair> entry : map.entrySet() ){
+            Edge edge = entry.getKey();
+            int a = index.get(edge.a);
+            int b = index.get(edge.b);
+            offset[a + 1]++;
+            offset[b + 1]++;
+            // 辺の片側に三角形が無い、または外接三角形の頂点を含む三角形がある場合は凸包上の辺
+            DelaunayDiagram.TrianglePair pair = entry.getValue();
+            if ( !isReal(index, edge, pair.getTriangle1()) || !isReal(index, edge, pair.getTriangle2()) ){
+                hull[a] = true;
+                hull[b] = true;
+            }
+        }
+        for ( int i=0 ; i<size ; i++ ){
+            offset[i+1] += offset[i];
+        }
+        int[] position = Arrays.copyOf(offset, size);
+        for ( Edge edge : map.keySet() ){
+            int a = index.get(edge.a);
+            int b = index.get(edge.b);
+            neighbor[position[a]++] = b;
+            neighbor[position[b]++] = a;
+        }
+    }
+
+    /**
+     * 一つのスレッドが一度に計算する母点の数
+     */
+    private static final int CHUNK_SIZE = 256;
+
+    private final int threads;
+    private final Point[] points;
+    private final double[] x, y;
+    /**
+     * 凸包上の母点か
+     */
+    private final boolean[] hull;
+    /**
+     * i番目の点に隣接する点の添字は{@code neighbor[offset[i]]~neighbor[offset[i+1]-1]}
+     */
+    private final int[] offset, neighbor;
+
+    private static boolean isReal(Map<Point, Integer> index, Edge edge, Triangle triangle){
+        if ( triangle == null ) return false;
+        Point apex = triangle.a;
+        if ( apex.equals(edge.a) || apex.equals(edge.b) ) apex = triangle.b;
+        if ( apex.equals(edge.a) || apex.equals(edge.b) ) apex = triangle.c;
+        return index.containsKey(apex);
+    }
+
+    /**
+     * @return 母点の数
+     */
+    public int size(){
+        return points.length;
+    }
+
+    public Point getPoint(int index){
+        return points[index];
+    }
+
+    /**
+     * 全ての母点のボロノイ領域を求めます
+     * @param border 領域を切り取る矩形
+     * @return {@link #getPoint(int)}と同じ添字で母点の領域を並べた配列 矩形と交わらない領域はnull
+     * @throws RuntimeException いずれかのスレッドで発生した最初の例外
+     */
+    public Polygon[] getCells(final Rectangle border){
+        final Polygon[] cells = new Polygon[points.length];
+        // MultiThreadTask は例外を捕捉して処理を続けるため、ここで記録して呼び出し元へ投げる
+        final AtomicReference<RuntimeException> failure = new AtomicReference<>();
+        MultiThreadTask<Integer, Void> task = new MultiThreadTask<Integer, Void>() {
+            @Override
+            protected ProcessThread getProcessThread() {
+                return new ProcessThread() {
+
+                    private final CellBuilder builder = new CellBuilder(border);
+
+                    @Override
+                    protected Void process(Integer start) {
+                        if ( failure.get() != null ) return null;
+                        try{
+                            int end = Math.min(start + CHUNK_SIZE, points.length);
+                            for ( int i=start ; i<end ; i++ ){
+                                cells[i] = builder.build(i);
+                            }
+                        }catch (RuntimeException e){
+                            failure.compareAndSet(null, e);
+                        }
+                        return null;
+                    }
+                };
+            }
+        };
+        task.start(threads);
+        for ( int i=0 ; i<points.length ; i+=CHUNK_SIZE ){
+            task.enqueue(i);
+        }
+        task.waitForCompletion();
+        RuntimeException e = failure.get();
+        if ( e != null ) throw e;
+        return cells;
+    }
+
+    /**
+     * 全ての母点のボロノイ領域を求めます
+     * @param border 領域を切り取る矩形
+     * @return 母点から領域への対応 矩形と交わらない領域は含みません
+     */
+    public Map<Point, Polygon> getCellMap(Rectangle border){
+        Polygon[] cells = getCells(border);
+        Map<Point, Polygon> map = new HashMap<>();
+        for ( int i=0 ; i<cells.length ; i++ ){
+            if ( cells[i] != null ) map.put(points[i], cells[i]);
+        }
+        return map;
+    }
+
+    /**
+     * 一つの母点の領域を計算します. 作業用の配列はスレッドごとに保持して再利用します
+     */
+    private class CellBuilder {
+
+        private CellBuilder(Rectangle border){
+            this.border = border;
+        }
+
+        private final Rectangle border;
+        private int[] order = new int[16];
+        private double[] angle = new double[16];
+        private double[] cellX = new double[16];
+        private double[] cellY = new double[16];
+        private double[] nextX = new double[16];
+        private double[] nextY = new double[16];
+        private int length;
+
+        private Polygon build(int i){
+            if ( hull[i] || offset[i+1] - offset[i] < 3 ){
+                clipBisectors(i);
+            }else{
+                traceCircumcenters(i);
+                clip(1, 0, border.right);
+                clip(-1, 0, -border.left);
+                clip(0, 1, border.top);
+                clip(0, -1, -border.bottom);
+            }
+            if ( length < 3 ) return null;
+            List<Point> list = new ArrayList<>(length);
+            for ( int k=0 ; k<length ; k++ ){
+                list.add(new BasePoint(cellX[k], cellY[k]));
+            }
+            return new Polygon(list);
+        }
+
+        /**
+         * 隣接する点を偏角の順に並べ、隣り合う二点と母点の成す三角形の外接円の中心を結びます
+         */
+        private void traceCircumcenters(int i){
+            final int start = offset[i];
+            final int count = offset[i+1] - start;
+            if ( order.length < count ){
+                order = new int[count * 2];
+                angle = new double[count * 2];
+            }
+            final double sx = x[i];
+            final double sy = y[i];
+            for ( int k=0 ; k<count ; k++ ){
+                int n = neighbor[start + k];
+                double a = Math.atan2(y[n] - sy, x[n] - sx);
+                // 挿入ソート 隣接する点の数は平均６程度
+                int j = k;
+                while ( j > 0 && angle[j-1] > a ){
+                    order[j] = order[j-1];
+                    angle[j] = angle[j-1];
+                    j--;
+                }
+                order[j] = n;
+                angle[j] = a;
+            }
+            ensureCapacity(count);
+            length = 0;
+            for ( int k=0 ; k<count ; k++ ){
+                int p = order[k];
+                int q = order[(k+1) % count];
+                double ax = x[p] - sx;
+                double ay = y[p] - sy;
+                double bx = x[q] - sx;
+                double by = y[q] - sy;
+                double d = 2 * (ax * by - ay * bx);
+                double a2 = ax * ax + ay * ay;
+                double b2 = bx * bx + by * by;
+                double cx = sx + (by * a2 - ay * b2) / d;
+                double cy = sy + (ax * b2 - bx * a2) / d;
+                // 同一円周上の点による縮退した頂点は除く
+                if ( length > 0 && cellX[length-1] == cx && cellY[length-1] == cy ) continue;
+                cellX[length] = cx;
+                cellY[length++] = cy;
+            }
+            if ( length > 1 && cellX[0] == cellX[length-1] && cellY[0] == cellY[length-1] ) length--;
+        }
+
+        /**
+         * 矩形を隣接する点との垂直二等分線で順に切り取ります
+         */
+        private void clipBisectors(int i){
+            length = 4;
+            cellX[0] = border.left;
+            cellY[0] = border.bottom;
+            cellX[1] = border.right;
+            cellY[1] = border.bottom;
+            cellX[2] = border.right;
+            cellY[2] = border.top;
+            cellX[3] = border.left;
+            cellY[3] = border.top;
+            final double sx = x[i];
+            final double sy = y[i];
+            for ( int k=offset[i] ; k<offset[i+1] && length > 0 ; k++ ){
+                int n = neighbor[k];
+                double nx = x[n] - sx;
+                double ny = y[n] - sy;
+                clip(nx, ny, (nx * (x[n] + sx) + ny * (y[n] + sy)) / 2);
+            }
+        }
+
+        private void ensureCapacity(int size){
+            if ( cellX.length < size ){
+                cellX = new double[size * 2];
+                cellY = new double[size * 2];
+            }
+        }
+
+        /**
+         * 凸多角形を半平面{@code nx*x + ny*y <= c}で切り取ります
+         */
+        private void clip(double nx, double ny, double c){
+            if ( nextX.length < length * 2 ){
+                nextX = new double[length * 2];
+                nextY = new double[length * 2];
+            }
+            int cnt = 0;
+            for ( int k=0 ; k<length ; k++ ){
+                int next = (k+1) % length;
+                double v1 = nx * cellX[k] + ny * cellY[k] - c;
+                double v2 = nx * cellX[next] + ny * cellY[next] - c;
+                if ( v1 <= 0 ){
+                    nextX[cnt] = cellX[k];
+                    nextY[cnt++] = cellY[k];
+                }
+                if ( (v1 < 0 && v2 > 0) || (v1 > 0 && v2 < 0) ){
+                    double t = v1 / (v1 - v2);
+                    nextX[cnt] = cellX[k] + (cellX[next] - cellX[k]) * t;
+                    nextY[cnt++] = cellY[k] + (cellY[next] - cellY[k]) * t;
+                }
+            }
+            double[] temp = cellX;
+            cellX = nextX;
+            nextX = temp;
+            temp = cellY;
+            cellY = nextY;
+            nextY = temp;
+            length = cnt;
+        }
+    }
+
+}
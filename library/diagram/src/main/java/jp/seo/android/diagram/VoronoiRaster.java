@@ -0,0 +1,174 @@
+package jp.seo.android.diagram;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * ボロノイ分割を矩形上の格子に描画し、各画素を含む領域の母点の添字を保持します.<br>
+ * 各画素の値は画素の中心に最も近い母点であり、{@link NeighborSearch.Query}の走査線により行ごとに並列に求めます.
+ * 画素の四隅が全て同じ母点の領域に含まれる場合、領域は凸なので画素全体がその領域に含まれます.
+ * そのような画素内の点の探索は配列の参照のみで済み、領域の境界が通る画素のみドロネー分割を辿って厳密に求めます.<br>
+ * 構築後は変更されないため複数のスレッドから同時に参照できます
+ * @author Seo-4d696b75
+ * @version 2026/10/19
+ */
+public class VoronoiRaster {
+
+    /**
+     * @param diagram {@link DelaunayDiagram#split(Rectangle)}などで解決済みの分割
+     * @param border 描画する矩形
+     * @param width 横方向の画素の数
+     * @param height 縦方向の画素の数
+     * @param threads 描画に用いるスレッドの数
+     */
+    public VoronoiRaster(DelaunayDiagram diagram, Rectangle border, int width, int height, int threads){
+        if ( width <= 0 || height <= 0 ){
+            throw new IllegalArgumentException("invalid resolution: " + width + "x" + height);
+        }
+        this.search = new NeighborSearch(diagram);
+        this.border = border;
+        this.width = width;
+        this.height = height;
+        this.pixelWidth = (border.right - border.left) / width;
+        this.pixelHeight = (border.top - border.bottom) / height;
+        this.labels = new int[width * height];
+        this.exact = new boolean[width * height];
+        if ( search.size() == 0 ){
+            Arrays.fill(labels, -1);
+            return;
+        }
+        render(Math.max(threads, 1));
+    }
+
+    private final NeighborSearch search;
+    private final Rectangle border;
+    private final int width, height;
+    private final double pixelWidth, pixelHeight;
+    /**
+     * 画素ごとの母点の添字 下の行から順に並ぶ
+     */
+    private final int[] labels;
+    /**
+     * 画素全体が一つの領域に含まれるか
+     */
+    private final boolean[] exact;
+
+    /**
+     * いずれかのスレッドで例外が発生した場合は残りの行を描画せず、最初の例外を投げます
+     */
+    private void render(int threads){
+        // 画素の中心の行と四隅の行を合わせて描画する
+        final int[] corners = new int[(width + 1) * (height + 1)];
+        // MultiThreadTask は例外を捕捉して処理を続けるため、ここで記録して呼び出し元へ投げる
+        final AtomicReference<RuntimeException> failure = new AtomicReference<>();
+        MultiThreadTask<Integer, Void> task = new MultiThreadTask<Integer, Void>() {
+            @Override
+            protected ProcessThread getProcessThread() {
+                return new ProcessThread() {
+
+                    private final NeighborSearch.Query query = search.newQuery();
+
+                    @Override
+                    protected Void process(Integer row) {
+                        if ( failure.get() != null ) return null;
+                        try{
+                            if ( row < height ){
+                                double py = border.bottom + pixelHeight * (row + 0.5);
+                                query.scanRow(py, border.left + pixelWidth * 0.5, pixelWidth, width, labels, row * width);
+                            }
+                            double py = border.bottom + pixelHeight * row;
+                            query.scanRow(py, border.left, pixelWidth, width + 1, corners, row * (width + 1));
+                        }catch (RuntimeException e){
+                            failure.compareAndSet(null, e);
+                        }
+                        return null;
+                    }
+                };
+            }
+        };
+        task.start(threads);
+        for ( int row=0 ; row<=height ; row++ ){
+            task.enqueue(row);
+        }
+        task.waitForCompletion();
+        RuntimeException e = failure.get();
+        if ( e != null ) throw e;
+        for ( int row=0 ; row<height ; row++ ){
+            int lower = row * (width + 1);
+            int upper = lower + width + 1;
+            for ( int col=0 ; col<width ; col++ ){
+                int label = corners[lower + col];
+                exact[row * width + col] = label == corners[lower + col + 1]
+                        && label == corners[upper + col] && label == corners[upper + col + 1];
+            }
+        }
+    }
+
+    public int getWidth(){
+        return width;
+    }
+
+    public int getHeight(){
+        return height;
+    }
+
+    public Rectangle getBorder(){
+        return border;
+    }
+
+    /**
+     * @return 母点の添字に対応する{@link NeighborSearch} {@link #find(double, double, NeighborSearch.Query)}に渡す探索の作業領域の作成に用います
+     */
+    public NeighborSearch getSearch(){
+        return search;
+    }
+
+    /**
+     * @param label 画素の値
+     * @return 母点
+     */
+    public Point getPoint(int label){
+        return search.getPoint(label);
+    }
+
+    /**
+     * @param col 左から数えた画素の位置
+     * @param row 下から数えた画素の位置
+     * @return 画素の中心に最も近い母点の添字
+     */
+    public int getLabel(int col, int row){
+        return labels[row * width + col];
+    }
+
+    /**
+     * @return 画素全体が一つの母点の領域に含まれるか
+     */
+    public boolean isExact(int col, int row){
+        return exact[row * width + col];
+    }
+
+    /**
+     * @return 画素ごとの母点の添字を下の行から順に並べた配列の複製
+     */
+    public int[] getLabels(){
+        return Arrays.copyOf(labels, labels.length);
+    }
+
+    /**
+     * 最も近い母点を探します. 点を含む画素全体が一つの領域に含まれる場合は配列を参照するのみで、
+     * それ以外の場合は画素の値の母点から辿って探します
+     * @param query {@link #getSearch()}から作成した探索の作業領域
+     * @return 母点の添字
+     */
+    public int find(double x, double y, NeighborSearch.Query query){
+        int col = (int)Math.floor((x - border.left) / pixelWidth);
+        int row = (int)Math.floor((y - border.bottom) / pixelHeight);
+        if ( col < 0 || col >= width || row < 0 || row >= height ){
+            return query.nearest(x, y);
+        }
+        int index = row * width + col;
+        if ( exact[index] || labels[index] < 0 ) return labels[index];
+        return query.nearestFrom(x, y, labels[index]);
+    }
+
+}
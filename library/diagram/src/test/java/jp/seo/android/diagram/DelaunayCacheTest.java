@@ -0,0 +1,141 @@
+package jp.seo.android.diagram;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * {@link DelaunayCache}から復元した分割が計算し直した分割と一致し、壊れたファイルは無視されることを確認します
+ * @author Seo-4d696b75
+ * @version 2026/10/19
+ */
+public class DelaunayCacheTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private static final int SIZE = 500;
+
+    private final List<Point> points = DatasetGenerator.generate(DatasetGenerator.Distribution.UNIFORM, SIZE, 5L);
+
+    private File getFile(DelaunayCache cache){
+        return new File(folder.getRoot(), cache.getKey(points, DatasetGenerator.BORDER) + ".dly");
+    }
+
+    /**
+     * 点の座標に続く三角形の数の位置
+     */
+    private static int getTriangleOffset(){
+        return 4 + 4 + 8 * 4 + 4 + 16 * SIZE;
+    }
+
+    /**
+     * ファイルの一部を書き換えます
+     * @param digest 末尾のSHA-256を書き換え後の内容に合わせて更新するか
+     */
+    private static void corrupt(File file, int offset, int[] values, boolean digest) throws IOException {
+        RandomAccessFile access = new RandomAccessFile(file, "rw");
+        try{
+            byte[] data = new byte[(int)access.length()];
+            access.readFully(data);
+            ByteBuffer buffer = ByteBuffer.wrap(data);
+            for ( int i=0 ; i<values.length ; i++ ){
+                buffer.putInt(offset + 4 * i, values[i]);
+            }
+            if ( digest ){
+                MessageDigest sha = MessageDigest.getInstance("SHA-256");
+                sha.update(data, 0, data.length - 32);
+                System.arraycopy(sha.digest(), 0, data, data.length - 32, 32);
+            }
+            access.seek(0);
+            access.write(data);
+        }catch (NoSuchAlgorithmException e){
+            throw new IllegalStateException(e);
+        }finally{
+            access.close();
+        }
+    }
+
+    private static int readInt(File file, int offset) throws IOException {
+        RandomAccessFile access = new RandomAccessFile(file, "r");
+        try{
+            access.seek(offset);
+            return access.readInt();
+        }finally{
+            access.close();
+        }
+    }
+
+    private void assertSameAsFresh(DelaunayDiagram diagram){
+        DelaunayDiagram fresh = DelaunayDiagramTest.split(points);
+        assertEquals(fresh.getTriangles(), diagram.getTriangles());
+        assertEquals(fresh.getEdges(), diagram.getEdges());
+    }
+
+    @Test
+    public void hit() throws IOException {
+        DelaunayCache cache = new DelaunayCache(folder.getRoot());
+        assertFalse(cache.contains(points, DatasetGenerator.BORDER));
+        DelaunayDiagram first = cache.split(points, DatasetGenerator.BORDER);
+        assertTrue(cache.contains(points, DatasetGenerator.BORDER));
+        List<Point> shuffled = new ArrayList<>(points);
+        Collections.shuffle(shuffled);
+        DelaunayDiagram second = cache.split(shuffled, DatasetGenerator.BORDER);
+        assertNotSame(first, second);
+        assertSameAsFresh(second);
+        assertEquals(1, cache.clear());
+        assertFalse(cache.contains(points, DatasetGenerator.BORDER));
+    }
+
+    /**
+     * SHA-256の一致しないファイル
+     */
+    @Test
+    public void corruptedContent() throws IOException {
+        DelaunayCache cache = new DelaunayCache(folder.getRoot());
+        cache.split(points, DatasetGenerator.BORDER);
+        File file = getFile(cache);
+        int offset = getTriangleOffset();
+        corrupt(file, offset + 4, new int[]{1, 2, 3}, false);
+        assertSameAsFresh(cache.split(points, DatasetGenerator.BORDER));
+        // 計算し直した結果で上書きされ、一時ファイルは残らない
+        assertFalse(new File(file.getPath() + ".tmp").exists());
+        assertSameAsFresh(cache.split(points, DatasetGenerator.BORDER));
+    }
+
+    /**
+     * SHA-256は一致するが分割を組み立てられないファイル
+     */
+    @Test
+    public void inconsistentContent() throws IOException {
+        DelaunayCache cache = new DelaunayCache(folder.getRoot());
+        cache.split(points, DatasetGenerator.BORDER);
+        File file = getFile(cache);
+        int offset = getTriangleOffset();
+        int count = readInt(file, offset);
+        int frame = offset + 4 + 12 * count;
+        int length = readInt(file, frame);
+        // 外周の二つの頂点を入れ替える
+        int first = readInt(file, frame + 4);
+        int middle = readInt(file, frame + 4 + 4 * (length / 2));
+        corrupt(file, frame + 4, new int[]{middle}, false);
+        corrupt(file, frame + 4 + 4 * (length / 2), new int[]{first}, true);
+        assertSameAsFresh(cache.split(points, DatasetGenerator.BORDER));
+    }
+
+}
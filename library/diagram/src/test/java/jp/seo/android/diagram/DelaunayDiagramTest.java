@@ -0,0 +1,327 @@
+package jp.seo.android.diagram;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * {@link DelaunayDiagram#split(Rectangle)}の結果を全ての点との総当たりで検査します.<br>
+ * 外接円の内部に他の点を含まないこと、辺を共有する三角形が高々２個であること、
+ * 三角形の面積の和が凸包の面積に一致することを確認します
+ * @author Seo-4d696b75
+ * @version 2026/10/19
+ */
+public class DelaunayDiagramTest {
+
+    static DelaunayDiagram split(List<Point> points){
+        DelaunayDiagram diagram = new DelaunayDiagram(points);
+        diagram.split(DatasetGenerator.BORDER);
+        return diagram;
+    }
+
+    /**
+     * 点dが三角形abcの外接円の内部にあれば正となる行列式の値を許容誤差と比較します
+     * @return 許容誤差を超えて内部にある場合はtrue
+     */
+    private static boolean isInsideCircle(Point a, Point b, Point c, Point d){
+        double adx = a.getX() - d.getX();
+        double ady = a.getY() - d.getY();
+        double bdx = b.getX() - d.getX();
+        double bdy = b.getY() - d.getY();
+        double cdx = c.getX() - d.getX();
+        double cdy = c.getY() - d.getY();
+        double al = adx * adx + ady * ady;
+        double bl = bdx * bdx + bdy * bdy;
+        double cl = cdx * cdx + cdy * cdy;
+        double det = al * (bdx * cdy - cdx * bdy) + bl * (cdx * ady - adx * cdy) + cl * (adx * bdy - bdx * ady);
+        double permanent = al * (Math.abs(bdx * cdy) + Math.abs(cdx * bdy))
+                + bl * (Math.abs(cdx * ady) + Math.abs(adx * cdy))
+                + cl * (Math.abs(adx * bdy) + Math.abs(bdx * ady));
+        double orient = (b.getX() - a.getX()) * (c.getY() - a.getY()) - (b.getY() - a.getY()) * (c.getX() - a.getX());
+        return Math.signum(orient) * det > 1e-10 * permanent;
+    }
+
+    private static double getArea(Triangle t){
+        return Math.abs((t.b.getX() - t.a.getX()) * (t.c.getY() - t.a.getY())
+                - (t.b.getY() - t.a.getY()) * (t.c.getX() - t.a.getX())) / 2;
+    }
+
+    private static double cross(Point o, Point a, Point b){
+        return (a.getX() - o.getX()) * (b.getY() - o.getY()) - (a.getY() - o.getY()) * (b.getX() - o.getX());
+    }
+
+    /**
+     * @return 点の凸包の頂点の数
+     */
+    static int countHullVertex(Collection<Point> points){
+        return getHull(points).size();
+    }
+
+    /**
+     * @return 点の凸包の面積
+     */
+    static double getHullArea(Collection<Point> points){
+        List<Point> hull = getHull(points);
+        double area = 0;
+        for ( int i=0 ; i<hull.size() ; i++ ){
+            Point p = hull.get(i);
+            Point q = hull.get((i+1) % hull.size());
+            area += p.getX() * q.getY() - q.getX() * p.getY();
+        }
+        return area / 2;
+    }
+
+    /**
+     * @return 左回りに並ぶ凸包の頂点 辺の途中にある点は含まない
+     */
+    static List<Point> getHull(Collection<Point> points){
+        List<Point> list = new ArrayList<>(points);
+        Collections.sort(list);
+        final int size = list.size();
+        Point[] hull = new Point[size * 2];
+        int cnt = 0;
+        for ( int i=0 ; i<size ; i++ ){
+            while ( cnt >= 2 && cross(hull[cnt-2], hull[cnt-1], list.get(i)) <= 0 ) cnt--;
+            hull[cnt++] = list.get(i);
+        }
+        for ( int i=size-2, lower=cnt+1 ; i>=0 ; i-- ){
+            while ( cnt >= lower && cross(hull[cnt-2], hull[cnt-1], list.get(i)) <= 0 ) cnt--;
+            hull[cnt++] = list.get(i);
+        }
+        return Arrays.asList(hull).subList(0, cnt - 1);
+    }
+
+    /**
+     * 解決済みの分割がドロネー分割の条件を満たすか総当たりで検査します
+     */
+    static void assertDelaunay(DelaunayDiagram diagram, Collection<Point> points){
+        Collection<Triangle> triangles = diagram.getTriangles();
+        assertTrue(triangles.size() > 0);
+        Map<Edge, Integer> count = new HashMap<>();
+        double area = 0;
+        for ( Triangle t : triangles ){
+            for ( Edge edge : new Edge[]{new Edge(t.a, t.b), new Edge(t.b, t.c), new Edge(t.c, t.a)} ){
+                Integer value = count.get(edge);
+                count.put(edge, value == null ? 1 : value + 1);
+            }
+            area += getArea(t);
+            for ( Point p : points ){
+                if ( t.isVertex(p) ) continue;
+                if ( isInsideCircle(t.a, t.b, t.c, p) ){
+                    fail("point " + p + " inside circumcircle of " + t);
+                }
+            }
+        }
+        for ( Map.Entry<Edge, Integer> entry : count.entrySet() ){
+            assertTrue("edge shared by more than 2 triangles: " + entry.getKey(), entry.getValue() <= 2);
+        }
+        double hull = getHullArea(points);
+        assertEquals(hull, area, hull * 1e-9);
+    }
+
+    private static void assertDistribution(DatasetGenerator.Distribution distribution, int size){
+        List<Point> points = DatasetGenerator.generate(distribution, size, 9L);
+        assertDelaunay(split(points), points);
+    }
+
+    @Test
+    public void uniform(){
+        assertDistribution(DatasetGenerator.Distribution.UNIFORM, 1000);
+    }
+
+    @Test
+    public void clustered(){
+        assertDistribution(DatasetGenerator.Distribution.CLUSTERED, 1000);
+    }
+
+    /**
+     * 一般の位置にある点の分割では三角形の数は点の数nと凸包の頂点の数hにより2n-2-hと定まります.
+     * 外周の凹んだ部分を補い損ねると凸包付近の三角形が不足します
+     */
+    @Test
+    public void hullTriangles(){
+        for ( long seed=1 ; seed<=3 ; seed++ ){
+            for ( DatasetGenerator.Distribution distribution : new DatasetGenerator.Distribution[]{
+                    DatasetGenerator.Distribution.UNIFORM, DatasetGenerator.Distribution.CLUSTERED} ){
+                List<Point> points = DatasetGenerator.generate(distribution, 3000, seed);
+                DelaunayDiagram diagram = split(points);
+                int hull = countHullVertex(points);
+                assertEquals(distribution + " seed " + seed, 2 * points.size() - 2 - hull, diagram.getTriangles().size());
+                assertDelaunay(diagram, points);
+            }
+        }
+    }
+
+    /**
+     * 複数のスレッドで並行して追加しても、一般の位置にある点の分割は単一のスレッドでの分割と一致します
+     */
+    @Test
+    public void concurrentSameAsSingle(){
+        for ( DatasetGenerator.Distribution distribution : new DatasetGenerator.Distribution[]{
+                DatasetGenerator.Distribution.UNIFORM, DatasetGenerator.Distribution.CLUSTERED} ){
+            List<Point> points = DatasetGenerator.generate(distribution, 3000, 11L);
+            DelaunayDiagram concurrent = new DelaunayDiagram(points);
+            concurrent.split(DatasetGenerator.BORDER, 4);
+            assertEquals(split(points).getTriangles(), concurrent.getTriangles());
+            assertDelaunay(concurrent, points);
+        }
+    }
+
+    /**
+     * 並行して追加するスレッドで発生した例外は呼び出し元へ投げられ、分割は解決されない
+     */
+    @Test
+    public void concurrentFailure(){
+        List<Point> points = new ArrayList<>(DatasetGenerator.generate(DatasetGenerator.Distribution.UNIFORM, 1000, 11L));
+        points.add(new BasePoint(1e7, 1e7));
+        DelaunayDiagram diagram = new DelaunayDiagram(points);
+        try{
+            diagram.split(DatasetGenerator.BORDER, 2);
+            fail("point outside border accepted");
+        }catch (IllegalArgumentException e){
+            assertNull(diagram.getTriangles());
+        }
+    }
+
+    /**
+     * 一直線上・同一円周上に並ぶ点を含む格子
+     */
+    @Test
+    public void grid(){
+        assertDistribution(DatasetGenerator.Distribution.GRID, 300);
+        assertDistribution(DatasetGenerator.Distribution.GRID, 1000);
+    }
+
+    /**
+     * 外周にほぼ一直線に並ぶ点では外周を補う三角形が潰れ、凸でない四角形をフリップすると分割が壊れる.
+     * 外周付近で外接円の条件を満たさない三角形が残る既知の問題があるため、分割が完了することのみ確認します
+     */
+    @Test
+    public void collinearHull(){
+        for ( long seed=1 ; seed<=10 ; seed++ ){
+            List<Point> points = DatasetGenerator.generate(DatasetGenerator.Distribution.COLLINEAR_HULL, 3000, seed);
+            assertTrue(split(points).getTriangles().size() > 0);
+        }
+    }
+
+    /**
+     * 移動した点は移動前の点の添字で表され、同じ点を繰り返し移動しても添字を引き継ぐ
+     */
+    @Test
+    public void movePointKeepsBufferIndices(){
+        PointBuffer buffer = DatasetGenerator.generateBuffer(DatasetGenerator.Distribution.UNIFORM, 300, 13L);
+        DelaunayDiagram diagram = new DelaunayDiagram(buffer);
+        diagram.split(DatasetGenerator.BORDER);
+        Point[] current = new Point[buffer.size()];
+        for ( int i=0 ; i<current.length ; i++ ){
+            current[i] = buffer.get(i);
+        }
+        int[] moved = {0, 17, 0, 150};
+        for ( int i=0 ; i<moved.length ; i++ ){
+            Point from = current[moved[i]];
+            Point to = new BasePoint(from.getX() * 0.9 + 50, from.getY() * 0.9 + 30 + i);
+            diagram.movePoint(from, to);
+            current[moved[i]] = to;
+        }
+        int[] indices = diagram.getTriangleIndices();
+        assertEquals(diagram.getTriangles().size() * 3, indices.length);
+        int i = 0;
+        for ( Triangle t : diagram.getTriangles() ){
+            assertEquals(t.a, current[indices[i++]]);
+            assertEquals(t.b, current[indices[i++]]);
+            assertEquals(t.c, current[indices[i++]]);
+        }
+    }
+
+    /**
+     * 座標配列のビューと同じ座標の別のインスタンスを移動しても添字を引き継ぎ、
+     * 座標配列に含まれない点を追加した分割は添字で表現できない
+     */
+    @Test
+    public void bufferIndicesWithPlainPoints(){
+        PointBuffer buffer = DatasetGenerator.generateBuffer(DatasetGenerator.Distribution.UNIFORM, 300, 13L);
+        DelaunayDiagram diagram = new DelaunayDiagram(buffer);
+        diagram.split(DatasetGenerator.BORDER);
+        Point from = new BasePoint(buffer.getX(42), buffer.getY(42));
+        Point to = new BasePoint(from.getX() + 1.5, from.getY() - 2.5);
+        diagram.movePoint(from, to);
+        int[] indices = diagram.getTriangleIndices();
+        int i = 0;
+        for ( Triangle t : diagram.getTriangles() ){
+            for ( Point p : new Point[]{t.a, t.b, t.c} ){
+                int index = indices[i++];
+                assertEquals(index == 42 ? to : buffer.get(index), p);
+            }
+        }
+
+        diagram = new DelaunayDiagram(buffer);
+        diagram.startInsertion(DatasetGenerator.BORDER);
+        for ( Point p : buffer.asList() ) diagram.insert(p);
+        diagram.insert(new BasePoint(500.25, 500.75));
+        diagram.finishInsertion();
+        assertNull(diagram.getTriangleIndices());
+    }
+
+    /**
+     * 点を繰り返し移動しても分割はドロネー分割の条件を満たし、凸包の全体を覆う.
+     * 凸包上の点を僅かに動かすと凸包上にほぼ一直線に並ぶ点の間に平たい三角形が補われるため、
+     * 移動量には座標の誤差程度の小さな値も含めます
+     */
+    @Test
+    public void movePointSeries(){
+        for ( DatasetGenerator.Distribution distribution : new DatasetGenerator.Distribution[]{
+                DatasetGenerator.Distribution.GRID, DatasetGenerator.Distribution.UNIFORM} ){
+            for ( long seed=1 ; seed<=3 ; seed++ ){
+                assertMoveSeries(distribution, 300, seed);
+            }
+        }
+    }
+
+    private static void assertMoveSeries(DatasetGenerator.Distribution distribution, int size, long seed){
+        List<Point> points = new ArrayList<>(DatasetGenerator.generate(distribution, size, seed));
+        DelaunayDiagram diagram = split(points);
+        Set<Point> set = new HashSet<>(points);
+        Random random = new Random(seed);
+        for ( int step=1 ; step<=300 ; step++ ){
+            // 半数は凸包上の点を動かす
+            List<Point> candidates = random.nextBoolean() ? getHull(points) : points;
+            Point from = candidates.get(random.nextInt(candidates.size()));
+            double scale = random.nextBoolean() ? 1e-7 : 20;
+            double x = from.getX() + (random.nextDouble() * 2 - 1) * scale;
+            double y = from.getY() + (random.nextDouble() * 2 - 1) * scale;
+            x = Math.max(DatasetGenerator.BORDER.left + 1, Math.min(DatasetGenerator.BORDER.right - 1, x));
+            y = Math.max(DatasetGenerator.BORDER.bottom + 1, Math.min(DatasetGenerator.BORDER.top - 1, y));
+            Point to = new BasePoint(x, y);
+            if ( set.contains(to) ) continue;
+            diagram.movePoint(from, to);
+            points.set(points.indexOf(from), to);
+            set.remove(from);
+            set.add(to);
+            if ( step % 50 == 0 ) assertDelaunay(diagram, points);
+        }
+    }
+
+    /**
+     * 同一円周上に8個以上並ぶ格子点
+     */
+    @Test
+    public void cocircular(){
+        assertDistribution(DatasetGenerator.Distribution.COCIRCULAR, 300);
+        assertDistribution(DatasetGenerator.Distribution.COCIRCULAR, 1000);
+    }
+
+}
@@ -0,0 +1,100 @@
+package jp.seo.android.diagram;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * {@link FarthestVoronoi}の領域を、矩形を全ての母点との垂直二等分線で遠い側に切り取った多角形と比較します
+ * @author Seo-4d696b75
+ * @version 2026/10/19
+ */
+public class FarthestVoronoiTest {
+
+    private static final double EPSILON = 1e-6;
+
+    /**
+     * @return 全ての母点より点pから遠い側で切り取った矩形
+     */
+    private static List<Point> getCell(List<Point> points, Point p, Rectangle border){
+        List<Point> cell = new ArrayList<>();
+        cell.add(new BasePoint(border.left, border.top));
+        cell.add(new BasePoint(border.right, border.top));
+        cell.add(new BasePoint(border.right, border.bottom));
+        cell.add(new BasePoint(border.left, border.bottom));
+        for ( Point q : points ){
+            if ( cell.isEmpty() ) break;
+            if ( !q.equals(p) ) cell = VoronoiDiagramTest.clip(cell, q, p);
+        }
+        return cell;
+    }
+
+    private static void assertCells(FarthestVoronoi voronoi, List<Point> points, Rectangle border){
+        Polygon[] cells = voronoi.getCells(border);
+        double total = 0;
+        for ( int i=0 ; i<cells.length ; i++ ){
+            List<Point> expected = getCell(points, voronoi.getPoint(i), border);
+            double area = expected.size() < 3 ? 0 : VoronoiDiagramTest.getArea(expected);
+            if ( cells[i] == null ){
+                assertEquals(0, area, EPSILON);
+                continue;
+            }
+            assertEquals(area, VoronoiDiagramTest.getArea(cells[i].getPoints()), EPSILON);
+            total += area;
+        }
+        double expected = border.getWidth() * border.getHeight();
+        assertEquals(expected, total, expected * 1e-9);
+    }
+
+    private static void assertFarthest(DatasetGenerator.Distribution distribution){
+        List<Point> points = DatasetGenerator.generate(distribution, 500, 17L);
+        FarthestVoronoi voronoi = new FarthestVoronoi(DelaunayDiagramTest.split(points));
+        // 領域を持つ母点は凸包の頂点
+        List<Point> hull = DelaunayDiagramTest.getHull(points);
+        List<Point> sites = new ArrayList<>();
+        for ( int i=0 ; i<voronoi.size() ; i++ ) sites.add(voronoi.getPoint(i));
+        assertEquals(new HashSet<>(hull), new HashSet<>(sites));
+        // 最遠点ドロネー分割の三角形の外接円は全ての母点を含む
+        List<Triangle> triangles = voronoi.getTriangles();
+        assertEquals(voronoi.size() - 2, triangles.size());
+        for ( Triangle t : triangles ){
+            Circle circle = t.getCircumscribed();
+            for ( Point p : points ){
+                assertTrue(circle.center.measure(p) <= circle.radius * (1 + 1e-9));
+            }
+        }
+        assertCells(voronoi, points, DatasetGenerator.BORDER);
+        Rectangle wide = new Rectangle(-3000, 4000, 4000, -3000);
+        assertCells(voronoi, points, wide);
+        // 点を含む領域の母点が最も遠い
+        Polygon[] cells = voronoi.getCells(wide);
+        Random random = new Random(18L);
+        for ( int n=0 ; n<2000 ; n++ ){
+            Point target = new BasePoint(-3000 + random.nextDouble() * 7000, -3000 + random.nextDouble() * 7000);
+            double max = 0;
+            for ( Point p : points ) max = Math.max(max, p.measure(target));
+            for ( int i=0 ; i<cells.length ; i++ ){
+                if ( cells[i] != null && cells[i].containsPoint(target) ){
+                    assertEquals(max, voronoi.getPoint(i).measure(target), EPSILON);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void uniform(){
+        assertFarthest(DatasetGenerator.Distribution.UNIFORM);
+    }
+
+    @Test
+    public void clustered(){
+        assertFarthest(DatasetGenerator.Distribution.CLUSTERED);
+    }
+
+}
@@ -0,0 +1,108 @@
+package jp.seo.android.diagram;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * {@link FrozenDelaunay}の配列による表現を、元の{@link DelaunayDiagram}の点・三角形・辺の集合と総当たりで比較します
+ * @author Seo-4d696b75
+ * @version 2026/10/19
+ */
+public class FrozenDelaunayTest {
+
+    private static void assertFrozen(DatasetGenerator.Distribution distribution, int size){
+        List<Point> points = DatasetGenerator.generate(distribution, size, 23L);
+        DelaunayDiagram diagram = DelaunayDiagramTest.split(points);
+        FrozenDelaunay frozen = diagram.freeze();
+
+        // 点は座標の順
+        assertEquals(new HashSet<>(points).size(), frozen.size());
+        for ( int i=0 ; i<frozen.size() ; i++ ){
+            Point p = frozen.getPoint(i);
+            assertTrue(points.contains(p));
+            assertEquals(p.getX(), frozen.getX(i), 0);
+            assertEquals(p.getY(), frozen.getY(i), 0);
+            assertEquals(i, frozen.indexOf(p));
+            if ( i > 0 ) assertTrue(Point.compare(frozen.getPoint(i-1), p) < 0);
+        }
+        assertEquals(-1, frozen.indexOf(-1, -1));
+
+        // 三角形は頂点の添字の昇順の組を辞書順に並べる
+        Set<Triangle> triangles = new HashSet<>();
+        int[] previous = null;
+        for ( int t=0 ; t<frozen.getTriangleCount() ; t++ ){
+            int a = frozen.getTriangleVertex(t, 0);
+            int b = frozen.getTriangleVertex(t, 1);
+            int c = frozen.getTriangleVertex(t, 2);
+            assertTrue(a < b && b < c);
+            int[] current = {a, b, c};
+            if ( previous != null ) assertTrue(compare(previous, current) < 0);
+            previous = current;
+            assertEquals(t, frozen.findTriangle(c, a, b));
+            assertEquals(t, frozen.findTriangle(b, c, a));
+            triangles.add(frozen.getTriangle(t));
+        }
+        assertEquals(diagram.getTriangles(), triangles);
+
+        // 辺は端点の添字の組を辞書順に並べ、共有する三角形は総当たりで求めたものと一致する
+        List<List<Integer>> incident = new ArrayList<>();
+        for ( int e=0 ; e<frozen.getEdgeCount() ; e++ ) incident.add(new ArrayList<Integer>());
+        for ( int t=0 ; t<frozen.getTriangleCount() ; t++ ){
+            for ( int k=0 ; k<3 ; k++ ){
+                int e = frozen.findEdge(frozen.getTriangleVertex(t, k), frozen.getTriangleVertex(t, (k+1) % 3));
+                assertTrue(e >= 0);
+                incident.get(e).add(t);
+            }
+        }
+        Set<Edge> edges = new HashSet<>();
+        for ( int e=0 ; e<frozen.getEdgeCount() ; e++ ){
+            int a = frozen.getEdgeA(e);
+            int b = frozen.getEdgeB(e);
+            assertTrue(a < b);
+            if ( e > 0 ) assertTrue(compare(new int[]{frozen.getEdgeA(e-1), frozen.getEdgeB(e-1)}, new int[]{a, b}) < 0);
+            assertTrue(frozen.getEdgeStart(a) <= e && e < frozen.getEdgeEnd(a));
+            assertEquals(e, frozen.findEdge(b, a));
+            assertEquals(e, frozen.findEdge(frozen.getPoint(a), frozen.getPoint(b)));
+            edges.add(new Edge(frozen.getPoint(a), frozen.getPoint(b)));
+            Set<Integer> expected = new HashSet<>(incident.get(e));
+            Set<Integer> actual = new HashSet<>();
+            for ( int side=0 ; side<2 ; side++ ){
+                int t = frozen.getEdgeTriangle(e, side);
+                if ( t >= 0 ) actual.add(t);
+            }
+            assertEquals(expected, actual);
+        }
+        assertEquals(diagram.getEdges(), edges);
+        assertEquals(-1, frozen.findEdge(0, 0));
+    }
+
+    private static int compare(int[] a, int[] b){
+        for ( int i=0 ; i<a.length ; i++ ){
+            if ( a[i] != b[i] ) return a[i] < b[i] ? -1 : 1;
+        }
+        return 0;
+    }
+
+    @Test
+    public void uniform(){
+        assertFrozen(DatasetGenerator.Distribution.UNIFORM, 2000);
+    }
+
+    @Test
+    public void clustered(){
+        assertFrozen(DatasetGenerator.Distribution.CLUSTERED, 2000);
+    }
+
+    @Test
+    public void grid(){
+        assertFrozen(DatasetGenerator.Distribution.GRID, 1000);
+    }
+
+}
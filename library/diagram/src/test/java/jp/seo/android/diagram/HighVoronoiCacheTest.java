@@ -0,0 +1,170 @@
+package jp.seo.android.diagram;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * {@link HighVoronoiCache}の結果が計算し直した結果と一致し、メモリ量の上限を超えると最も長く参照されていない結果から破棄されることを確認します
+ * @author Seo-4d696b75
+ * @version 2026/10/19
+ */
+public class HighVoronoiCacheTest {
+
+    private static final int LEVEL = 3;
+
+    private final List<Point> points = DatasetGenerator.generate(DatasetGenerator.Distribution.UNIFORM, 500, 19L);
+    private final HighVoronoi.PointProvider<Point> provider = MemoryBudgetTest.getProvider(DelaunayDiagramTest.split(points));
+    private final Triangle frame = DatasetGenerator.BORDER.getContainer();
+
+    private void assertSameAsFresh(Polygon[] result, Point center, int level){
+        assertSameAsFresh(result, center, level, provider);
+    }
+
+    private void assertSameAsFresh(Polygon[] result, Point center, int level, HighVoronoi.PointProvider<Point> provider){
+        Polygon[] fresh = new HighVoronoi<Point>(frame).solve(level, center, provider, null);
+        assertEquals(fresh.length, result.length);
+        for ( int i=0 ; i<fresh.length ; i++ ){
+            assertEquals(fresh[i].getPoints(), result[i].getPoints());
+        }
+    }
+
+    /**
+     * @return 上限のない場合に一つの結果が保持するメモリ量の概算値
+     */
+    private long getBytes(Point center){
+        HighVoronoiCache<Point> cache = new HighVoronoiCache<>(frame, provider);
+        cache.solve(LEVEL, center);
+        return cache.getRetainedBytes();
+    }
+
+    @Test
+    public void hit(){
+        HighVoronoiCache<Point> cache = new HighVoronoiCache<>(frame, provider);
+        Point center = points.get(0);
+        assertNull(cache.get(center, 1));
+        Polygon[] result = cache.solve(LEVEL, center);
+        assertSameAsFresh(result, center, LEVEL);
+        assertEquals(1, cache.size());
+        assertSame(result[0], cache.solve(LEVEL, center)[0]);
+        // 低い次数は保持している結果の一部
+        assertSame(result[1], cache.get(center, 2)[1]);
+        assertEquals(2, cache.solve(2, center).length);
+        assertNull(cache.get(center, LEVEL + 1));
+        // 高い次数は計算し直して置き換える
+        assertSameAsFresh(cache.solve(LEVEL + 1, center), center, LEVEL + 1);
+        assertEquals(1, cache.size());
+        assertEquals(LEVEL + 1, cache.get(center, LEVEL + 1).length);
+        cache.clear();
+        assertEquals(0, cache.size());
+        assertEquals(0, cache.getRetainedBytes());
+    }
+
+    @Test
+    public void leastRecentlyUsed(){
+        Point a = points.get(0);
+        Point b = points.get(1);
+        Point c = points.get(2);
+        Point d = points.get(3);
+        long bytesA = getBytes(a);
+        long bytesB = getBytes(b);
+        long bytesC = getBytes(c);
+        long bytesD = getBytes(d);
+        // 四つ目を加えると一つのみ破棄される上限
+        long budget = bytesA + bytesB + bytesC + bytesD - 1;
+        HighVoronoiCache<Point> cache = new HighVoronoiCache<>(frame, provider, budget);
+        cache.solve(LEVEL, a);
+        cache.solve(LEVEL, b);
+        cache.solve(LEVEL, c);
+        assertEquals(bytesA + bytesB + bytesC, cache.getRetainedBytes());
+        // 参照したaは新しくなりbが最も古い
+        assertNotNull(cache.get(a, LEVEL));
+        cache.solve(LEVEL, d);
+        assertEquals(3, cache.size());
+        assertNull(cache.get(b, LEVEL));
+        assertNotNull(cache.get(a, LEVEL));
+        assertNotNull(cache.get(c, LEVEL));
+        assertNotNull(cache.get(d, LEVEL));
+        assertEquals(bytesA + bytesC + bytesD, cache.getRetainedBytes());
+        assertTrue(cache.getRetainedBytes() <= budget);
+    }
+
+    /**
+     * 点を移動すると、移動した点の二等分線を用いた結果と隣接する点が変化した点の隣接関係を参照した結果のみ破棄され、
+     * 破棄された結果は移動後の分割で計算し直した結果と一致します. 保持され続ける結果も移動後の分割での結果と一致します
+     */
+    @Test
+    public void invalidate(){
+        List<Point> current = new ArrayList<>(points);
+        DelaunayDiagram diagram = DelaunayDiagramTest.split(current);
+        final AtomicReference<HighVoronoi.PointProvider<Point>> live = new AtomicReference<>(provider);
+        HighVoronoi.PointProvider<Point> delegate = new HighVoronoi.PointProvider<Point>() {
+            @Override
+            public Collection<Point> getNeighbors(Point point) {
+                return live.get().getNeighbors(point);
+            }
+        };
+        HighVoronoiCache<Point> cache = new HighVoronoiCache<>(frame, delegate);
+        // 外接三角形の近くの点は避け、矩形の中心に近い順に選ぶ
+        List<Point> centers = new ArrayList<>(current);
+        final Point middle = DatasetGenerator.BORDER.getCenter();
+        Collections.sort(centers, new Comparator<Point>() {
+            @Override
+            public int compare(Point o1, Point o2) {
+                return Double.compare(Point.measure(o1, middle), Point.measure(o2, middle));
+            }
+        });
+        centers = centers.subList(0, 100);
+        for ( Point center : centers ) cache.solve(LEVEL, center);
+        assertEquals(centers.size(), cache.size());
+
+        Point from = centers.get(0);
+        Point to = new BasePoint(from.getX() + 5, from.getY() + 3);
+        // 移動前の計算で用いた点から破棄されるべき結果を求める
+        Set<Point> affected = new HashSet<>();
+        Set<Point> changed = diagram.movePoint(from, to);
+        for ( Point center : centers ){
+            HighVoronoi<Point> voronoi = new HighVoronoi<>(frame);
+            voronoi.solve(LEVEL, center, provider, null);
+            if ( voronoi.getAddedPoints().contains(from) || !Collections.disjoint(voronoi.getRequestedPoints(), changed) ){
+                affected.add(center);
+            }
+        }
+        live.set(MemoryBudgetTest.getProvider(diagram));
+        assertEquals(affected.size(), cache.invalidate(from, changed));
+        assertTrue(affected.size() > 0);
+        assertTrue(affected.size() < centers.size());
+        assertEquals(centers.size() - affected.size(), cache.size());
+        for ( Point center : centers ){
+            assertEquals(center.toString(), !affected.contains(center), cache.get(center, LEVEL) != null);
+            if ( center.equals(from) ) continue;
+            assertSameAsFresh(cache.solve(LEVEL, center), center, LEVEL, live.get());
+        }
+    }
+
+    /**
+     * 上限を超える結果は返しますが保持しません
+     */
+    @Test
+    public void overBudget(){
+        Point a = points.get(0);
+        HighVoronoiCache<Point> cache = new HighVoronoiCache<>(frame, provider, getBytes(a) - 1);
+        assertSameAsFresh(cache.solve(LEVEL, a), a, LEVEL);
+        assertEquals(0, cache.size());
+        assertEquals(0, cache.getRetainedBytes());
+    }
+
+}
@@ -0,0 +1,94 @@
+package jp.seo.android.diagram;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * {@link HighVoronoi}の途中経過から再開した結果が中断しなかった結果と一致することを確認します
+ * @author Seo-4d696b75
+ * @version 2026/10/19
+ */
+public class HighVoronoiTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private static final int LEVEL = 5;
+
+    private final List<Point> points = DatasetGenerator.generate(DatasetGenerator.Distribution.UNIFORM, 500, 23L);
+    private final HighVoronoi.PointProvider<Point> provider = MemoryBudgetTest.getProvider(DelaunayDiagramTest.split(points));
+    private final Triangle frame = DatasetGenerator.BORDER.getContainer();
+
+    /**
+     * 計算を中断するため指定した次数で例外を投げ、通知された次数を記録します
+     */
+    private static class Interrupter implements HighVoronoi.ResultCallback {
+
+        private Interrupter(int level){
+            this.level = level;
+        }
+
+        private final int level;
+        private final List<Integer> resolved = new ArrayList<>();
+
+        @Override
+        public void onResolved(int index, Polygon points, long time) {
+            if ( index + 1 == level ) throw new IllegalStateException("interrupted");
+            resolved.add(index + 1);
+        }
+
+        @Override
+        public void onCompleted(Polygon[] results, long time) {
+        }
+    }
+
+    private Point getCenter(){
+        Point center = points.get(0);
+        Point middle = DatasetGenerator.BORDER.getCenter();
+        for ( Point point : points ){
+            if ( Point.measure(point, middle) < Point.measure(center, middle) ) center = point;
+        }
+        return center;
+    }
+
+    @Test
+    public void resumeFromCheckpoint() throws IOException {
+        Point center = getCenter();
+        Polygon[] expected = new HighVoronoi<Point>(frame).solve(LEVEL, center, provider, null);
+        File file = new File(folder.getRoot(), "voronoi.cp");
+
+        // 3次の計算後に中断すると2次までの途中経過が残る
+        Interrupter interrupter = new Interrupter(3);
+        try{
+            new HighVoronoi<Point>(frame).solve(LEVEL, center, provider, interrupter, file, 1);
+            fail("not interrupted");
+        }catch (IllegalStateException e){
+            assertEquals("interrupted", e.getMessage());
+        }
+        assertEquals(Arrays.asList(1, 2), interrupter.resolved);
+        assertTrue(file.exists());
+        assertFalse(new File(file.getPath() + ".tmp").exists());
+
+        // 再開すると保存済みの次数は通知されない
+        Interrupter resumed = new Interrupter(LEVEL + 1);
+        Polygon[] result = new HighVoronoi<Point>(frame).solve(LEVEL, center, provider, resumed, file, 1);
+        assertEquals(Arrays.asList(3, 4, 5), resumed.resolved);
+        assertEquals(expected.length, result.length);
+        for ( int i=0 ; i<expected.length ; i++ ){
+            assertEquals(expected[i].getPoints(), result[i].getPoints());
+        }
+    }
+
+}
@@ -0,0 +1,254 @@
+package jp.seo.android.diagram;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * オブジェクトを生成しない交点の計算が、{@link Line}と{@link Edge}のオブジェクトを介した従来の計算と
+ * 同じ結果を返すか検査します. 従来の計算はこのクラス内に再現して比較します
+ * @author Seo-4d696b75
+ * @version 2026/10/19
+ */
+public class IntersectionTest {
+
+    /**
+     * 従来の{@link Line#getIntersection(Line)}
+     */
+    private static Point referenceIntersection(Line l1, Line l2){
+        double det = l1.a * l2.b - l2.a * l1.b;
+        if ( Setting.isZero(det) ) return null;
+        return new BasePoint(
+                ( l1.b * l2.c - l2.b * l1.c )/det,
+                ( l2.a * l1.c - l1.a * l2.c )/det
+        );
+    }
+
+    /**
+     * 従来の{@link Edge#getIntersection(Line)}
+     */
+    private static Point referenceIntersection(Edge edge, Line line){
+        Point p = referenceIntersection(new Line(edge), line);
+        return p != null && isBetween(edge, p) ? p : null;
+    }
+
+    /**
+     * 従来の{@link Edge#getIntersection(Edge)}
+     */
+    private static Point referenceIntersection(Edge e1, Edge e2){
+        Point p = referenceIntersection(e2, new Line(e1));
+        return p != null && isBetween(e1, p) ? p : null;
+    }
+
+    /**
+     * 従来の{@link Line#getIntersection(Edge)}
+     */
+    private static Point referenceIntersection(Line line, Edge edge){
+        Point a = edge.a;
+        Point b = edge.b;
+        if ( (line.a*a.getX() + line.b*a.getY() + line.c) * (line.a*b.getX() + line.b*b.getY() + line.c) <= 0 ){
+            return referenceIntersection(line, new Line(edge));
+        }
+        return null;
+    }
+
+    private static boolean isBetween(Edge edge, Point p){
+        return (edge.a.getX() - p.getX()) * (edge.b.getX() - p.getX()) + (edge.a.getY() - p.getY()) * (edge.b.getY() - p.getY()) <= 0;
+    }
+
+    /**
+     * 従来の{@link Triangle#getIntersection(Line)}
+     */
+    private static Point[] referenceIntersection(Triangle triangle, Line line){
+        Point[] list = new Point[]{
+                referenceIntersection(new Edge(triangle.b, triangle.c), line),
+                referenceIntersection(new Edge(triangle.c, triangle.a), line),
+                referenceIntersection(new Edge(triangle.a, triangle.b), line)
+        };
+        Point[] results = compact(list);
+        if ( results.length == 2 && results[0].compareTo(results[1]) > 0 ){
+            Point temp = results[0];
+            results[0] = results[1];
+            results[1] = temp;
+        }
+        return results;
+    }
+
+    /**
+     * 従来の{@link Triangle#getIntersection(Edge)}
+     */
+    private static Point[] referenceIntersection(Triangle triangle, Edge edge){
+        return compact(new Point[]{
+                referenceIntersection(edge, new Line(triangle.b, triangle.c)),
+                referenceIntersection(edge, new Line(triangle.c, triangle.a)),
+                referenceIntersection(edge, new Line(triangle.a, triangle.b))
+        });
+    }
+
+    private static Point[] compact(Point[] list){
+        int cnt = 0;
+        for ( Point p : list ){
+            if ( p != null ) list[cnt++] = p;
+        }
+        return Arrays.copyOf(list, cnt);
+    }
+
+    private static void assertSame(Point expected, boolean found, double[] result, int offset){
+        if ( expected == null ){
+            assertFalse(found);
+        }else{
+            assertTrue(found);
+            assertEquals(expected.getX(), result[offset], 0);
+            assertEquals(expected.getY(), result[offset+1], 0);
+        }
+    }
+
+    private static void assertSame(Point[] expected, int cnt, double[] result){
+        assertEquals(expected.length, cnt);
+        for ( int i=0 ; i<cnt ; i++ ){
+            assertSame(expected[i], true, result, i*2);
+        }
+    }
+
+    private static void assertSameEdges(Edge e1, Edge e2){
+        double[] result = new double[2];
+        Point expected = referenceIntersection(e1, e2);
+        assertEquals(expected, e1.getIntersection(e2));
+        assertSame(expected, Edge.getIntersection(
+                e1.a.getX(), e1.a.getY(), e1.b.getX(), e1.b.getY(),
+                e2.a.getX(), e2.a.getY(), e2.b.getX(), e2.b.getY(), result), result, 0);
+
+        Line line = new Line(e2);
+        expected = referenceIntersection(e1, line);
+        assertEquals(expected, e1.getIntersection(line));
+        assertSame(expected, Edge.getIntersection(e1.a.getX(), e1.a.getY(), e1.b.getX(), e1.b.getY(), line, result), result, 0);
+
+        expected = referenceIntersection(line, e1);
+        assertEquals(expected, line.getIntersection(e1));
+        assertSame(expected, Line.getIntersection(line, e1.a.getX(), e1.a.getY(), e1.b.getX(), e1.b.getY(), result), result, 0);
+
+        Line other = new Line(e1);
+        expected = referenceIntersection(line, other);
+        assertEquals(expected, line.getIntersection(other));
+        assertSame(expected, Line.getIntersection(line.a, line.b, line.c, other.a, other.b, other.c, result), result, 0);
+    }
+
+    private static void assertSameTriangle(Triangle triangle, Edge edge){
+        double[] result = new double[6];
+        Line line = new Line(edge);
+        Point[] expected = referenceIntersection(triangle, line);
+        assertArrayEquals(expected, triangle.getIntersection(line));
+        assertSame(expected, triangle.getIntersection(line, result), result);
+
+        expected = referenceIntersection(triangle, edge);
+        assertArrayEquals(expected, triangle.getIntersection(edge));
+        assertSame(expected, triangle.getIntersection(edge, result), result);
+    }
+
+    private static Point point(Random random, boolean grid){
+        if ( grid ){
+            return new BasePoint(random.nextInt(7), random.nextInt(7));
+        }
+        return new BasePoint(random.nextDouble() * 200 - 100, random.nextDouble() * 200 - 100);
+    }
+
+    /**
+     * 整数の格子点では平行な線分や端点で接する線分、三角形の頂点を通る直線が頻繁に現れる
+     */
+    @Test
+    public void randomAgainstReference(){
+        Random random = new Random(20180517L);
+        for ( int trial=0 ; trial<100000 ; trial++ ){
+            boolean grid = trial % 2 == 0;
+            Point a = point(random, grid);
+            Point b = point(random, grid);
+            Point c = point(random, grid);
+            Point d = point(random, grid);
+            if ( a.equals(b) || c.equals(d) ) continue;
+            Edge e1 = new Edge(a, b);
+            Edge e2 = new Edge(c, d);
+            assertSameEdges(e1, e2);
+            assertSameEdges(e2, e1);
+            Point e = point(random, grid);
+            if ( !Line.onLine(a, b, e) ){
+                assertSameTriangle(new Triangle(a, b, e), e2);
+            }
+        }
+    }
+
+    @Test
+    public void parallel(){
+        double[] result = new double[]{-1, -1};
+        // 平行な線分
+        assertFalse(Edge.getIntersection(0, 0, 4, 2, 0, 1, 4, 3, result));
+        // 同一直線上で重なる線分も交点は持たない
+        assertFalse(Edge.getIntersection(0, 0, 4, 2, 2, 1, 6, 3, result));
+        // 平行な鉛直線分
+        assertFalse(Edge.getIntersection(1, 0, 1, 5, 3, -1, 3, 2, result));
+        // 退化した線分
+        assertFalse(Edge.getIntersection(1, 1, 1, 1, 0, 0, 3, 3, result));
+        Line line = new Line(0.5, 3.0);
+        assertFalse(Line.getIntersection(line, 0, 0, 4, 2, result));
+        assertFalse(Line.getIntersection(line.a, line.b, line.c, -0.5, 1.0, 1.0, result));
+        assertArrayEquals(new double[]{-1, -1}, result, 0);
+        assertNull(new Edge(new BasePoint(0, 0), new BasePoint(4, 2)).getIntersection(line));
+
+        assertSameEdges(new Edge(new BasePoint(0, 0), new BasePoint(4, 2)), new Edge(new BasePoint(0, 1), new BasePoint(4, 3)));
+        assertSameEdges(new Edge(new BasePoint(0, 0), new BasePoint(4, 2)), new Edge(new BasePoint(2, 1), new BasePoint(6, 3)));
+        assertSameEdges(new Edge(new BasePoint(1, 0), new BasePoint(1, 5)), new Edge(new BasePoint(3, -1), new BasePoint(3, 2)));
+
+        // 一辺と平行な直線は残り二辺とのみ交わる
+        Triangle triangle = new Triangle(new BasePoint(0, 0), new BasePoint(4, 0), new BasePoint(0, 4));
+        assertEquals(2, triangle.getIntersection(new Line(0, 1), result = new double[6]));
+        assertArrayEquals(new double[]{0, 1, 3, 1}, Arrays.copyOf(result, 4), 0);
+        assertSameTriangle(triangle, new Edge(new BasePoint(-1, 1), new BasePoint(5, 1)));
+        // 一辺を含む直線
+        assertSameTriangle(triangle, new Edge(new BasePoint(-1, 0), new BasePoint(5, 0)));
+    }
+
+    @Test
+    public void touching(){
+        double[] result = new double[2];
+        // 端点が他方の線分上にある
+        assertTrue(Edge.getIntersection(0, 0, 4, 0, 2, 0, 2, 3, result));
+        assertArrayEquals(new double[]{2, 0}, result, 0);
+        assertTrue(Edge.getIntersection(2, 0, 2, 3, 0, 0, 4, 0, result));
+        assertArrayEquals(new double[]{2, 0}, result, 0);
+        // 端点を共有する
+        assertTrue(Edge.getIntersection(0, 0, 4, 4, 4, 4, 8, 0, result));
+        assertArrayEquals(new double[]{4, 4}, result, 0);
+        // 延長線上でのみ接する
+        assertFalse(Edge.getIntersection(0, 0, 4, 0, 5, 0, 5, 3, result));
+
+        assertSameEdges(new Edge(new BasePoint(0, 0), new BasePoint(4, 0)), new Edge(new BasePoint(2, 0), new BasePoint(2, 3)));
+        assertSameEdges(new Edge(new BasePoint(0, 0), new BasePoint(4, 4)), new Edge(new BasePoint(4, 4), new BasePoint(8, 0)));
+        assertSameEdges(new Edge(new BasePoint(0, 0), new BasePoint(4, 0)), new Edge(new BasePoint(5, 0), new BasePoint(5, 3)));
+
+        Triangle triangle = new Triangle(new BasePoint(0, 0), new BasePoint(4, 0), new BasePoint(0, 4));
+        // 頂点aと対辺bcを通る直線は頂点aで二辺と交わる
+        result = new double[6];
+        assertEquals(3, triangle.getIntersection(new Line(1, 0), result));
+        assertArrayEquals(new double[]{2, 2, 0, 0, 0, 0}, result, 0);
+        assertSameTriangle(triangle, new Edge(new BasePoint(-1, -1), new BasePoint(3, 3)));
+        // 頂点のみで接する直線
+        assertSameTriangle(triangle, new Edge(new BasePoint(4, -1), new BasePoint(4, 3)));
+    }
+
+    @Test
+    public void offset(){
+        Line line = new Line(1.0, 0.0);
+        double[] result = new double[]{-1, -1, -1, -1};
+        assertTrue(Edge.getIntersection(0, 2, 2, 0, line, result, 2));
+        assertArrayEquals(new double[]{-1, -1, 1, 1}, result, 0);
+        assertTrue(Line.getIntersection(line.a, line.b, line.c, 1.0, 1.0, -2.0, result, 0));
+        assertArrayEquals(new double[]{1, 1, 1, 1}, result, 0);
+    }
+
+}
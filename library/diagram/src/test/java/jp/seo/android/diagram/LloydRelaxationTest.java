@@ -0,0 +1,70 @@
+package jp.seo.android.diagram;
+
+import org.junit.Test;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * {@link LloydRelaxation}の反復後のドロネー分割を移動後の点と照合します
+ * @author Seo-4d696b75
+ * @version 2026/10/19
+ */
+public class LloydRelaxationTest {
+
+    /**
+     * 5回反復し、移動後の点が矩形の内部にあり分割の頂点が移動後の点と一致することを確認します
+     */
+    private static LloydRelaxation relax(DatasetGenerator.Distribution distribution, int size, long seed){
+        LloydRelaxation lloyd = new LloydRelaxation(DatasetGenerator.generate(distribution, size, seed), DatasetGenerator.BORDER, 2);
+        assertEquals(5, lloyd.relax(5, 0));
+        List<Point> points = lloyd.getPoints();
+        Rectangle border = DatasetGenerator.BORDER;
+        for ( Point point : points ){
+            assertTrue(point.getX() >= border.left && point.getX() <= border.right);
+            assertTrue(point.getY() >= border.bottom && point.getY() <= border.top);
+        }
+        Set<Point> vertex = new HashSet<>();
+        for ( Triangle t : lloyd.getDiagram().getTriangles() ){
+            vertex.add(t.a);
+            vertex.add(t.b);
+            vertex.add(t.c);
+        }
+        assertEquals(new HashSet<>(points), vertex);
+        return lloyd;
+    }
+
+    @Test
+    public void uniform(){
+        LloydRelaxation lloyd = relax(DatasetGenerator.Distribution.UNIFORM, 300, 9L);
+        DelaunayDiagramTest.assertDelaunay(lloyd.getDiagram(), lloyd.getPoints());
+    }
+
+    /**
+     * 凸包上に一直線に並ぶ点を移動すると、隣接する点が一つしか辿れない場合や
+     * 移動先が凸包上の辺を延長した直線の近くにある場合がある.
+     * 反復後の行は座標の誤差程度に揺らぐため、凸包上にほぼ一直線に並ぶ点の間にも平たい三角形が補われます
+     */
+    @Test
+    public void grid(){
+        for ( int size : new int[]{300, 1000} ){
+            LloydRelaxation lloyd = relax(DatasetGenerator.Distribution.GRID, size, 9L);
+            DelaunayDiagramTest.assertDelaunay(lloyd.getDiagram(), lloyd.getPoints());
+        }
+    }
+
+    /**
+     * 凸包上に一直線に並ぶ点の近くで局所的に三角形分割し直せない移動は、
+     * 途中まで変更した分割を破棄して全体を計算し直し、分割と点の集合の整合を保つ
+     */
+    @Test
+    public void collinearHullFallback(){
+        relax(DatasetGenerator.Distribution.COLLINEAR_HULL, 1000, 4L);
+        relax(DatasetGenerator.Distribution.COLLINEAR_HULL, 1000, 6L);
+    }
+
+}
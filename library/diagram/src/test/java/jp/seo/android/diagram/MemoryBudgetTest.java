@@ -0,0 +1,263 @@
+package jp.seo.android.diagram;
+
+import org.junit.Assume;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.Assert.assertTrue;
+
+/**
+ * 計算に伴うメモリ確保量と、計算結果が保持するメモリ量の上限を検査します.<br>
+ * 確保量は{@link com.sun.management.ThreadMXBean}のスレッドごとの計測値を用い、
+ * {@link HighVoronoi}が内部で起動する補助スレッドでの確保量も終了前に計測して合算します.
+ * 保持量はGC後のヒープ使用量の差で概算するため、何もしない状態でGC後のヒープ使用量が安定しない実行環境では検査を省略し、
+ * 複数回の計測の最小値を上限と比較します.
+ * 上限を超えるとテストが失敗しビルドが止まります. 意図して増やす場合は各定数を更新してください
+ * @author Seo-4d696b75
+ * @version 2026/10/19
+ */
+public class MemoryBudgetTest {
+
+    /**
+     * {@link DelaunayDiagram#split(Rectangle)}で追加する点あたりの確保量[byte]
+     */
+    private static final long SPLIT_ALLOCATION_PER_POINT = 6 * 1024;
+
+    /**
+     * 解決済みの{@link DelaunayDiagram}が保持する点あたりのメモリ量[byte]
+     */
+    private static final long SPLIT_RETAINED_PER_POINT = 1536;
+
+    /**
+     * {@link HighVoronoi#solve(int, Point, HighVoronoi.PointProvider, HighVoronoi.ResultCallback)}の
+     * 出力する頂点あたりの確保量[byte] 補助スレッドでの確保量を含みます
+     */
+    private static final long SOLVE_ALLOCATION_PER_VERTEX = 2048;
+
+    /**
+     * 計算結果の多角形が保持する頂点あたりのメモリ量[byte]
+     */
+    private static final long SOLVE_RETAINED_PER_VERTEX = 256;
+
+    private static final int SIZE = 5000;
+    private static final int LEVEL = 10;
+    private static final long SEED = 20180513L;
+
+    /**
+     * 保持量の計測の繰り返し回数
+     */
+    private static final int RETAINED_TRIAL = 3;
+
+    private static com.sun.management.ThreadMXBean bean;
+
+    /**
+     * 保持量の計測中に計算結果を到達可能に保ちます
+     */
+    private static Object holder;
+
+    @BeforeClass
+    public static void setup(){
+        java.lang.management.ThreadMXBean base = ManagementFactory.getThreadMXBean();
+        Assume.assumeTrue(base instanceof com.sun.management.ThreadMXBean);
+        bean = (com.sun.management.ThreadMXBean)base;
+        Assume.assumeTrue(bean.isThreadAllocatedMemorySupported());
+        bean.setThreadAllocatedMemoryEnabled(true);
+    }
+
+    private static long allocatedBytes(){
+        return bean.getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+
+    private static long usedHeap(){
+        Runtime runtime = Runtime.getRuntime();
+        long used = Long.MAX_VALUE;
+        // 一度のGCでは回収しきれない場合がある
+        for ( int i=0 ; i<5 ; i++ ){
+            System.gc();
+            used = Math.min(used, runtime.totalMemory() - runtime.freeMemory());
+        }
+        return used;
+    }
+
+    private interface Factory {
+        Object create();
+    }
+
+    /**
+     * 計算結果が保持するメモリ量を複数回計測し最小値を返します
+     * @param budget 許容する保持量 GC後のヒープ使用量の揺らぎがこの1/8を超える場合は検査を省略します
+     */
+    private static long retainedBytes(Factory factory, long budget){
+        long noise = Math.abs(usedHeap() - usedHeap());
+        Assume.assumeTrue("heap usage after GC not stable: " + noise, noise < budget / 8);
+        long min = Long.MAX_VALUE;
+        for ( int i=0 ; i<RETAINED_TRIAL ; i++ ){
+            long before = usedHeap();
+            holder = factory.create();
+            min = Math.min(min, usedHeap() - before);
+            holder = null;
+        }
+        return min;
+    }
+
+    private static DelaunayDiagram split(List<Point> points){
+        DelaunayDiagram diagram = new DelaunayDiagram(points);
+        diagram.split(DatasetGenerator.BORDER);
+        return diagram;
+    }
+
+    private static void assertBudget(String name, long value, long budget){
+        String message = String.format(Locale.US, "%s: %d bytes (budget %d bytes)", name, value, budget);
+        assertTrue(message, value <= budget);
+    }
+
+    @Test
+    public void splitAllocation(){
+        List<Point> points = DatasetGenerator.generate(DatasetGenerator.Distribution.UNIFORM, SIZE, SEED);
+        // JITの影響を除くため一度実行しておく
+        split(DatasetGenerator.generate(DatasetGenerator.Distribution.UNIFORM, SIZE / 10, SEED));
+
+        long before = allocatedBytes();
+        split(points);
+        long allocated = allocatedBytes() - before;
+        assertBudget("split allocation per point", allocated / SIZE, SPLIT_ALLOCATION_PER_POINT);
+    }
+
+    @Test
+    public void splitRetained(){
+        final List<Point> points = DatasetGenerator.generate(DatasetGenerator.Distribution.UNIFORM, SIZE, SEED);
+        long retained = retainedBytes(new Factory() {
+            @Override
+            public Object create() {
+                return split(points);
+            }
+        }, SPLIT_RETAINED_PER_POINT * SIZE);
+        assertBudget("split retained per point", retained / SIZE, SPLIT_RETAINED_PER_POINT);
+    }
+
+    /**
+     * 補助スレッドの終了直前にそのスレッドの確保量を合算します
+     */
+    private static class MeasuredVoronoi extends HighVoronoi<Point> {
+
+        MeasuredVoronoi(Triangle frame){
+            super(frame);
+        }
+
+        private final List<Thread> threads = new ArrayList<>();
+        private final AtomicLong allocated = new AtomicLong();
+
+        @Override
+        Thread newThread(final Runnable runnable){
+            Thread thread = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    runnable.run();
+                    allocated.addAndGet(allocatedBytes());
+                }
+            });
+            synchronized ( threads ){
+                threads.add(thread);
+            }
+            return thread;
+        }
+
+        /**
+         * @return 起動した全ての補助スレッドでの確保量
+         */
+        long getAllocatedBytes() throws InterruptedException {
+            synchronized ( threads ){
+                for ( Thread thread : threads ) thread.join();
+            }
+            return allocated.get();
+        }
+    }
+
+    static HighVoronoi.PointProvider<Point> getProvider(DelaunayDiagram diagram){
+        final Map<Point, List<Point>> neighbors = new HashMap<>();
+        for ( Edge edge : diagram.getEdges() ){
+            addNeighbor(neighbors, edge.a, edge.b);
+            addNeighbor(neighbors, edge.b, edge.a);
+        }
+        return new HighVoronoi.PointProvider<Point>() {
+            @Override
+            public Collection<Point> getNeighbors(Point point) {
+                return neighbors.get(point);
+            }
+        };
+    }
+
+    private static Point getCenter(List<Point> points){
+        Point center = points.get(0);
+        double min = Double.MAX_VALUE;
+        for ( Point p : points ){
+            double d = Point.measure(p, DatasetGenerator.BORDER.getCenter());
+            if ( d < min ){
+                min = d;
+                center = p;
+            }
+        }
+        return center;
+    }
+
+    private static int countVertex(Polygon[] result){
+        int vertex = 0;
+        for ( Polygon polygon : result ) vertex += polygon.size();
+        return vertex;
+    }
+
+    @Test
+    public void solveAllocation() throws InterruptedException {
+        List<Point> points = DatasetGenerator.generate(DatasetGenerator.Distribution.UNIFORM, SIZE, SEED);
+        HighVoronoi.PointProvider<Point> provider = getProvider(split(points));
+        Point center = getCenter(points);
+        Triangle frame = DatasetGenerator.BORDER.getContainer();
+        new HighVoronoi<Point>(frame).solve(LEVEL, center, provider, null);
+
+        MeasuredVoronoi voronoi = new MeasuredVoronoi(frame);
+        long before = allocatedBytes();
+        Polygon[] result = voronoi.solve(LEVEL, center, provider, null);
+        long allocated = allocatedBytes() - before + voronoi.getAllocatedBytes();
+
+        int vertex = countVertex(result);
+        assertTrue(vertex > 0);
+        assertBudget("solve allocation per vertex", allocated / vertex, SOLVE_ALLOCATION_PER_VERTEX);
+    }
+
+    @Test
+    public void solveRetained(){
+        List<Point> points = DatasetGenerator.generate(DatasetGenerator.Distribution.UNIFORM, SIZE, SEED);
+        final HighVoronoi.PointProvider<Point> provider = getProvider(split(points));
+        final Point center = getCenter(points);
+        final Triangle frame = DatasetGenerator.BORDER.getContainer();
+        final int vertex = countVertex(new HighVoronoi<Point>(frame).solve(LEVEL, center, provider, null));
+        assertTrue(vertex > 0);
+
+        long retained = retainedBytes(new Factory() {
+            @Override
+            public Object create() {
+                return new HighVoronoi<Point>(frame).solve(LEVEL, center, provider, null);
+            }
+        }, SOLVE_RETAINED_PER_VERTEX * vertex);
+        assertBudget("solve retained per vertex", retained / vertex, SOLVE_RETAINED_PER_VERTEX);
+    }
+
+    private static void addNeighbor(Map<Point, List<Point>> map, Point key, Point value){
+        List<Point> list = map.get(key);
+        if ( list == null ){
+            list = new ArrayList<>();
+            map.put(key, list);
+        }
+        list.add(value);
+    }
+
+}
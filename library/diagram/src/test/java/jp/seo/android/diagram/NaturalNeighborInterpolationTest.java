@@ -0,0 +1,147 @@
+package jp.seo.android.diagram;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * {@link NaturalNeighborInterpolation}の重みを、補間点を加えたボロノイ領域を全ての母点との二等分線で切り取って求めた面積と比較し、
+ * 一次関数の値が誤差の範囲で再現されることを確認します
+ * @author Seo-4d696b75
+ * @version 2026/10/19
+ */
+public class NaturalNeighborInterpolationTest {
+
+    private static final NaturalNeighborInterpolation.ValueProvider LINEAR = new NaturalNeighborInterpolation.ValueProvider() {
+        @Override
+        public double getValue(Point point) {
+            return 3 * point.getX() - 2 * point.getY() + 7;
+        }
+    };
+
+    private static NaturalNeighborInterpolation build(DatasetGenerator.Distribution distribution, int size, List<Point> points){
+        points.addAll(DatasetGenerator.generate(distribution, size, 10L));
+        return new NaturalNeighborInterpolation(DelaunayDiagramTest.split(points), LINEAR);
+    }
+
+    /**
+     * 凸包の内部の補間点の領域は有界なので、十分に大きな矩形から切り取ります
+     */
+    private static final Rectangle BOUND = new Rectangle(-1e5, 1e5, 1e5, -1e5);
+
+    /**
+     * @return 補間点のボロノイ領域が各母点の元の領域から奪う面積
+     */
+    private static Map<Point, Double> getStolenArea(List<Point> points, Point target){
+        List<Point> cell = new ArrayList<>();
+        cell.add(new BasePoint(BOUND.left, BOUND.top));
+        cell.add(new BasePoint(BOUND.right, BOUND.top));
+        cell.add(new BasePoint(BOUND.right, BOUND.bottom));
+        cell.add(new BasePoint(BOUND.left, BOUND.bottom));
+        for ( Point p : points ) cell = VoronoiDiagramTest.clip(cell, target, p);
+        Map<Point, Double> area = new HashMap<>();
+        for ( Point p : points ){
+            List<Point> stolen = cell;
+            for ( Point q : points ){
+                if ( stolen.isEmpty() ) break;
+                if ( q != p ) stolen = VoronoiDiagramTest.clip(stolen, p, q);
+            }
+            if ( stolen.size() >= 3 ) area.put(p, VoronoiDiagramTest.getArea(stolen));
+        }
+        return area;
+    }
+
+    private static void assertWeights(DatasetGenerator.Distribution distribution){
+        List<Point> points = new ArrayList<>();
+        NaturalNeighborInterpolation interpolation = build(distribution, 200, points);
+        Polygon hull = new Polygon(DelaunayDiagramTest.getHull(points));
+        NaturalNeighborInterpolation.Query query = interpolation.newQuery();
+        Random random = new Random(14L);
+        int count = 0;
+        for ( int q=0 ; q<1000 && count<100 ; q++ ){
+            double px = random.nextDouble() * 1000;
+            double py = random.nextDouble() * 1000;
+            if ( !hull.containsPoint(px, py) ) continue;
+            Point target = new BasePoint(px, py);
+            assertEquals(LINEAR.getValue(target), query.interpolate(px, py), 1e-6);
+            Map<Point, Double> stolen = getStolenArea(points, target);
+            count++;
+            double total = 0;
+            for ( double area : stolen.values() ) total += area;
+            double sum = 0;
+            for ( int i=0 ; i<query.getNeighborSize() ; i++ ){
+                Point neighbor = interpolation.getPoint(query.getNeighbor(i));
+                Double area = stolen.remove(neighbor);
+                double expected = area == null ? 0 : area / total;
+                assertEquals(expected, query.getWeight(i), 1e-9);
+                sum += query.getWeight(i);
+            }
+            assertEquals(1, sum, 1e-9);
+            // 自然近傍に含まれない母点は面積を奪われない
+            for ( double area : stolen.values() ) assertEquals(0, area / total, 1e-9);
+        }
+        assertTrue(count > 0);
+    }
+
+    /**
+     * 凸包の内部で一次関数を再現し、凸包の外側ではNaNを返します. 格子の補間は点ごとの補間と一致します
+     */
+    private static void assertLinear(DatasetGenerator.Distribution distribution){
+        List<Point> points = new ArrayList<>();
+        NaturalNeighborInterpolation interpolation = build(distribution, 1000, points);
+        Polygon hull = new Polygon(DelaunayDiagramTest.getHull(points));
+        Rectangle border = DatasetGenerator.BORDER;
+        final int width = 80;
+        final int height = 60;
+        double[] raster = interpolation.interpolate(border, width, height, 2);
+        NaturalNeighborInterpolation.Query query = interpolation.newQuery();
+        double pixelWidth = border.getWidth() / width;
+        double pixelHeight = border.getHeight() / height;
+        int inside = 0;
+        for ( int row=0 ; row<height ; row++ ){
+            for ( int col=0 ; col<width ; col++ ){
+                double px = border.left + pixelWidth * (col + 0.5);
+                double py = border.bottom + pixelHeight * (row + 0.5);
+                double value = query.interpolate(px, py);
+                assertEquals(value, raster[row * width + col], 0);
+                assertEquals(hull.containsPoint(px, py), !Double.isNaN(value));
+                if ( !Double.isNaN(value) ){
+                    assertEquals(LINEAR.getValue(new BasePoint(px, py)), value, 1e-6);
+                    inside++;
+                }
+            }
+        }
+        assertTrue(inside > 0);
+        for ( Point point : points ){
+            assertEquals(LINEAR.getValue(point), query.interpolate(point.getX(), point.getY()), 1e-6);
+        }
+    }
+
+    @Test
+    public void uniform(){
+        assertWeights(DatasetGenerator.Distribution.UNIFORM);
+        assertLinear(DatasetGenerator.Distribution.UNIFORM);
+    }
+
+    @Test
+    public void clustered(){
+        assertWeights(DatasetGenerator.Distribution.CLUSTERED);
+        assertLinear(DatasetGenerator.Distribution.CLUSTERED);
+    }
+
+    /**
+     * 外接円の中心が一致する三角形を多く含む格子
+     */
+    @Test
+    public void grid(){
+        assertLinear(DatasetGenerator.Distribution.GRID);
+    }
+
+}
@@ -0,0 +1,105 @@
+package jp.seo.android.diagram;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * {@link NeighborSearch}の探索結果を全ての点との総当たりで求めた結果と比較します
+ * @author Seo-4d696b75
+ * @version 2026/10/19
+ */
+public class NeighborSearchTest {
+
+    private static final int QUERY = 300;
+
+    private static double[] getSortedDistance(NeighborSearch search, double px, double py){
+        double[] distance = new double[search.size()];
+        for ( int i=0 ; i<distance.length ; i++ ){
+            Point p = search.getPoint(i);
+            double dx = p.getX() - px;
+            double dy = p.getY() - py;
+            distance[i] = Math.sqrt(dx * dx + dy * dy);
+        }
+        Arrays.sort(distance);
+        return distance;
+    }
+
+    private static NeighborSearch build(DatasetGenerator.Distribution distribution, int size){
+        List<Point> points = DatasetGenerator.generate(distribution, size, 3L);
+        return new NeighborSearch(DelaunayDiagramTest.split(points));
+    }
+
+    /**
+     * 近い順に探した母点の距離が総当たりで求めた距離の昇順と一致する
+     */
+    private static void assertNearest(DatasetGenerator.Distribution distribution){
+        NeighborSearch search = build(distribution, 2000);
+        NeighborSearch.Query query = search.newQuery();
+        Random random = new Random(7L);
+        for ( int q=0 ; q<QUERY ; q++ ){
+            double px = random.nextDouble() * 1000;
+            double py = random.nextDouble() * 1000;
+            double[] expected = getSortedDistance(search, px, py);
+            assertEquals(expected[0], search.getPoint(query.nearest(px, py)).measure(new BasePoint(px, py)), 1e-9);
+            int k = 1 + random.nextInt(30);
+            assertEquals(k, query.nearest(px, py, k));
+            for ( int i=0 ; i<k ; i++ ){
+                assertEquals(expected[i], query.getDistance(i), 1e-9);
+            }
+        }
+    }
+
+    /**
+     * 指定した距離以内の母点が総当たりで求めた母点と一致する. 距離が境界に近い母点は比較しません
+     */
+    private static void assertWithin(DatasetGenerator.Distribution distribution){
+        NeighborSearch search = build(distribution, 2000);
+        NeighborSearch.Query query = search.newQuery();
+        Random random = new Random(11L);
+        for ( int q=0 ; q<QUERY ; q++ ){
+            double px = random.nextDouble() * 1000;
+            double py = random.nextDouble() * 1000;
+            double radius = random.nextDouble() * 80;
+            int size = query.within(px, py, radius);
+            Set<Integer> found = new HashSet<>();
+            for ( int i=0 ; i<size ; i++ ){
+                assertTrue(found.add(query.getResult(i)));
+            }
+            for ( int i=0 ; i<search.size() ; i++ ){
+                double d = search.getPoint(i).measure(new BasePoint(px, py));
+                if ( Math.abs(d - radius) < 1e-9 ) continue;
+                assertEquals(d < radius, found.contains(i));
+            }
+        }
+    }
+
+    @Test
+    public void uniform(){
+        assertNearest(DatasetGenerator.Distribution.UNIFORM);
+        assertWithin(DatasetGenerator.Distribution.UNIFORM);
+    }
+
+    @Test
+    public void clustered(){
+        assertNearest(DatasetGenerator.Distribution.CLUSTERED);
+        assertWithin(DatasetGenerator.Distribution.CLUSTERED);
+    }
+
+    /**
+     * 等距離の母点を多く含む格子
+     */
+    @Test
+    public void grid(){
+        assertNearest(DatasetGenerator.Distribution.GRID);
+        assertWithin(DatasetGenerator.Distribution.GRID);
+    }
+
+}
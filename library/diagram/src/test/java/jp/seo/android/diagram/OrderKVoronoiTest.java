@@ -0,0 +1,117 @@
+package jp.seo.android.diagram;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * {@link OrderKVoronoi}の各領域の母点の組を、領域内の点から全ての母点との総当たりで求めた最も近いk個の母点と比較します
+ * @author Seo-4d696b75
+ * @version 2026/10/19
+ */
+public class OrderKVoronoiTest {
+
+    /**
+     * @return 最も近いk個の母点の添字 昇順 k番目とk+1番目の距離が誤差の範囲で等しい場合はnull
+     */
+    private static int[] getNearest(final OrderKVoronoi voronoi, final double px, final double py, int k){
+        Integer[] order = new Integer[voronoi.size()];
+        final double[] distance = new double[order.length];
+        for ( int i=0 ; i<order.length ; i++ ){
+            order[i] = i;
+            distance[i] = voronoi.getPoint(i).measure(new BasePoint(px, py));
+        }
+        Arrays.sort(order, new Comparator<Integer>() {
+            @Override
+            public int compare(Integer o1, Integer o2) {
+                return Double.compare(distance[o1], distance[o2]);
+            }
+        });
+        if ( k < order.length && distance[order[k]] - distance[order[k-1]] < 1e-6 ) return null;
+        int[] label = new int[k];
+        for ( int i=0 ; i<k ; i++ ) label[i] = order[i];
+        Arrays.sort(label);
+        return label;
+    }
+
+    /**
+     * 頂点の平均は凸多角形の内部にあります. 面積で重み付けした重心は細い領域で桁落ちするため用いません
+     */
+    private static Point getInnerPoint(Polygon polygon){
+        double x = 0;
+        double y = 0;
+        for ( Point p : polygon ){
+            x += p.getX();
+            y += p.getY();
+        }
+        return new BasePoint(x / polygon.size(), y / polygon.size());
+    }
+
+    private static void assertLevel(DelaunayDiagram diagram, int level){
+        Rectangle border = DatasetGenerator.BORDER;
+        OrderKVoronoi voronoi = new OrderKVoronoi(diagram, border, level, 2);
+        double total = 0;
+        int[] previous = null;
+        for ( int c=0 ; c<voronoi.getCellCount() ; c++ ){
+            int[] label = voronoi.getLabel(c);
+            assertEquals(level, label.length);
+            if ( previous != null ) assertTrue(compare(previous, label) < 0);
+            previous = label;
+            assertEquals(c, voronoi.indexOf(label));
+            Polygon cell = voronoi.getCell(c);
+            double area = cell.getSignedArea();
+            assertTrue(area > 0);
+            total += area;
+            Point inner = getInnerPoint(cell);
+            int[] expected = getNearest(voronoi, inner.getX(), inner.getY(), level);
+            if ( expected != null ) assertArrayEquals(expected, label);
+        }
+        double area = border.getWidth() * border.getHeight();
+        assertEquals(area, total, area * 1e-9);
+        NeighborSearch.Query query = voronoi.getSearch().newQuery();
+        Random random = new Random(15L);
+        for ( int i=0 ; i<2000 ; i++ ){
+            double px = border.left + random.nextDouble() * border.getWidth();
+            double py = border.bottom + random.nextDouble() * border.getHeight();
+            int[] expected = getNearest(voronoi, px, py, level);
+            if ( expected == null ) continue;
+            int cell = voronoi.findCell(px, py, query);
+            assertTrue(cell >= 0);
+            assertArrayEquals(expected, voronoi.getLabel(cell));
+            assertTrue(voronoi.getCell(cell).containsPoint(px, py));
+        }
+    }
+
+    private static int compare(int[] a, int[] b){
+        for ( int i=0 ; i<a.length ; i++ ){
+            if ( a[i] != b[i] ) return a[i] < b[i] ? -1 : 1;
+        }
+        return 0;
+    }
+
+    private static void assertDistribution(DatasetGenerator.Distribution distribution){
+        List<Point> points = DatasetGenerator.generate(distribution, 150, 16L);
+        DelaunayDiagram diagram = DelaunayDiagramTest.split(points);
+        for ( int level=1 ; level<=4 ; level++ ){
+            assertLevel(diagram, level);
+        }
+    }
+
+    @Test
+    public void uniform(){
+        assertDistribution(DatasetGenerator.Distribution.UNIFORM);
+    }
+
+    @Test
+    public void clustered(){
+        assertDistribution(DatasetGenerator.Distribution.CLUSTERED);
+    }
+
+}
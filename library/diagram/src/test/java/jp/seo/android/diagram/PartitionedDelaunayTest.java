@@ -0,0 +1,63 @@
+package jp.seo.android.diagram;
+
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * {@link PartitionedDelaunay}の結果が{@link DelaunayDiagram#split(Rectangle)}と一致するか検査します
+ * @author Seo-4d696b75
+ * @version 2026/10/19
+ */
+public class PartitionedDelaunayTest {
+
+    private static void assertSameAsSingle(DatasetGenerator.Distribution distribution, int size){
+        List<Point> points = DatasetGenerator.generate(distribution, size, 5L);
+        PartitionedDelaunay partitioned = new PartitionedDelaunay(points, 8, 4);
+        partitioned.split(DatasetGenerator.BORDER);
+        DelaunayDiagram single = DelaunayDiagramTest.split(points);
+        assertEquals(single.getTriangles(), partitioned.getTriangles());
+    }
+
+    @Test
+    public void uniform(){
+        assertSameAsSingle(DatasetGenerator.Distribution.UNIFORM, 3000);
+    }
+
+    @Test
+    public void clustered(){
+        assertSameAsSingle(DatasetGenerator.Distribution.CLUSTERED, 3000);
+    }
+
+    /**
+     * 短冊の結果が重なる入力では単一の計算に切り替わる
+     */
+    @Test
+    public void collinearHull(){
+        assertSameAsSingle(DatasetGenerator.Distribution.COLLINEAR_HULL, 3000);
+    }
+
+    /**
+     * 短冊ごとの計算は複数のスレッドから進捗を表示しない
+     */
+    @Test
+    public void quietPartitions(){
+        List<Point> points = DatasetGenerator.generate(DatasetGenerator.Distribution.UNIFORM, 3000, 5L);
+        PartitionedDelaunay partitioned = new PartitionedDelaunay(points, 8, 4);
+        PrintStream original = System.out;
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        System.setOut(new PrintStream(out));
+        try{
+            partitioned.split(DatasetGenerator.BORDER);
+        }finally{
+            System.setOut(original);
+        }
+        assertEquals("", out.toString());
+        DelaunayDiagramTest.assertDelaunay(partitioned, points);
+    }
+
+}
@@ -0,0 +1,120 @@
+package jp.seo.android.diagram;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * {@link PointDeduplicator}の結果を、全ての点の組を比較する総当たりで求めた結果と比較します
+ * @author Seo-4d696b75
+ * @version 2026/10/19
+ */
+public class PointDeduplicatorTest {
+
+    /**
+     * 許容誤差の前後の距離で近接する点と座標の重複する点を含む入力
+     */
+    private static List<Point> generate(double tolerance, long seed){
+        Random random = new Random(seed);
+        List<Point> points = new ArrayList<>();
+        for ( int i=0 ; i<3000 ; i++ ){
+            Point p = new BasePoint(random.nextDouble() * 1000, random.nextDouble() * 1000);
+            points.add(p);
+            int type = random.nextInt(4);
+            if ( type == 0 ){
+                points.add(new BasePoint(p.getX(), p.getY()));
+            }else if ( type == 1 ){
+                double angle = random.nextDouble() * Math.PI * 2;
+                double r = tolerance * (0.5 + random.nextDouble());
+                points.add(new BasePoint(p.getX() + r * Math.cos(angle), p.getY() + r * Math.sin(angle)));
+            }
+        }
+        // 負の座標と格子の境界をまたぐ点
+        for ( int i=0 ; i<200 ; i++ ){
+            double x = (random.nextInt(200) - 100) * tolerance;
+            points.add(new BasePoint(x - tolerance * 0.3, -x));
+            points.add(new BasePoint(x + tolerance * 0.3, -x));
+        }
+        return points;
+    }
+
+    /**
+     * 入力の順に、先に残した点のいずれとも許容誤差より離れている点を残します.
+     * 許容誤差以下の残した点が複数ある場合、まとめる先はそのいずれでもよいとします
+     */
+    private static void assertDeduplicate(double tolerance, long seed){
+        List<Point> points = generate(tolerance, seed);
+        PointDeduplicator.Result<Point> result = new PointDeduplicator(tolerance).deduplicate(points);
+        List<Point> kept = new ArrayList<>();
+        Map<Point, Integer> order = new HashMap<>();
+        int merged = 0;
+        for ( Point p : points ){
+            if ( order.containsKey(p) ){
+                merged++;
+                continue;
+            }
+            order.put(p, order.size());
+            boolean near = false;
+            for ( Point q : kept ){
+                if ( p.measure(q) <= tolerance ){
+                    near = true;
+                    break;
+                }
+            }
+            if ( near ){
+                merged++;
+            }else{
+                kept.add(p);
+            }
+        }
+        assertEquals(kept, result.getPoints());
+        assertEquals(merged, result.getMergedCount());
+        Map<Point, Point> representatives = new HashMap<>();
+        for ( Point p : kept ) representatives.put(p, p);
+        for ( Point p : points ){
+            Point representative = result.getRepresentative(p);
+            assertSame(representatives.get(representative), representative);
+            assertTrue(p.measure(representative) <= tolerance);
+            assertTrue(order.get(representative) <= order.get(p));
+        }
+        // 残した点同士は許容誤差より離れている
+        for ( int i=0 ; i<kept.size() ; i++ ){
+            for ( int j=i+1 ; j<kept.size() ; j++ ){
+                assertTrue(kept.get(i).measure(kept.get(j)) > tolerance);
+            }
+        }
+    }
+
+    @Test
+    public void deduplicate(){
+        assertDeduplicate(0.5, 20L);
+        assertDeduplicate(3, 21L);
+    }
+
+    @Test
+    public void snap(){
+        final double tolerance = 2;
+        List<Point> points = generate(tolerance, 22L);
+        PointDeduplicator.Result<Point> result = new PointDeduplicator(tolerance).snap(points);
+        Map<Point, Point> snapped = new HashMap<>();
+        for ( Point p : points ){
+            Point target = new BasePoint(Math.round(p.getX() / tolerance) * tolerance, Math.round(p.getY() / tolerance) * tolerance);
+            Point representative = result.getRepresentative(p);
+            assertEquals(target, representative);
+            assertTrue(Math.abs(p.getX() - target.getX()) <= tolerance / 2);
+            assertTrue(Math.abs(p.getY() - target.getY()) <= tolerance / 2);
+            snapped.put(target, target);
+        }
+        assertEquals(snapped.size(), result.getPoints().size());
+        assertEquals(points.size() - snapped.size(), result.getMergedCount());
+    }
+
+}
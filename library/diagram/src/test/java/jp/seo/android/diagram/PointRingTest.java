@@ -0,0 +1,130 @@
+package jp.seo.android.diagram;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * {@link PointRing}の各操作を、カーソルの直後から並べたリストでの操作と比較します
+ * @author Seo-4d696b75
+ * @version 2026/10/19
+ */
+public class PointRingTest {
+
+    private static Point point(int i){
+        return new BasePoint(i, -i);
+    }
+
+    @Test
+    public void randomOperations(){
+        Random random = new Random(20180513L);
+        PointRing ring = new PointRing(4);
+        // 先頭がカーソルの直後、末尾がカーソルの直前
+        List<Point> expected = new ArrayList<>();
+        int id = 0;
+        for ( int step=0 ; step<20000 ; step++ ){
+            final int size = expected.size();
+            switch ( random.nextInt(12) ){
+                case 0:
+                case 1:
+                    Point p = point(id++);
+                    ring.add(p);
+                    expected.add(p);
+                    break;
+                case 2:
+                    if ( size == 0 ) break;
+                    assertEquals(expected.get(0), ring.next());
+                    expected.add(expected.remove(0));
+                    break;
+                case 3:
+                    if ( size == 0 ) break;
+                    assertEquals(expected.get(size-1), ring.previous());
+                    expected.add(0, expected.remove(size-1));
+                    break;
+                case 4:
+                    if ( size == 0 ) break;
+                    assertEquals(expected.remove(0), ring.removeNext());
+                    break;
+                case 5:
+                    if ( size == 0 ) break;
+                    assertEquals(expected.remove(size-1), ring.removePrevious());
+                    break;
+                case 6:
+                    int count = random.nextInt(Math.min(size, 8) + 1);
+                    ring.removeNext(count);
+                    expected.subList(0, count).clear();
+                    break;
+                case 7:
+                    Point[] array = new Point[random.nextInt(12) + 2];
+                    for ( int i=0 ; i<array.length ; i++ ) array[i] = point(id++);
+                    int offset = random.nextInt(2);
+                    ring.splice(array, offset, array.length - offset);
+                    expected.addAll(Arrays.asList(array).subList(offset, array.length));
+                    break;
+                case 8:
+                    ring.reverse();
+                    Collections.reverse(expected);
+                    break;
+                case 9:
+                    if ( size == 0 ) break;
+                    int target = random.nextInt(size);
+                    assertTrue(ring.seek(expected.get(target)));
+                    Collections.rotate(expected, -target);
+                    break;
+                case 10:
+                case 11:
+                    // 配列上で折り返す位置にカーソルのある環
+                    PointRing other = new PointRing(4);
+                    List<Point> list = new ArrayList<>();
+                    int length = random.nextInt(12);
+                    for ( int i=0 ; i<length ; i++ ){
+                        Point q = point(id++);
+                        other.add(q);
+                        list.add(q);
+                    }
+                    int shift = random.nextInt(length + 1);
+                    for ( int i=0 ; i<shift ; i++ ) other.next();
+                    Collections.rotate(list, -shift);
+                    if ( random.nextBoolean() ){
+                        ring.splice(other);
+                        expected.addAll(list);
+                    }else{
+                        ring.spliceNext(other);
+                        expected.addAll(0, list);
+                    }
+                    assertArrayEquals(list.toArray(), other.toArray());
+                    break;
+            }
+            assertEquals(expected.size(), ring.size());
+            assertArrayEquals(expected.toArray(), ring.toArray());
+            if ( !expected.isEmpty() ){
+                assertEquals(expected.get(0), ring.peekNext());
+                assertEquals(expected.get(expected.size()-1), ring.peekPrevious());
+            }
+        }
+    }
+
+    @Test
+    public void spliceRing(){
+        PointRing ring = new PointRing(Arrays.asList(point(0), point(1), point(2)));
+        PointRing other = new PointRing(Arrays.asList(point(10), point(11)));
+        other.next();
+        ring.next();
+        ring.splice(other);
+        // 引数の環のカーソルの直後から挿入され、引数の環は変わらない
+        assertArrayEquals(new Point[]{point(1), point(2), point(0), point(11), point(10)}, ring.toArray());
+        assertArrayEquals(new Point[]{point(11), point(10)}, other.toArray());
+        assertFalse(ring.seek(point(3)));
+        assertEquals(point(1), ring.peekNext());
+    }
+
+}
@@ -0,0 +1,189 @@
+package jp.seo.android.diagram;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * {@link Polygon.Builder}と{@link Polygon.MergeBuilder}が辺の順序に依らず同じ多角形を組み立てるか検査します
+ * @author Seo-4d696b75
+ * @version 2026/10/19
+ */
+public class PolygonTest {
+
+    private static List<Point> circle(int size, Random random){
+        List<Point> list = new ArrayList<>(size);
+        for ( int i=0 ; i<size ; i++ ){
+            double angle = Math.PI * 2 * i / size;
+            double radius = 50 + random.nextDouble() * 50;
+            list.add(new BasePoint(radius * Math.cos(angle), radius * Math.sin(angle)));
+        }
+        return list;
+    }
+
+    /**
+     * 回転と反転を除いて同じ点列か判定します
+     */
+    private static boolean isSameLoop(List<Point> expected, List<Point> actual){
+        if ( expected.size() != actual.size() ) return false;
+        List<Point> list = new ArrayList<>(actual);
+        for ( int k=0 ; k<2 ; k++ ){
+            int start = list.indexOf(expected.get(0));
+            if ( start < 0 ) return false;
+            Collections.rotate(list, -start);
+            if ( list.equals(expected) ) return true;
+            Collections.reverse(list);
+        }
+        return false;
+    }
+
+    @Test
+    public void builderShuffledEdges(){
+        Random random = new Random(20180513L);
+        for ( int trial=0 ; trial<50 ; trial++ ){
+            List<Point> loop = circle(3 + random.nextInt(200), random);
+            List<Edge> edges = new ArrayList<>();
+            for ( int i=0 ; i<loop.size() ; i++ ){
+                edges.add(new Edge(loop.get(i), loop.get((i+1)%loop.size())));
+            }
+            Collections.shuffle(edges, random);
+            Polygon.Builder builder = new Polygon.Builder();
+            for ( int i=0 ; i<edges.size() ; i++ ){
+                assertFalse(builder.isClosed());
+                builder.append(edges.get(i));
+                // 同じ辺は無視される
+                if ( !builder.isClosed() ) builder.append(edges.get(i));
+            }
+            assertTrue(builder.isClosed());
+            Polygon polygon = builder.build();
+            assertNotNull(polygon);
+            assertTrue(isSameLoop(loop, polygon.getPoints()));
+        }
+    }
+
+    @Test
+    public void builderLine(){
+        Random random = new Random(1L);
+        List<Point> loop = circle(40, random);
+        List<Edge> edges = new ArrayList<>();
+        for ( int i=0 ; i<loop.size()-1 ; i++ ){
+            edges.add(new Edge(loop.get(i), loop.get(i+1)));
+        }
+        Collections.shuffle(edges, random);
+        Polygon.Builder builder = new Polygon.Builder();
+        for ( Edge edge : edges ) builder.append(edge);
+        assertTrue(builder.isLine());
+        assertNull(builder.build());
+        List<Point> line = builder.getLine();
+        if ( !line.get(0).equals(loop.get(0)) ) Collections.reverse(line);
+        assertEquals(loop, line);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void builderBranch(){
+        Polygon.Builder builder = new Polygon.Builder();
+        Point a = new BasePoint(0, 0);
+        Point b = new BasePoint(1, 0);
+        Point c = new BasePoint(2, 0);
+        builder.append(new Edge(a, b));
+        builder.append(new Edge(b, c));
+        builder.append(new Edge(b, new BasePoint(1, 1)));
+    }
+
+    private static Polygon square(int x, int y){
+        List<Point> list = new ArrayList<>(4);
+        list.add(new BasePoint(x, y));
+        list.add(new BasePoint(x + 1, y));
+        list.add(new BasePoint(x + 1, y + 1));
+        list.add(new BasePoint(x, y + 1));
+        return new Polygon(list);
+    }
+
+    @Test
+    public void containsPointFarFromOrigin(){
+        // 原点から遠く、ほぼ水平な長い辺を持つ四角形
+        final double base = 1e7;
+        List<Point> list = new ArrayList<>(4);
+        list.add(new BasePoint(0, base));
+        list.add(new BasePoint(1000, base + 1e-6));
+        list.add(new BasePoint(1000, base + 1));
+        list.add(new BasePoint(0, base + 1));
+        Polygon polygon = new Polygon(list);
+        Random random = new Random(20180513L);
+        for ( int i=0 ; i<200000 ; i++ ){
+            double x = random.nextDouble() * 1000;
+            double y = base + random.nextDouble() * 2e-6;
+            assertEquals(Polygon.contains(list, x, y), polygon.containsPoint(x, y));
+        }
+    }
+
+    @Test
+    public void mergeSquares(){
+        // 3x3 の格子から中央を除くと穴を一つ持つ多角形になる
+        Polygon.MergeBuilder builder = new Polygon.MergeBuilder();
+        List<Polygon> cells = new ArrayList<>();
+        for ( int x=0 ; x<3 ; x++ ){
+            for ( int y=0 ; y<3 ; y++ ){
+                if ( x != 1 || y != 1 ) cells.add(square(x, y));
+            }
+        }
+        Collections.shuffle(cells, new Random(3L));
+        for ( Polygon cell : cells ) builder.append(cell);
+        // 離れた正方形は別の多角形になる
+        builder.append(square(5, 5));
+        List<Polygon> result = builder.build();
+        assertEquals(2, result.size());
+        Polygon ring = result.get(0).hasHole() ? result.get(0) : result.get(1);
+        Polygon single = ring == result.get(0) ? result.get(1) : result.get(0);
+        assertEquals(9.0, ring.getSignedArea(), 1e-9);
+        assertEquals(1, ring.getHoles().size());
+        assertEquals(-1.0, ring.getHoles().get(0).getSignedArea(), 1e-9);
+        assertEquals(1.0, single.getSignedArea(), 1e-9);
+        assertTrue(ring.containsPoint(0.5, 0.5));
+        assertFalse(ring.containsPoint(1.5, 1.5));
+    }
+
+    /**
+     * 穴を持つ多角形を再び結合しても穴は保たれ、穴を埋める多角形と結合すると穴は消える
+     */
+    @Test
+    public void mergeHoles(){
+        Polygon.MergeBuilder builder = new Polygon.MergeBuilder();
+        for ( int x=0 ; x<3 ; x++ ){
+            for ( int y=0 ; y<3 ; y++ ){
+                if ( x != 1 || y != 1 ) builder.append(square(x, y));
+            }
+        }
+        Polygon ring = builder.build().get(0);
+        assertEquals(1, ring.getHoles().size());
+
+        builder = new Polygon.MergeBuilder();
+        builder.append(ring);
+        builder.append(square(3, 1));
+        List<Polygon> result = builder.build();
+        assertEquals(1, result.size());
+        assertEquals(10.0, result.get(0).getSignedArea(), 1e-9);
+        assertEquals(1, result.get(0).getHoles().size());
+        assertEquals(-1.0, result.get(0).getHoles().get(0).getSignedArea(), 1e-9);
+        assertFalse(result.get(0).containsPoint(1.5, 1.5));
+        assertTrue(result.get(0).containsPoint(3.5, 1.5));
+
+        builder = new Polygon.MergeBuilder();
+        builder.append(ring);
+        builder.append(square(1, 1));
+        result = builder.build();
+        assertEquals(1, result.size());
+        assertEquals(9.0, result.get(0).getSignedArea(), 1e-9);
+        assertFalse(result.get(0).hasHole());
+    }
+
+}
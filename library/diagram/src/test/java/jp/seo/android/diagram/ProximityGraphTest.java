@@ -0,0 +1,123 @@
+package jp.seo.android.diagram;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * {@link ProximityGraph}で抽出した辺を全ての点の組との総当たりで求めた辺と比較します
+ * @author Seo-4d696b75
+ * @version 2026/10/19
+ */
+public class ProximityGraphTest {
+
+    private static ProximityGraph build(DatasetGenerator.Distribution distribution, int size){
+        List<Point> points = DatasetGenerator.generate(distribution, size, 4L);
+        return new ProximityGraph(DelaunayDiagramTest.split(points), 2);
+    }
+
+    private static double distance(ProximityGraph graph, int a, int b){
+        return graph.getPoint(a).measure(graph.getPoint(b));
+    }
+
+    private static Set<Long> toSet(ProximityGraph graph, int[] edges){
+        Set<Long> set = new HashSet<>();
+        for ( int i=0 ; i<edges.length ; i+=2 ){
+            assertTrue(set.add(getKey(graph, edges[i], edges[i+1])));
+        }
+        return set;
+    }
+
+    private static long getKey(ProximityGraph graph, int a, int b){
+        return (long)Math.min(a, b) * graph.size() + Math.max(a, b);
+    }
+
+    /**
+     * Prim法で全ての点の組から求めた最小全域木の長さと比較します
+     */
+    private static void assertMinimumSpanningTree(ProximityGraph graph){
+        final int size = graph.size();
+        double[] min = new double[size];
+        boolean[] added = new boolean[size];
+        Arrays.fill(min, Double.POSITIVE_INFINITY);
+        min[0] = 0;
+        double expected = 0;
+        for ( int n=0 ; n<size ; n++ ){
+            int next = -1;
+            for ( int i=0 ; i<size ; i++ ){
+                if ( !added[i] && (next < 0 || min[i] < min[next]) ) next = i;
+            }
+            added[next] = true;
+            expected += min[next];
+            for ( int i=0 ; i<size ; i++ ){
+                if ( !added[i] ) min[i] = Math.min(min[i], distance(graph, next, i));
+            }
+        }
+        int[] edges = graph.getMinimumSpanningTree();
+        assertEquals(size - 1, toSet(graph, edges).size());
+        double length = 0;
+        for ( int i=0 ; i<edges.length ; i+=2 ){
+            length += distance(graph, edges[i], edges[i+1]);
+        }
+        assertEquals(expected, length, expected * 1e-12);
+    }
+
+    /**
+     * 直径の円の内部および円周上に他の点を含まない辺、両端点からの距離がいずれも辺の長さ未満となる点を含まない辺を
+     * 全ての点の組について調べます
+     */
+    private static void assertGabrielAndRelativeNeighbor(ProximityGraph graph){
+        final int size = graph.size();
+        Set<Long> gabriel = new HashSet<>();
+        Set<Long> relative = new HashSet<>();
+        for ( int a=0 ; a<size ; a++ ){
+            Point pa = graph.getPoint(a);
+            for ( int b=a+1 ; b<size ; b++ ){
+                Point pb = graph.getPoint(b);
+                double limit = distance(graph, a, b);
+                boolean isGabriel = true;
+                boolean isRelative = true;
+                for ( int c=0 ; c<size && (isGabriel || isRelative) ; c++ ){
+                    if ( c == a || c == b ) continue;
+                    Point pc = graph.getPoint(c);
+                    double dot = (pa.getX() - pc.getX()) * (pb.getX() - pc.getX()) + (pa.getY() - pc.getY()) * (pb.getY() - pc.getY());
+                    if ( dot <= 0 ) isGabriel = false;
+                    if ( distance(graph, a, c) < limit && distance(graph, b, c) < limit ) isRelative = false;
+                }
+                if ( isGabriel ) gabriel.add(getKey(graph, a, b));
+                if ( isRelative ) relative.add(getKey(graph, a, b));
+            }
+        }
+        assertEquals(gabriel, toSet(graph, graph.getGabrielGraph()));
+        assertEquals(relative, toSet(graph, graph.getRelativeNeighborhoodGraph()));
+    }
+
+    @Test
+    public void uniform(){
+        ProximityGraph graph = build(DatasetGenerator.Distribution.UNIFORM, 400);
+        assertMinimumSpanningTree(graph);
+        assertGabrielAndRelativeNeighbor(graph);
+    }
+
+    @Test
+    public void clustered(){
+        ProximityGraph graph = build(DatasetGenerator.Distribution.CLUSTERED, 400);
+        assertMinimumSpanningTree(graph);
+        assertGabrielAndRelativeNeighbor(graph);
+    }
+
+    /**
+     * 同じ長さの辺を多く含む格子では最小全域木の長さのみ比較します
+     */
+    @Test
+    public void grid(){
+        assertMinimumSpanningTree(build(DatasetGenerator.Distribution.GRID, 1000));
+    }
+
+}
@@ -0,0 +1,117 @@
+package jp.seo.android.diagram;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * {@link VoronoiDiagram}の領域を、母点ごとに矩形を他の全ての母点との垂直二等分線で切り取った多角形と比較します
+ * @author Seo-4d696b75
+ * @version 2026/10/19
+ */
+public class VoronoiDiagramTest {
+
+    private static final double EPSILON = 1e-6;
+
+    /**
+     * 多角形を点pの側の半平面で切り取ります
+     */
+    static List<Point> clip(List<Point> polygon, Point p, Point q){
+        // pとqの垂直二等分線に対してpの側を正とする
+        double a = p.getX() - q.getX();
+        double b = p.getY() - q.getY();
+        double c = (q.getX() * q.getX() + q.getY() * q.getY() - p.getX() * p.getX() - p.getY() * p.getY()) / 2;
+        List<Point> result = new ArrayList<>();
+        final int size = polygon.size();
+        for ( int i=0 ; i<size ; i++ ){
+            Point s = polygon.get(i);
+            Point e = polygon.get((i+1) % size);
+            double vs = a * s.getX() + b * s.getY() + c;
+            double ve = a * e.getX() + b * e.getY() + c;
+            if ( vs >= 0 ) result.add(s);
+            if ( (vs >= 0) != (ve >= 0) ){
+                double t = vs / (vs - ve);
+                result.add(new BasePoint(s.getX() + (e.getX() - s.getX()) * t, s.getY() + (e.getY() - s.getY()) * t));
+            }
+        }
+        return result;
+    }
+
+    private static List<Point> getCell(VoronoiDiagram voronoi, int index, Rectangle border){
+        List<Point> cell = new ArrayList<>();
+        cell.add(new BasePoint(border.left, border.top));
+        cell.add(new BasePoint(border.right, border.top));
+        cell.add(new BasePoint(border.right, border.bottom));
+        cell.add(new BasePoint(border.left, border.bottom));
+        Point p = voronoi.getPoint(index);
+        for ( int i=0 ; i<voronoi.size() ; i++ ){
+            if ( i != index ) cell = clip(cell, p, voronoi.getPoint(i));
+        }
+        return cell;
+    }
+
+    static double getArea(List<Point> polygon){
+        double area = 0;
+        for ( int i=0 ; i<polygon.size() ; i++ ){
+            Point p = polygon.get(i);
+            Point q = polygon.get((i+1) % polygon.size());
+            area += p.getX() * q.getY() - q.getX() * p.getY();
+        }
+        return Math.abs(area) / 2;
+    }
+
+    /**
+     * 一方の多角形の全ての頂点が他方の多角形のいずれかの頂点に一致します
+     */
+    private static void assertVertexCovered(List<Point> polygon, List<Point> other){
+        for ( Point p : polygon ){
+            double min = Double.POSITIVE_INFINITY;
+            for ( Point q : other ) min = Math.min(min, p.measure(q));
+            assertTrue("vertex " + p + " not found", min < EPSILON);
+        }
+    }
+
+    private static void assertCells(DatasetGenerator.Distribution distribution, int size){
+        List<Point> points = DatasetGenerator.generate(distribution, size, 6L);
+        VoronoiDiagram voronoi = new VoronoiDiagram(DelaunayDiagramTest.split(points), 2);
+        Rectangle border = DatasetGenerator.BORDER;
+        Polygon[] cells = voronoi.getCells(border);
+        assertEquals(points.size(), cells.length);
+        double total = 0;
+        for ( int i=0 ; i<cells.length ; i++ ){
+            assertNotNull(cells[i]);
+            List<Point> expected = getCell(voronoi, i, border);
+            List<Point> actual = cells[i].getPoints();
+            double area = getArea(actual);
+            assertEquals(getArea(expected), area, EPSILON);
+            assertVertexCovered(actual, expected);
+            assertVertexCovered(expected, actual);
+            total += area;
+        }
+        assertEquals(border.getWidth() * border.getHeight(), total, EPSILON * cells.length);
+    }
+
+    @Test
+    public void uniform(){
+        assertCells(DatasetGenerator.Distribution.UNIFORM, 300);
+    }
+
+    @Test
+    public void clustered(){
+        assertCells(DatasetGenerator.Distribution.CLUSTERED, 300);
+    }
+
+    /**
+     * 外接円の中心が一致する三角形を多く含む格子
+     */
+    @Test
+    public void grid(){
+        assertCells(DatasetGenerator.Distribution.GRID, 300);
+    }
+
+}
@@ -0,0 +1,74 @@
+package jp.seo.android.diagram;
+
+import org.junit.Test;
+
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * {@link VoronoiRaster}の画素の値と探索結果を、全ての母点との総当たりで求めた最も近い母点と比較します.
+ * 等距離の母点はいずれを返してもよいため距離で比較します
+ * @author Seo-4d696b75
+ * @version 2026/10/19
+ */
+public class VoronoiRasterTest {
+
+    private static final double EPSILON = 1e-9;
+
+    private static double getNearestDistance(VoronoiRaster raster, double x, double y){
+        NeighborSearch search = raster.getSearch();
+        Point target = new BasePoint(x, y);
+        double min = Double.POSITIVE_INFINITY;
+        for ( int i=0 ; i<search.size() ; i++ ){
+            min = Math.min(min, search.getPoint(i).measure(target));
+        }
+        return min;
+    }
+
+    private static void assertRaster(DatasetGenerator.Distribution distribution){
+        List<Point> points = DatasetGenerator.generate(distribution, 500, 8L);
+        Rectangle border = DatasetGenerator.BORDER;
+        final int width = 160;
+        final int height = 120;
+        VoronoiRaster raster = new VoronoiRaster(DelaunayDiagramTest.split(points), border, width, height, 2);
+        double pixelWidth = border.getWidth() / width;
+        double pixelHeight = border.getHeight() / height;
+        for ( int row=0 ; row<height ; row++ ){
+            for ( int col=0 ; col<width ; col++ ){
+                double x = border.left + pixelWidth * (col + 0.5);
+                double y = border.bottom + pixelHeight * (row + 0.5);
+                Point label = raster.getPoint(raster.getLabel(col, row));
+                assertEquals(getNearestDistance(raster, x, y), label.measure(new BasePoint(x, y)), EPSILON);
+            }
+        }
+        NeighborSearch.Query query = raster.getSearch().newQuery();
+        Random random = new Random(12L);
+        for ( int i=0 ; i<5000 ; i++ ){
+            double x = border.left + random.nextDouble() * border.getWidth();
+            double y = border.bottom + random.nextDouble() * border.getHeight();
+            Point found = raster.getPoint(raster.find(x, y, query));
+            assertEquals(getNearestDistance(raster, x, y), found.measure(new BasePoint(x, y)), EPSILON);
+        }
+    }
+
+    @Test
+    public void uniform(){
+        assertRaster(DatasetGenerator.Distribution.UNIFORM);
+    }
+
+    @Test
+    public void clustered(){
+        assertRaster(DatasetGenerator.Distribution.CLUSTERED);
+    }
+
+    /**
+     * 等距離の母点を多く含む格子
+     */
+    @Test
+    public void grid(){
+        assertRaster(DatasetGenerator.Distribution.GRID);
+    }
+
+}
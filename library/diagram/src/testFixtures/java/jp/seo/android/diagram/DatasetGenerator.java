@@ -0,0 +1,190 @@
+package jp.seo.android.diagram;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * ベンチマーク・テストで共有する入力点集合を生成します.<br>
+ * 一様乱数では現れにくい処理経路を通す分布を用意しています. 同じ分布・点数・シード値からは常に同じ点集合が得られます.
+ * 生成される点は全て{@link #BORDER}の内部に含まれます
+ * @author Seo-4d696b75
+ * @version 2026/10/19
+ */
+public final class DatasetGenerator {
+
+    private DatasetGenerator(){}
+
+    public static final Rectangle BORDER = new Rectangle(0, 1000, 1000, 0);
+
+    public enum Distribution{
+        /**
+         * 一様分布
+         */
+        UNIFORM,
+        /**
+         * 都市の駅のように少数の中心の周囲に密集した分布
+         */
+        CLUSTERED,
+        /**
+         * 正方格子. 点が既存の辺上に乗りやすく{@link DelaunayDiagram}の辺上への追加処理を多く通る
+         */
+        GRID,
+        /**
+         * 同心円上に並ぶ格子点. 多数の点が厳密に同一円周上にあり辺のフリップ判定が際どくなる
+         */
+        COCIRCULAR,
+        /**
+         * 半数の点を境界付近の直線上にわずかなずれで並べる. 凸包がほぼ一直線に並ぶ頂点を持つ
+         */
+        COLLINEAR_HULL
+    }
+
+    public static List<Point> generate(Distribution distribution, int size, long seed){
+        Random random = new Random(seed);
+        switch ( distribution ){
+            case UNIFORM:
+                return uniform(size, random);
+            case CLUSTERED:
+                return clustered(size, random);
+            case GRID:
+                return grid(size);
+            case COCIRCULAR:
+                return cocircular(size);
+            case COLLINEAR_HULL:
+                return collinearHull(size, random);
+            default:
+                throw new IllegalArgumentException("unknown distribution: " + distribution);
+        }
+    }
+
+    /**
+     * {@link #generate(Distribution, int, long)}と同じ点を生成し、その座標を配列にコピーします
+     */
+    public static PointBuffer generateBuffer(Distribution distribution, int size, long seed){
+        return PointBuffer.of(generate(distribution, size, seed));
+    }
+
+    private static List<Point> uniform(int size, Random random){
+        List<Point> list = new ArrayList<>(size);
+        for ( int i=0 ; i<size ; i++ ){
+            list.add(new BasePoint(
+                    BORDER.left + random.nextDouble() * BORDER.getWidth(),
+                    BORDER.bottom + random.nextDouble() * BORDER.getHeight()
+            ));
+        }
+        return list;
+    }
+
+    private static List<Point> clustered(int size, Random random){
+        final int clusters = Math.max(1, size / 500);
+        final double sigma = BORDER.getWidth() * 0.01;
+        double[] cx = new double[clusters];
+        double[] cy = new double[clusters];
+        for ( int i=0 ; i<clusters ; i++ ){
+            cx[i] = BORDER.left + (0.1 + random.nextDouble() * 0.8) * BORDER.getWidth();
+            cy[i] = BORDER.bottom + (0.1 + random.nextDouble() * 0.8) * BORDER.getHeight();
+        }
+        List<Point> list = new ArrayList<>(size);
+        while ( list.size() < size ){
+            int c = random.nextInt(clusters);
+            double x = cx[c] + random.nextGaussian() * sigma;
+            double y = cy[c] + random.nextGaussian() * sigma;
+            if ( x < BORDER.left || x > BORDER.right || y < BORDER.bottom || y > BORDER.top ) continue;
+            list.add(new BasePoint(x, y));
+        }
+        return list;
+    }
+
+    private static List<Point> grid(int size){
+        final int width = (int)Math.ceil(Math.sqrt(size));
+        // 座標を正確に表現できるよう間隔は2の冪とし、同一直線・同一円周上の判定に丸め誤差が入らないようにする
+        final double step = dyadic(BORDER.getWidth() / (width + 1));
+        List<Point> list = new ArrayList<>(size);
+        for ( int i=0 ; i<width && list.size()<size ; i++ ){
+            for ( int j=0 ; j<width && list.size()<size ; j++ ){
+                list.add(new BasePoint(BORDER.left + step * (i + 1), BORDER.bottom + step * (j + 1)));
+            }
+        }
+        return list;
+    }
+
+    /**
+     * 指定した値以下で最大の2の冪
+     */
+    private static double dyadic(double value){
+        return Math.pow(2, Math.floor(Math.log(value) / Math.log(2)));
+    }
+
+    /**
+     * 格子点を8個以上含む円 x^2+y^2=m を半径の小さい順に選び、その円周上の格子点を集める.
+     * 座標が整数（を2の冪倍したもの）なので同一円周上にあることが誤差なく成り立つ
+     */
+    private static List<Point> cocircular(int size){
+        final int minCount = 8;
+        int radius = 16;
+        List<int[]> selected;
+        while ( true ){
+            // 半径radius以内の格子点を円ごとに分類
+            final int limit = radius * radius;
+            int[] count = new int[limit + 1];
+            for ( int x=-radius ; x<=radius ; x++ ){
+                for ( int y=-radius ; y<=radius ; y++ ){
+                    int m = x*x + y*y;
+                    if ( m <= limit ) count[m]++;
+                }
+            }
+            int total = 0;
+            int maxM = 0;
+            for ( int m=1 ; m<=limit && total<size ; m++ ){
+                if ( count[m] >= minCount ){
+                    total += count[m];
+                    maxM = m;
+                }
+            }
+            if ( total >= size ){
+                selected = new ArrayList<>(total);
+                for ( int x=-radius ; x<=radius ; x++ ){
+                    for ( int y=-radius ; y<=radius ; y++ ){
+                        int m = x*x + y*y;
+                        if ( m <= maxM && m > 0 && count[m] >= minCount ) selected.add(new int[]{m, x, y});
+                    }
+                }
+                break;
+            }
+            radius *= 2;
+        }
+        Collections.sort(selected, new Comparator<int[]>() {
+            @Override
+            public int compare(int[] o1, int[] o2) {
+                if ( o1[0] != o2[0] ) return o1[0] < o2[0] ? -1 : 1;
+                if ( o1[1] != o2[1] ) return o1[1] < o2[1] ? -1 : 1;
+                return o1[2] < o2[2] ? -1 : (o1[2] == o2[2] ? 0 : 1);
+            }
+        });
+        final Point center = BORDER.getCenter();
+        final double scale = dyadic(Math.min(BORDER.getWidth(), BORDER.getHeight()) * 0.45 / Math.sqrt(selected.get(size-1)[0]));
+        List<Point> list = new ArrayList<>(size);
+        for ( int i=0 ; i<size ; i++ ){
+            int[] p = selected.get(i);
+            list.add(new BasePoint(center.getX() + p[1] * scale, center.getY() + p[2] * scale));
+        }
+        return list;
+    }
+
+    private static List<Point> collinearHull(int size, Random random){
+        final int hull = size / 2;
+        final double jitter = BORDER.getHeight() * 1e-9;
+        List<Point> list = new ArrayList<>(size);
+        for ( int i=0 ; i<hull ; i++ ){
+            double x = BORDER.left + BORDER.getWidth() * (i + 0.5) / hull;
+            double y = (i % 2 == 0) ? BORDER.bottom + jitter * random.nextDouble() : BORDER.top - jitter * random.nextDouble();
+            list.add(new BasePoint(x, y));
+        }
+        list.addAll(uniform(size - hull, random));
+        return list;
+    }
+
+}